@@ -0,0 +1,265 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-through cache of the plugins, by id and by identifier.
+ *
+ * Plugins only change when they are registered, updated or deleted, so the
+ * workflow submission and exit paths read them from memory. Entries are
+ * evicted on every save or delete of a plugin, whether it goes through the
+ * REST API or the repository. A plugin read before an eviction is not
+ * cached, so an evicted entry can not be brought back by a concurrent read.
+ * Unknown identifiers are remembered for a short time, so that looking them
+ * up again does not reload every plugin.
+ * The cached plugins are shared and must not be modified.
+ */
+@Component
+public class PluginCache extends AbstractMongoEventListener<Plugin> {
+
+    private static final long MISSING_IDENTIFIER_TTL_NANOS
+            = TimeUnit.SECONDS.toNanos(30);
+
+    @Autowired
+    private PluginRepository pluginRepository;
+
+    // Guards the evictions and the insertions of plugins read from the
+    // database, the reads of the cache do not lock
+    private final Object lock = new Object();
+
+    // Incremented by each eviction
+    private long generation;
+
+    private final ConcurrentMap<String, CachedPlugin> pluginsById
+            = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, String> idsByIdentifier
+            = new ConcurrentHashMap<>();
+
+    // Expiry time of each identifier not found, as given by System.nanoTime()
+    private final ConcurrentMap<String, Long> missingIdentifiers
+            = new ConcurrentHashMap<>();
+
+    /**
+     * @param id the plugin id
+     * @return the plugin, shared with the other callers so it must not be
+     * modified
+     */
+    public Optional<Plugin> findById(String id) {
+        return Optional.ofNullable(getCachedPlugin(id))
+                .map(cachedPlugin -> cachedPlugin.plugin);
+    }
+
+    /**
+     * @param identifier the plugin identifier (name-version)
+     * @return the plugin with this identifier, shared with the other callers
+     * so it must not be modified
+     */
+    public Optional<Plugin> findByIdentifier(String identifier) {
+        String id = idsByIdentifier.get(identifier);
+        if (id == null) {
+            Long expiry = missingIdentifiers.get(identifier);
+            if (expiry != null && expiry - System.nanoTime() > 0) {
+                return Optional.empty();
+            }
+            // Identifiers are not stored, reload all the plugins
+            long loadGeneration = getGeneration();
+            for (Plugin plugin : pluginRepository.findCompleteList()) {
+                put(plugin, loadGeneration);
+            }
+            id = idsByIdentifier.get(identifier);
+            if (id == null) {
+                synchronized (lock) {
+                    // Not remembered if a plugin was saved in the meantime
+                    if (generation == loadGeneration) {
+                        missingIdentifiers.put(identifier, System.nanoTime()
+                                + MISSING_IDENTIFIER_TTL_NANOS);
+                    }
+                }
+                return Optional.empty();
+            }
+            missingIdentifiers.remove(identifier);
+        }
+        return findById(id);
+    }
+
+    /**
+     * Get several plugins, fetching all the missing ones with a single query.
+     *
+     * @param ids the plugins ids
+     * @return the plugins found, indexed by id, shared with the other callers
+     * so they must not be modified
+     */
+    public Map<String, Plugin> findAllById(Collection<String> ids) {
+        Map<String, Plugin> result = new HashMap<>();
+        Set<String> missingIds = new HashSet<>();
+        for (String id : ids) {
+            CachedPlugin cachedPlugin = pluginsById.get(id);
+            if (cachedPlugin == null) {
+                missingIds.add(id);
+            } else {
+                result.put(id, cachedPlugin.plugin);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            long loadGeneration = getGeneration();
+            for (Plugin plugin : pluginRepository.findAllById(missingIds)) {
+                result.put(plugin.getId(), put(plugin, loadGeneration).plugin);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param id the plugin id
+     * @return the type of each input of the plugin, indexed by input name
+     */
+    public Map<String, String> getInputTypes(String id) {
+        CachedPlugin cachedPlugin = getCachedPlugin(id);
+        return cachedPlugin == null
+                ? Collections.emptyMap() : cachedPlugin.inputTypes;
+    }
+
+    /**
+     * @param id the plugin id
+     * @return the type of each output of the plugin, indexed by output name
+     */
+    public Map<String, String> getOutputTypes(String id) {
+        CachedPlugin cachedPlugin = getCachedPlugin(id);
+        return cachedPlugin == null
+                ? Collections.emptyMap() : cachedPlugin.outputTypes;
+    }
+
+    public void evict(String id) {
+        synchronized (lock) {
+            generation++;
+            CachedPlugin removed = pluginsById.remove(id);
+            if (removed != null) {
+                idsByIdentifier.remove(removed.plugin.getIdentifier(), id);
+            }
+            // The identifier may have changed since the plugin was cached
+            idsByIdentifier.values().removeIf(id::equals);
+            // The plugin may now have one of the missing identifiers
+            missingIdentifiers.clear();
+        }
+    }
+
+    public void evictAll() {
+        synchronized (lock) {
+            generation++;
+            pluginsById.clear();
+            idsByIdentifier.clear();
+            missingIdentifiers.clear();
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Plugin> event) {
+        evict(event.getSource().getId());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Plugin> event) {
+        Document query = event.getSource();
+        Object id = query == null ? null : query.get("_id");
+        if (id instanceof String || id instanceof ObjectId) {
+            evict(id.toString());
+        } else {
+            // Deletion by query or of several plugins
+            evictAll();
+        }
+    }
+
+    private CachedPlugin getCachedPlugin(String id) {
+        if (id == null) {
+            return null;
+        }
+        CachedPlugin cachedPlugin = pluginsById.get(id);
+        if (cachedPlugin == null) {
+            long loadGeneration = getGeneration();
+            Optional<Plugin> plugin = pluginRepository.findById(id);
+            if (plugin.isPresent()) {
+                cachedPlugin = put(plugin.get(), loadGeneration);
+            }
+        }
+        return cachedPlugin;
+    }
+
+    private long getGeneration() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    /**
+     * Cache a plugin read from the database, unless an eviction happened
+     * since the read started, in which case the plugin may be stale.
+     *
+     * @param loadGeneration the generation when the read started
+     * @return the plugin, cached or not
+     */
+    private CachedPlugin put(Plugin plugin, long loadGeneration) {
+        CachedPlugin cachedPlugin = new CachedPlugin(plugin);
+        synchronized (lock) {
+            if (generation == loadGeneration) {
+                pluginsById.put(plugin.getId(), cachedPlugin);
+                idsByIdentifier.put(plugin.getIdentifier(), plugin.getId());
+            }
+        }
+        return cachedPlugin;
+    }
+
+    private static class CachedPlugin {
+
+        private final Plugin plugin;
+        private final Map<String, String> inputTypes;
+        private final Map<String, String> outputTypes;
+
+        private CachedPlugin(Plugin plugin) {
+            this.plugin = plugin;
+            this.inputTypes = toTypesMap(plugin.getInputs());
+            this.outputTypes = toTypesMap(plugin.getOutputs());
+        }
+
+        private static Map<String, String> toTypesMap(List<PluginIO> ios) {
+            if (ios == null) {
+                return Collections.emptyMap();
+            }
+            Map<String, String> types = new LinkedHashMap<>();
+            for (PluginIO io : ios) {
+                types.put(io.getName(), io.getType());
+            }
+            return Collections.unmodifiableMap(types);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.rest.PartialResource;
+import gov.nist.itl.ssd.wipp.backend.core.rest.SparseFieldsetsHelper;
+import io.swagger.annotations.Api;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Lightweight listing of the plugins, without their inputs, outputs and ui
+ * unless requested, e.g. /plugins/summary?fields=name,version,title
+ */
+@RestController
+@Api(tags="Plugin Entity")
+@RequestMapping(CoreConfig.BASE_URI + "/plugins/summary")
+public class PluginSummaryController {
+
+    private static final List<String> DEFAULT_FIELDS = Arrays.asList(
+            "name", "version", "title", "description", "creationDate");
+
+    @Autowired
+    private SparseFieldsetsHelper sparseFieldsetsHelper;
+
+    @RequestMapping(value = "", method = RequestMethod.GET)
+    public HttpEntity<PagedResources<PartialResource>> getPluginsSummary(
+            @RequestParam(value = "fields", required = false) List<String> fields,
+            @RequestParam(value = "name", required = false) String name,
+            @PageableDefault Pageable pageable,
+            PagedResourcesAssembler<Document> assembler) {
+        Criteria criteria = name == null ? null
+                : Criteria.where("name").regex(Pattern.quote(name), "i");
+        PagedResources<PartialResource> resources = sparseFieldsetsHelper
+                .findPage(Plugin.class, criteria, fields, DEFAULT_FIELDS,
+                        pageable, assembler);
+        return new ResponseEntity<>(resources, HttpStatus.OK);
+    }
+}
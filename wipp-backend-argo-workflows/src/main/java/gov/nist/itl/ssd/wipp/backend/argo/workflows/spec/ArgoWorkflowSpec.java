@@ -1,5 +1,7 @@
 package gov.nist.itl.ssd.wipp.backend.argo.workflows.spec;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
@@ -13,6 +15,8 @@ public class ArgoWorkflowSpec {
     private final String onExit = "exit-handler";
     private List<ArgoAbstractTemplate> templates;
     private List<ArgoVolume> volumes;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer parallelism;
 
     public String getEntrypoint() {
         return entrypoint;
@@ -37,4 +41,12 @@ public class ArgoWorkflowSpec {
     public void setVolumes(List<ArgoVolume> volumes) {
         this.volumes = volumes;
     }
+
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(Integer parallelism) {
+        this.parallelism = parallelism;
+    }
 }
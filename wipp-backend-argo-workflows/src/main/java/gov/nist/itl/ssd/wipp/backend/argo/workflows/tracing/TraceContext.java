@@ -0,0 +1,122 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Identifies a span of a workflow trace, and is propagated in the W3C
+ * traceparent format, e.g.
+ * 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01.
+ */
+public final class TraceContext {
+
+    private static final Pattern TRACEPARENT = Pattern.compile(
+            "00-([0-9a-f]{32})-([0-9a-f]{16})-[0-9a-f]{2}");
+
+    private static final String INVALID_TRACE_ID = repeat('0', 32);
+    private static final String INVALID_SPAN_ID = repeat('0', 16);
+
+    private final String traceId;
+    private final String spanId;
+
+    private TraceContext(String traceId, String spanId) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+    }
+
+    /**
+     * @return the context of the root span of a new trace
+     */
+    public static TraceContext newTrace() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new TraceContext(
+                toHex(random.nextLong()) + toHex(random.nextLong()),
+                toHex(random.nextLong()));
+    }
+
+    /**
+     * @param traceparent the traceparent header or annotation, may be null
+     * @return the context, empty if the value is not a valid traceparent
+     */
+    public static Optional<TraceContext> parse(String traceparent) {
+        if (traceparent == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = TRACEPARENT.matcher(traceparent.trim());
+        if (!matcher.matches() || INVALID_TRACE_ID.equals(matcher.group(1))
+                || INVALID_SPAN_ID.equals(matcher.group(2))) {
+            return Optional.empty();
+        }
+        return Optional.of(new TraceContext(matcher.group(1), matcher.group(2)));
+    }
+
+    /**
+     * @return the context of a new span of the same trace
+     */
+    public TraceContext newSpan() {
+        return new TraceContext(traceId,
+                toHex(ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * A span of the trace identified by a key rather than randomly, for the
+     * spans which may be recorded several times, e.g. by the status watcher
+     * and by the exit callback.
+     *
+     * @param key the key of the span in the trace
+     * @return the context of the span
+     */
+    public TraceContext spanFor(String key) {
+        UUID uuid = UUID.nameUUIDFromBytes((traceId + "/" + key).getBytes(
+                StandardCharsets.UTF_8));
+        return new TraceContext(traceId, toHex(uuid.getMostSignificantBits()));
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * @return the context in the traceparent format, sampled
+     */
+    public String toTraceparent() {
+        return "00-" + traceId + "-" + spanId + "-01";
+    }
+
+    @Override
+    public String toString() {
+        return toTraceparent();
+    }
+
+    private static String toHex(long value) {
+        String hex = Long.toHexString(value);
+        return repeat('0', 16 - hex.length()) + hex;
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * A stage of the life of a submitted workflow, e.g. the conversion to an
+ * Argo spec or the import of the outputs of a job.
+ *
+ * The spans of a submission share its trace id. The root span, named
+ * "workflow", lasts from the submission to the end of the workflow; it is
+ * saved when the workflow is submitted, without end time, and completed
+ * at the end.
+ */
+@Document
+@CompoundIndex(name = "workflow_trace", def = "{'workflowId': 1, 'traceId': 1}")
+public class WorkflowSpan {
+
+    // The span id, unique within the trace
+    @Id
+    private String id;
+
+    private String traceId;
+
+    private String parentSpanId;
+
+    private String workflowId;
+
+    private String jobId;
+
+    private String name;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Date startTime;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Date endTime;
+
+    private boolean error;
+
+    private Map<String, String> attributes = new LinkedHashMap<>();
+
+    public WorkflowSpan() {
+    }
+
+    /**
+     * @param context the context of the span
+     * @param parent the context of the parent span, null for a root span
+     * @param workflowId the id of the traced workflow
+     * @param name the name of the stage
+     * @param startTime the start of the stage
+     */
+    public WorkflowSpan(TraceContext context, TraceContext parent,
+            String workflowId, String name, Date startTime) {
+        this.id = context.getSpanId();
+        this.traceId = context.getTraceId();
+        this.parentSpanId = parent == null ? null : parent.getSpanId();
+        this.workflowId = workflowId;
+        this.name = name;
+        this.startTime = startTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public String getWorkflowId() {
+        return workflowId;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Date getStartTime() {
+        return startTime;
+    }
+
+    public Date getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Date endTime) {
+        this.endTime = endTime;
+    }
+
+    /**
+     * @return the duration of the stage, null if it is not over
+     */
+    public Long getDurationMillis() {
+        return startTime == null || endTime == null
+                ? null : endTime.getTime() - startTime.getTime();
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public void setError(boolean error) {
+        this.error = error;
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    public void setAttribute(String name, Object value) {
+        if (value != null) {
+            attributes.put(name, String.valueOf(value));
+        }
+    }
+}
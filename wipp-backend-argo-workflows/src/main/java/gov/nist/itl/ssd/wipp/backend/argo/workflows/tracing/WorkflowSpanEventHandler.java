@@ -0,0 +1,35 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing;
+
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.Workflow;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes the spans of the deleted workflows.
+ */
+@Component
+@RepositoryEventHandler(Workflow.class)
+public class WorkflowSpanEventHandler {
+
+    @Autowired
+    private WorkflowSpanRepository spanRepository;
+
+    @HandleAfterDelete
+    public void handleAfterDelete(Workflow workflow) {
+        spanRepository.deleteByWorkflowId(workflow.getId());
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing;
+
+import java.util.List;
+
+/**
+ * The spans of a submission of a workflow, by start time.
+ */
+public class WorkflowTimeline {
+
+    private final String workflowId;
+    private final String traceId;
+    private final List<WorkflowSpan> spans;
+
+    public WorkflowTimeline(String workflowId, String traceId,
+            List<WorkflowSpan> spans) {
+        this.workflowId = workflowId;
+        this.traceId = traceId;
+        this.spans = spans;
+    }
+
+    public String getWorkflowId() {
+        return workflowId;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public List<WorkflowSpan> getSpans() {
+        return spans;
+    }
+}
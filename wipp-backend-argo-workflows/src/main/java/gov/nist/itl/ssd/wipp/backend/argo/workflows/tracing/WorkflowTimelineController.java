@@ -0,0 +1,70 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.Workflow;
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.WorkflowRepository;
+import gov.nist.itl.ssd.wipp.backend.core.rest.exception.NotFoundException;
+import io.swagger.annotations.Api;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Timeline of a workflow submission: the spans of its resolution,
+ * conversion, queueing, Argo submission and execution, jobs, exit callback
+ * and output imports. The last submission by default, or the one of the
+ * given trace id.
+ */
+@RestController
+@Api(tags="Workflow Entity")
+@RequestMapping(CoreConfig.BASE_URI + "/workflows/{workflowId}/timeline")
+public class WorkflowTimelineController {
+
+    @Autowired
+    private WorkflowRepository workflowRepository;
+
+    @Autowired
+    private WorkflowTracer tracer;
+
+    @RequestMapping(value = "", method = RequestMethod.GET)
+    public HttpEntity<WorkflowTimeline> getTimeline(
+            @PathVariable("workflowId") String workflowId,
+            @RequestParam(value = "traceId", required = false) String traceId) {
+        Optional<Workflow> workflow = workflowRepository.findById(workflowId);
+        if (!workflow.isPresent()) {
+            throw new NotFoundException("Workflow " + workflowId + " not found.");
+        }
+        if (traceId == null) {
+            Optional<TraceContext> trace = tracer.getTrace(workflow.get());
+            if (!trace.isPresent()) {
+                // Not submitted since tracing
+                return new ResponseEntity<>(new WorkflowTimeline(workflowId,
+                        null, Collections.emptyList()), HttpStatus.OK);
+            }
+            traceId = trace.get().getTraceId();
+        }
+        return new ResponseEntity<>(new WorkflowTimeline(workflowId, traceId,
+                tracer.getSpans(workflowId, traceId)), HttpStatus.OK);
+    }
+}
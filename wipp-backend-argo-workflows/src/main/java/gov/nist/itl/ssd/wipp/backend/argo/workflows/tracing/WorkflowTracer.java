@@ -0,0 +1,164 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing;
+
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.Workflow;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the spans of the workflow submissions.
+ *
+ * A trace is started for each submission and its context saved in the
+ * workflow, from which the later stages get it. The context is also
+ * propagated to Argo, in the "wipp/traceparent" annotation of the workflow
+ * and in the traceparent header of the exit callback, so that the callback
+ * is attributed to the run which sent it. Spans are recorded on a best
+ * effort basis: failing to save one never fails the workflow.
+ */
+@Component
+public class WorkflowTracer {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    public static final String TRACEPARENT_ANNOTATION = "wipp/traceparent";
+
+    public static final String ROOT_SPAN = "workflow";
+
+    private static final Logger LOGGER = Logger.getLogger(
+            WorkflowTracer.class.getName());
+
+    @Autowired
+    private WorkflowSpanRepository spanRepository;
+
+    /**
+     * Start the trace of a submission. The context is set in the workflow,
+     * which is left to the caller to save.
+     *
+     * @param workflow the submitted workflow
+     * @param startTime the time the submission was received
+     * @return the context of the root span
+     */
+    public TraceContext startTrace(Workflow workflow, Date startTime) {
+        TraceContext trace = TraceContext.newTrace();
+        workflow.setTraceparent(trace.toTraceparent());
+        save(new WorkflowSpan(trace, null, workflow.getId(), ROOT_SPAN,
+                startTime));
+        return trace;
+    }
+
+    /**
+     * @param workflow the workflow
+     * @return the context of the root span of the last submission, empty if
+     * the workflow was submitted before tracing
+     */
+    public Optional<TraceContext> getTrace(Workflow workflow) {
+        return TraceContext.parse(workflow.getTraceparent());
+    }
+
+    /**
+     * @param parent the context of the parent span
+     * @param workflowId the id of the workflow
+     * @param name the name of the stage
+     * @param startTime the start of the stage
+     * @return a new span, saved by record once over
+     */
+    public WorkflowSpan newSpan(TraceContext parent, String workflowId,
+            String name, Date startTime) {
+        return new WorkflowSpan(parent.newSpan(), parent, workflowId, name,
+                startTime);
+    }
+
+    /**
+     * @param parent the context of the parent span
+     * @param key the key of the span in the trace, see TraceContext.spanFor
+     * @param workflowId the id of the workflow
+     * @param name the name of the stage
+     * @param startTime the start of the stage
+     * @return a new span, replacing the span of the same key when recorded
+     */
+    public WorkflowSpan newSpan(TraceContext parent, String key,
+            String workflowId, String name, Date startTime) {
+        return new WorkflowSpan(parent.spanFor(key), parent, workflowId, name,
+                startTime);
+    }
+
+    /**
+     * @param span the span, whose end time is set if missing
+     */
+    public void record(WorkflowSpan span) {
+        if (span.getEndTime() == null) {
+            span.setEndTime(new Date());
+        }
+        save(span);
+    }
+
+    /**
+     * @param span a span with a key, recorded only if the span of the same
+     * key is not recorded yet, e.g. by a more accurate source
+     */
+    public void recordIfAbsent(WorkflowSpan span) {
+        try {
+            if (!spanRepository.existsById(span.getId())) {
+                record(span);
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Cannot record span " + span.getName()
+                    + " of workflow " + span.getWorkflowId(), ex);
+        }
+    }
+
+    /**
+     * End the root span of a submission, unless already ended.
+     *
+     * @param trace the context of the root span
+     * @param error true if the workflow failed
+     */
+    public void endTrace(TraceContext trace, boolean error) {
+        try {
+            Optional<WorkflowSpan> root = spanRepository.findById(
+                    trace.getSpanId());
+            if (root.isPresent() && root.get().getEndTime() == null) {
+                root.get().setError(error);
+                record(root.get());
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Cannot end trace " + trace, ex);
+        }
+    }
+
+    /**
+     * @param workflowId the id of the workflow
+     * @param traceId the id of the trace
+     * @return the spans of the trace, by start time
+     */
+    public List<WorkflowSpan> getSpans(String workflowId, String traceId) {
+        return spanRepository.findByWorkflowIdAndTraceIdOrderByStartTime(
+                workflowId, traceId);
+    }
+
+    private void save(WorkflowSpan span) {
+        try {
+            spanRepository.save(span);
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Cannot record span " + span.getName()
+                    + " of workflow " + span.getWorkflowId(), ex);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.workflow;
+
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.Plugin;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.PluginCache;
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandlerService;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.JobOutputReference;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.JobRepository;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.JobStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reuses the results of the jobs which already ran with the same plugin on
+ * the same inputs.
+ *
+ * The result key of a job is a hash of the plugin identifier, of its
+ * container image and of each input parameter, where data inputs are
+ * replaced by the version of their content and outputs of other jobs by the
+ * result key of these jobs. A job whose inputs have no known version, see
+ * DataHandler.getDataVersion, gets no key and always runs.
+ */
+@Component
+public class JobResultMemoizer {
+
+    @Autowired
+    private CoreConfig config;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PluginCache pluginCache;
+
+    @Autowired
+    private DataHandlerService dataHandlerService;
+
+    /**
+     * Compute the result key of the planned jobs and reuse the results of
+     * the jobs which already succeeded with the same key. The jobs are
+     * updated but not saved, they are saved once the workflow is accepted by
+     * Argo, see WorkflowSubmissionQueue.submit.
+     *
+     * @param plan the execution plan of the workflow
+     * @param jobsPlugins the plugin of each job
+     * @return the jobs whose results are already available
+     */
+    public List<Job> reuseResults(WorkflowPlan plan, Map<Job, Plugin> jobsPlugins) {
+        Map<String, String> keysByJobId = new HashMap<>();
+        List<Job> completedJobs = new ArrayList<>();
+
+        // Dependencies first, their keys are part of the dependent keys
+        for (Job job : plan.getJobs()) {
+            String key = computeResultKey(job, jobsPlugins.get(job), keysByJobId);
+            keysByJobId.put(job.getId(), key);
+            job.setResultKey(key);
+
+            Optional<Job> previousJob = key == null || !config.isWorkflowReuseResults()
+                    ? Optional.empty()
+                    : findReusableJob(key, jobsPlugins.get(job));
+            if (previousJob.isPresent()) {
+                if (!previousJob.get().getId().equals(job.getId())) {
+                    job.setOutputParameters(new HashMap<>(
+                            previousJob.get().getOutputParameters()));
+                    job.setReusedJob(previousJob.get().getId());
+                    job.setStartTime(new Date());
+                    job.setEndTime(job.getStartTime());
+                }
+                job.setStatus(JobStatus.SUCCEEDED);
+                job.setError(null);
+                completedJobs.add(job);
+            } else {
+                // Outputs of a previous run, replaced by the ones of this run
+                job.setOutputParameters(null);
+                job.setReusedJob(null);
+            }
+        }
+        return completedJobs;
+    }
+
+    private Optional<Job> findReusableJob(String key, Plugin plugin) {
+        List<Job> previousJobs = jobRepository.findByResultKeyAndStatus(
+                key, JobStatus.SUCCEEDED);
+        return previousJobs.stream()
+                .filter(job -> hasAvailableOutputs(job, plugin))
+                .max(Comparator.comparing(Job::getEndTime,
+                        Comparator.nullsFirst(Comparator.naturalOrder())));
+    }
+
+    /**
+     * @return true if all the outputs of the job were imported and have not
+     * been modified or deleted since
+     */
+    private boolean hasAvailableOutputs(Job job, Plugin plugin) {
+        Map<String, String> outputParameters = job.getOutputParameters();
+        if (outputParameters == null) {
+            return false;
+        }
+        for (Map.Entry<String, String> output : pluginCache.getOutputTypes(
+                plugin.getId()).entrySet()) {
+            String outputId = outputParameters.get(output.getKey());
+            if (outputId == null || dataHandlerService.getDataHandler(
+                    output.getValue()).getDataVersion(outputId) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String computeResultKey(Job job, Plugin plugin,
+            Map<String, String> keysByJobId) {
+        Map<String, String> parameters = job.getParameters() == null
+                ? new HashMap<>() : job.getParameters();
+        // Inputs sorted by name so that the key does not depend on their order
+        Map<String, String> inputVersions = new TreeMap<>();
+        for (Map.Entry<String, String> input : pluginCache.getInputTypes(
+                plugin.getId()).entrySet()) {
+            String value = parameters.get(input.getKey());
+            if (value == null) {
+                continue;
+            }
+            String version;
+            Optional<JobOutputReference> reference = JobOutputReference.parse(value);
+            if (reference.isPresent()) {
+                String dependencyKey = keysByJobId.get(reference.get().getJobId());
+                version = dependencyKey == null ? null : "job:" + dependencyKey
+                        + "." + reference.get().getOutputName();
+            } else {
+                version = dataHandlerService.getDataHandler(input.getValue())
+                        .getDataVersion(value);
+            }
+            if (version == null) {
+                return null;
+            }
+            inputVersions.put(input.getKey(), input.getValue() + ":" + version);
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        update(digest, plugin.getIdentifier());
+        update(digest, plugin.getContainerId());
+        for (Map.Entry<String, String> input : inputVersions.entrySet()) {
+            update(digest, input.getKey());
+            update(digest, input.getValue());
+        }
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(String.format("%02x", b));
+        }
+        return key.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        // Separator, so that ("ab", "c") and ("a", "bc") differ
+        digest.update((byte) 0);
+    }
+}
@@ -16,9 +16,10 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.Plugin;
 import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.PluginIO;
 import gov.nist.itl.ssd.wipp.backend.argo.workflows.spec.*;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.WorkflowTracer;
 import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
-import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandler;
-import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandlerService;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.JobOutputReference;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.ParameterResolutionService;
 import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
 import gov.nist.itl.ssd.wipp.backend.core.model.workflow.Workflow;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,24 +40,35 @@ import java.util.logging.Logger;
  */
 @Component
 public class WorkflowConverter {
-    private Workflow workflow;
-    private Map<Job, List<String>> jobsDependencies;
-    private Map<Job, Plugin> jobsPlugins;
 
     private static final String wippDataVolumeName = "wipp-data-volume";
 
+    // Template input giving the job output folder, not passed to the plugin
+    private static final String outputSubPathParameter = "wipp-output-subpath";
+
+    // ObjectMapper is thread-safe once configured
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(
+            new YAMLFactory());
+
     private static final Logger LOGGER = Logger.getLogger(WorkflowConverter.class.getName());
 
     @Autowired
     private CoreConfig coreConfig;
 
     @Autowired
-    private DataHandlerService dataHandlerService;
+    private ParameterResolutionService parameterResolutionService;
 
 
-    private HashMap<String, String> generateMetadata() {
-        HashMap<String, String> metadata = new HashMap<>();
-        metadata.put("generateName", this.workflow.getName().toLowerCase() + "-");
+    private HashMap<String, Object> generateMetadata(ConversionContext context) {
+        HashMap<String, Object> metadata = new HashMap<>();
+        metadata.put("generateName", context.workflow.getName().toLowerCase() + "-");
+
+        // Trace context of the submission, for the tools reading the workflows
+        if (context.workflow.getTraceparent() != null) {
+            metadata.put("annotations", Collections.singletonMap(
+                    WorkflowTracer.TRACEPARENT_ANNOTATION,
+                    context.workflow.getTraceparent()));
+        }
 
         return metadata;
     }
@@ -72,8 +84,7 @@ public class WorkflowConverter {
 
     private ArgoTemplatePluginContainer generateTemplatePluginContainer(
             String containerId,
-            List<String> parameters,
-            String jobId
+            List<String> parameters
     ) {
         ArgoTemplatePluginContainer container = new ArgoTemplatePluginContainer();
 
@@ -98,11 +109,12 @@ public class WorkflowConverter {
         inputDataVolumeMount.put("readOnly", true);
         volumeMounts.add(inputDataVolumeMount);
 
-        // Setup the volume mounts for the output data
+        // Setup the volume mounts for the output data, the job folder is
+        // given by each task so that jobs can share the template
         HashMap<String, Object> outputDataVolumeMount = new HashMap<>();
-        outputDataVolumeMount.put("mountPath", this.getOutputMountPath(jobId));
+        outputDataVolumeMount.put("mountPath", coreConfig.getContainerOutputsMountPath());
         outputDataVolumeMount.put("name", wippDataVolumeName);
-        outputDataVolumeMount.put("subPath", getOutputMountSubPath(jobId));
+        outputDataVolumeMount.put("subPath", "{{inputs.parameters." + outputSubPathParameter + "}}");
         outputDataVolumeMount.put("readOnly", false);
         volumeMounts.add(outputDataVolumeMount);
         container.setVolumeMounts(volumeMounts);
@@ -110,15 +122,16 @@ public class WorkflowConverter {
         return container;
     }
 
-    private ArgoTemplatePlugin generateTemplatePlugin(Plugin plugin, List<String> parameters, String jobId) {
+    private ArgoTemplatePlugin generateTemplatePlugin(Plugin plugin, List<String> inputNames, String templateName) {
         ArgoTemplatePlugin argoTemplatePlugin = new ArgoTemplatePlugin();
-        argoTemplatePlugin.setName(plugin.getIdentifier() + "-" + jobId);
+        argoTemplatePlugin.setName(templateName);
 
         // Add the plugin parameters as required by the image
         HashMap<String, List<NameValueParam>> argoTemplateInputs = new HashMap<>();
         List<NameValueParam> argoTemplateArgs = new ArrayList<>();
 
         // Add the plugin's outputs to the list of parameters coming from the job's configuration
+        List<String> parameters = new ArrayList<>(inputNames);
         for (PluginIO output : plugin.getOutputs()) {
             parameters.add(output.getName());
         }
@@ -127,6 +140,7 @@ public class WorkflowConverter {
         for (String parameter : parameters) {
             argoTemplateArgs.add(new NameValueParam(parameter));
         }
+        argoTemplateArgs.add(new NameValueParam(outputSubPathParameter));
 
         argoTemplateInputs.put("parameters", argoTemplateArgs);
         argoTemplatePlugin.setInputs(argoTemplateInputs);
@@ -134,20 +148,21 @@ public class WorkflowConverter {
         argoTemplatePlugin.setContainer(
                 this.generateTemplatePluginContainer(
                         plugin.getContainerId(),
-                        parameters,
-                        jobId
+                        parameters
                 )
         );
         return argoTemplatePlugin;
     }
 
     private ArgoTemplateWorkflowTask generateTemplateWorkflowTask(
+            ConversionContext context,
             Job job,
-            Plugin plugin
+            Plugin plugin,
+            String templateName
     ) {
         ArgoTemplateWorkflowTask argoTemplateWorkflowTask = new ArgoTemplateWorkflowTask();
         argoTemplateWorkflowTask.setName(job.getName());
-        argoTemplateWorkflowTask.setTemplate(plugin.getIdentifier() + "-" + job.getId());
+        argoTemplateWorkflowTask.setTemplate(templateName);
 
         Map<String, List<NameValueParam>> argoTemplateWorkflowParams = new HashMap<>();
         List<NameValueParam> argoWorkflowArgs = new ArrayList<>();
@@ -163,9 +178,11 @@ public class WorkflowConverter {
             // Create job output subfolders
             File outputSubFolder = new File(tempJobFolder, output.getName());
             outputSubFolder.mkdirs();
-            NameValueParam outputParam = new NameValueParam(output.getName(), this.getOutputMountPath(job.getId()) + "/" + output.getName());
+            NameValueParam outputParam = new NameValueParam(output.getName(), coreConfig.getContainerOutputsMountPath() + "/" + output.getName());
             argoWorkflowArgs.add(outputParam);
         }
+        argoWorkflowArgs.add(new NameValueParam(outputSubPathParameter,
+                getOutputMountSubPath(job.getId())));
 
         // Browse the parameter to setup plugin parameters
         Map<String, String> jobParams = job.getParameters();
@@ -176,8 +193,8 @@ public class WorkflowConverter {
                 String paramName = input.getName();
                 String paramType = input.getType();
 
-                DataHandler dataHandler = dataHandlerService.getDataHandler(paramType);
-                paramValue = dataHandler.exportDataAsParam(paramValue);
+                paramValue = context.parameters.resolve(paramType,
+                        context.resolveSkippedJobOutput(paramValue));
 
                 NameValueParam workflowParams = new NameValueParam(paramName, paramValue);
                 argoWorkflowArgs.add(workflowParams);
@@ -187,28 +204,30 @@ public class WorkflowConverter {
         argoTemplateWorkflowParams.put("parameters", argoWorkflowArgs);
         argoTemplateWorkflowTask.setArguments(argoTemplateWorkflowParams);
 
-        argoTemplateWorkflowTask.setDependencies(this.jobsDependencies.get(job));
+        argoTemplateWorkflowTask.setDependencies(context.plan.getDependencies(job));
         return argoTemplateWorkflowTask;
     }
 
-    private ArgoTemplateExitHandler generateTemplateExitHandler() {
+    private ArgoTemplateExitHandler generateTemplateExitHandler(
+            ConversionContext context) {
         ArgoTemplateExitHandler argoTemplateExitHandler = new ArgoTemplateExitHandler();
         argoTemplateExitHandler.setName("exit-handler");
 
         argoTemplateExitHandler.setContainer(
-                this.generateTemplateExitHandlerContainer()
+                this.generateTemplateExitHandlerContainer(context)
         );
 
         return argoTemplateExitHandler;
     }
 
-    private ArgoTemplateExitHandlerContainer generateTemplateExitHandlerContainer() {
+    private ArgoTemplateExitHandlerContainer generateTemplateExitHandlerContainer(
+            ConversionContext context) {
         ArgoTemplateExitHandlerContainer container = new ArgoTemplateExitHandlerContainer();
 
         container.setImage("byrnedo/alpine-curl:latest");
 
         String url = ControllerLinkBuilder.linkTo(
-                WorkflowExitController.class, workflow.getId())
+                WorkflowExitController.class, context.workflow.getId())
                 .withRel("exit").getHref();
         LOGGER.log(Level.INFO, "workflow url: " + url);
 
@@ -217,6 +236,12 @@ public class WorkflowConverter {
         args.add("POST");
         args.add("-H");
         args.add("Content-Type:application/json");
+        // The callback is attributed to the submission which sent it
+        if (context.workflow.getTraceparent() != null) {
+            args.add("-H");
+            args.add(WorkflowTracer.TRACEPARENT_HEADER + ":"
+                    + context.workflow.getTraceparent());
+        }
         args.add("-d");
         args.add("{{workflow.status}}");
         args.add(url);
@@ -226,72 +251,110 @@ public class WorkflowConverter {
         return container;
     }
 
-    private List<ArgoAbstractTemplate> generateSpecTemplates() {
+    private List<ArgoAbstractTemplate> generateSpecTemplates(
+            ConversionContext context) {
         List<ArgoAbstractTemplate> argoTemplates = new ArrayList<>();
         List<ArgoTemplateWorkflowTask> argoTemplateWorkflowTasks = new ArrayList<>();
 
-        // Keep track of the included plugins
-        List<String> includedPlugins = new ArrayList<>();
+        // Templates shared by the jobs running the same plugin with the
+        // same inputs, indexed by plugin identifier and input names
+        Map<List<String>, String> includedTemplates = new HashMap<>();
+        Map<String, Integer> pluginsTemplatesCounts = new HashMap<>();
 
-        for (Job job : this.jobsDependencies.keySet()) {
+        // Tasks listed in plan order, which only makes the spec easier to
+        // read: Argo starts the ready tasks in any order
+        for (Job job : context.plan.getJobs()) {
             // Get the plugin used for the job
-            Plugin plugin = this.jobsPlugins.get(job);
+            Plugin plugin = context.jobsPlugins.get(job);
+            List<String> inputNames = getTemplateInputNames(job, plugin);
+
+            List<String> templateKey = new ArrayList<>();
+            templateKey.add(plugin.getIdentifier());
+            templateKey.addAll(inputNames);
 
             // Add plugin template if it has not been included yet
-            if (!includedPlugins.contains(plugin.getIdentifier() + "-" + job.getId())) {
-                List<String> parameterNames = new ArrayList<String>(job.getParameters().keySet());
-                argoTemplates.add(this.generateTemplatePlugin(plugin, parameterNames, job.getId()));
-                includedPlugins.add(plugin.getIdentifier());  // Update included plugin list
+            String templateName = includedTemplates.get(templateKey);
+            if (templateName == null) {
+                int count = pluginsTemplatesCounts.merge(
+                        plugin.getIdentifier(), 1, Integer::sum);
+                templateName = plugin.getIdentifier() + "-" + count;
+                argoTemplates.add(this.generateTemplatePlugin(plugin, inputNames, templateName));
+                includedTemplates.put(templateKey, templateName);
             }
 
             // Add the task to the workflow
-            argoTemplateWorkflowTasks.add(this.generateTemplateWorkflowTask(job, plugin));
+            argoTemplateWorkflowTasks.add(this.generateTemplateWorkflowTask(
+                    context, job, plugin, templateName));
         }
 
         argoTemplates.add(new ArgoTemplateWorkflow(argoTemplateWorkflowTasks));
 
         // Add exit handler template
-        argoTemplates.add(this.generateTemplateExitHandler());
+        argoTemplates.add(this.generateTemplateExitHandler(context));
 
         return argoTemplates;
     }
 
-    private ArgoWorkflowSpec generateSpec() {
+    private ArgoWorkflowSpec generateSpec(ConversionContext context) {
         ArgoWorkflowSpec argoWorkflowSpec = new ArgoWorkflowSpec();
 
-        argoWorkflowSpec.setTemplates(this.generateSpecTemplates());
+        argoWorkflowSpec.setTemplates(this.generateSpecTemplates(context));
         argoWorkflowSpec.setVolumes(this.generateSpecVolumes());
 
+        // Only limit the workflows which could flood the cluster
+        int maxParallelism = coreConfig.getWorkflowMaxParallelism();
+        if (maxParallelism > 0 && context.plan.getWidth() > maxParallelism) {
+            argoWorkflowSpec.setParallelism(maxParallelism);
+        }
+
         return argoWorkflowSpec;
     }
 
-    public void convert(Workflow workflow, Map<Job, List<String>> jobsDependencies, Map<Job, Plugin> jobsPlugins,
+    /**
+     * Convert the workflow and write the Argo spec file.
+     * The converter keeps no state between calls, so concurrent conversions
+     * are safe as long as they write to different files.
+     *
+     * @param workflow the workflow to convert
+     * @param plan the execution plan of the workflow jobs
+     * @param jobsPlugins the plugin of each job
+     * @param workflowFilePath the path of the YAML file to write
+     * @throws Exception
+     */
+    public void convert(Workflow workflow, WorkflowPlan plan, Map<Job, Plugin> jobsPlugins,
                         String workflowFilePath) throws Exception {
 
-        this.workflow = workflow;
-        this.jobsDependencies = jobsDependencies;
-        this.jobsPlugins = jobsPlugins;
-
-        YAMLFactory yamlFactory = new YAMLFactory();
-        ObjectMapper mapper = new ObjectMapper(yamlFactory);
+        ConversionContext context = new ConversionContext(
+                workflow, plan, jobsPlugins,
+                parameterResolutionService.newBatch());
 
         ArgoWorkflow argoWorkflow = new ArgoWorkflow();
 
-        argoWorkflow.setMetadata(this.generateMetadata());
-        argoWorkflow.setSpec(this.generateSpec());
+        argoWorkflow.setMetadata(this.generateMetadata(context));
+        argoWorkflow.setSpec(this.generateSpec(context));
 
         File workflowFile = new File(workflowFilePath);
-        mapper.writeValue(workflowFile, argoWorkflow);
+        YAML_MAPPER.writeValue(workflowFile, argoWorkflow);
         
     }
 
     /**
-     * Get job work folder path in container
-     * @param jobId
-     * @return the path of the job work folder
+     * Get the names of the plugin inputs set by the job, the only ones
+     * given to the template by the job task
+     * @param job
+     * @param plugin
+     * @return the input names, sorted
      */
-    private String getOutputMountPath(String jobId){
-        return coreConfig.getContainerOutputsMountPath() + "/" + jobId;
+    private List<String> getTemplateInputNames(Job job, Plugin plugin) {
+        List<String> inputNames = new ArrayList<>();
+        Map<String, String> jobParams = job.getParameters();
+        for (PluginIO input : plugin.getInputs()) {
+            if (jobParams != null && jobParams.containsKey(input.getName())) {
+                inputNames.add(input.getName());
+            }
+        }
+        Collections.sort(inputNames);
+        return inputNames;
     }
     
     /**
@@ -304,4 +367,50 @@ public class WorkflowConverter {
 		return new File(coreConfig.getJobsTempFolder(), jobId).getAbsolutePath()
 				.replaceFirst(coreConfig.getStorageRootFolder() + "/", "");
     }
+
+    /**
+     * Inputs of a single conversion, passed along the generation methods
+     * instead of being stored in the (singleton) converter.
+     */
+    private static final class ConversionContext {
+
+        private final Workflow workflow;
+        private final WorkflowPlan plan;
+        private final Map<Job, Plugin> jobsPlugins;
+        private final Map<String, Job> skippedJobsById;
+        private final ParameterResolutionService.Batch parameters;
+
+        private ConversionContext(Workflow workflow, WorkflowPlan plan,
+                Map<Job, Plugin> jobsPlugins,
+                ParameterResolutionService.Batch parameters) {
+            this.workflow = workflow;
+            this.plan = plan;
+            // Only used for lookups, the tasks follow the plan order
+            this.jobsPlugins = Collections.unmodifiableMap(
+                    new HashMap<>(jobsPlugins));
+            this.parameters = parameters;
+            this.skippedJobsById = new HashMap<>();
+            for (Job job : plan.getSkippedJobs()) {
+                skippedJobsById.put(job.getId(), job);
+            }
+        }
+
+        /**
+         * The skipped jobs do not run, their outputs are read from the
+         * data they reused instead of the job folder.
+         */
+        private String resolveSkippedJobOutput(String value) {
+            Optional<JobOutputReference> reference = JobOutputReference.parse(value);
+            if (reference.isPresent()) {
+                Job job = skippedJobsById.get(reference.get().getJobId());
+                if (job != null && job.getOutputParameters() != null
+                        && job.getOutputParameters().get(
+                                reference.get().getOutputName()) != null) {
+                    return job.getOutputParameters().get(
+                            reference.get().getOutputName());
+                }
+            }
+            return value;
+        }
+    }
 }
@@ -11,12 +11,10 @@
  */
 package gov.nist.itl.ssd.wipp.backend.argo.workflows.workflow;
 
-import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.Plugin;
-import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.PluginIO;
-import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.PluginRepository;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.TraceContext;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.WorkflowSpan;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.WorkflowTracer;
 import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
-import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandler;
-import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandlerService;
 import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
 import gov.nist.itl.ssd.wipp.backend.core.model.job.JobRepository;
 import gov.nist.itl.ssd.wipp.backend.core.model.job.JobStatus;
@@ -32,13 +30,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
-import java.io.File;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * @author Mylene Simon <mylene.simon at nist.gov>
@@ -55,14 +55,15 @@ public class WorkflowExitController {
     private WorkflowRepository workflowRepository;
 
     @Autowired
-    private PluginRepository wippPluginRepository;
+    private WorkflowOutputImporter outputImporter;
 
     @Autowired
     private JobRepository jobRepository;
 
     @Autowired
-    private DataHandlerService dataHandlerService;
+    private WorkflowTracer tracer;
 
+    private static final Logger LOGGER = Logger.getLogger(WorkflowExitController.class.getName());
 
     @RequestMapping(
             value = "",
@@ -71,8 +72,10 @@ public class WorkflowExitController {
     )
     public ResponseEntity<Workflow> exit(
             @PathVariable("workflowId") String workflowId,
-            @RequestBody String status
+            @RequestBody String status,
+            @RequestHeader(value = WorkflowTracer.TRACEPARENT_HEADER, required = false) String traceparent
     ) {
+        Date receptionTime = new Date();
 
         // Retrieve Workflow object
         Optional<Workflow> wippWorkflow = workflowRepository.findById(
@@ -112,31 +115,69 @@ public class WorkflowExitController {
                 throw new ClientException("Received non-exit status for workflow " + workflowId);
         }
 
-        // Retrieve workflow's jobs to import results in case of success
+        // Context sent by the exit handler, the specs converted before
+        // tracing do not send one
+        Optional<TraceContext> trace = TraceContext.parse(traceparent);
+        if (!trace.isPresent()) {
+            trace = tracer.getTrace(workflow);
+        }
+        WorkflowSpan exitSpan = trace.isPresent()
+                ? tracer.newSpan(trace.get(), workflowId, "exit", receptionTime)
+                : null;
+        if (exitSpan != null) {
+            exitSpan.setAttribute("status", wfStatus);
+            exitSpan.setError(!success);
+        }
+
+        // Repeated callback for a workflow already completed
+        if (workflow.getEndTime() != null) {
+            if (exitSpan != null) {
+                exitSpan.setAttribute("repeated", true);
+                tracer.record(exitSpan);
+            }
+            return new ResponseEntity<>(workflow, HttpStatus.OK);
+        }
+
+        // Run in Argo, unless recorded from the Argo state by the watcher
+        if (trace.isPresent() && workflow.getStartTime() != null) {
+            WorkflowSpan executionSpan = tracer.newSpan(trace.get(),
+                    WorkflowStatusWatcher.EXECUTION_SPAN, workflowId,
+                    WorkflowStatusWatcher.EXECUTION_SPAN,
+                    workflow.getStartTime());
+            executionSpan.setEndTime(receptionTime);
+            executionSpan.setError(!success);
+            tracer.recordIfAbsent(executionSpan);
+        }
+
+        // Import the results in the background in case of success
+        if (success) {
+            if (!outputImporter.importOutputs(workflowId)) {
+                LOGGER.log(Level.INFO, "Outputs of workflow {0} already being imported",
+                        workflowId);
+            }
+            if (exitSpan != null) {
+                tracer.record(exitSpan);
+            }
+            return new ResponseEntity<>(workflow, HttpStatus.ACCEPTED);
+        }
+
         List<Job> jobList = jobRepository.findByWippWorkflow(workflowId);
         for (Job job : jobList) {
-            job.setStatus(JobStatus.valueOf(status));
-            if (success) {
-                try {
-                    Optional<Plugin> pluginOpt = wippPluginRepository.findById(job.getWippExecutable());
-                    Plugin plugin = pluginOpt.get();
-                    List<PluginIO> outputs = plugin.getOutputs();
-                    for (PluginIO output : outputs) {
-                        DataHandler dataHandler = dataHandlerService.getDataHandler(output.getType());
-                        dataHandler.importData(job, output.getName());
-                    }
-                } catch (Exception e) {
-                    job.setStatus(JobStatus.ERROR);
-                    job.setError("Unable to import job result");
-                }
-            } else {
-                job.setError(errorMessage);
+            // Keep the jobs which completed, and were imported, before the failure
+            if (job.getStatus() == JobStatus.SUCCEEDED) {
+                continue;
             }
+            job.setStatus(JobStatus.valueOf(status));
+            job.setError(errorMessage);
             jobRepository.save(job);
         }
         workflow.setEndTime(new Date());
         workflow.setStatus(wfStatus);
         workflowRepository.save(workflow);
+        if (exitSpan != null) {
+            tracer.record(exitSpan);
+            tracer.endTrace(trace.get(), true);
+        }
 
         return new ResponseEntity<>(workflow, HttpStatus.OK);
     }
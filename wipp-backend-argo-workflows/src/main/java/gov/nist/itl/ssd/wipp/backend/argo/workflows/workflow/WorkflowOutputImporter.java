@@ -0,0 +1,252 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.workflow;
+
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.PluginCache;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.TraceContext;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.WorkflowSpan;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.WorkflowTracer;
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandler;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandlerService;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.JobRepository;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.JobStatus;
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.Workflow;
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.WorkflowRepository;
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.WorkflowStatus;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports the outputs of the jobs of a succeeded workflow in the background.
+ *
+ * The jobs are imported concurrently on a bounded pool, the outputs of a
+ * job one after the other. A job can also be imported on its own as soon as
+ * it completes. An output is skipped if the job output
+ * parameters already reference its imported data, so a repeated or retried
+ * exit callback does not import anything twice. The workflow is set to its
+ * final status once all the jobs are imported, which ends its trace.
+ */
+@Component
+public class WorkflowOutputImporter {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            WorkflowOutputImporter.class.getName());
+
+    @Autowired
+    private CoreConfig config;
+
+    @Autowired
+    private WorkflowRepository workflowRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PluginCache pluginCache;
+
+    @Autowired
+    private DataHandlerService dataHandlerService;
+
+    @Autowired
+    private WorkflowTracer tracer;
+
+    private ExecutorService importExecutor;
+
+    private final Set<String> importingWorkflows = ConcurrentHashMap.newKeySet();
+
+    private final ConcurrentMap<String, CompletableFuture<Void>> importingJobs
+            = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void instantiateImportExecutor() {
+        importExecutor = Executors.newFixedThreadPool(
+                config.getWorkflowImportThreads());
+    }
+
+    @PreDestroy
+    public void shutdownImportExecutor() {
+        importExecutor.shutdownNow();
+    }
+
+    /**
+     * @param workflowId the workflow id
+     * @return true if the outputs of the workflow are being imported
+     */
+    public boolean isImporting(String workflowId) {
+        return importingWorkflows.contains(workflowId);
+    }
+
+    /**
+     * Start importing the outputs of the workflow jobs.
+     *
+     * @param workflowId the id of the succeeded workflow
+     * @return false if the outputs of this workflow are already being
+     * imported
+     */
+    public boolean importOutputs(String workflowId) {
+        if (!importingWorkflows.add(workflowId)) {
+            return false;
+        }
+        Date importStart = new Date();
+        try {
+            List<Job> jobList = jobRepository.findByWippWorkflow(workflowId);
+            CompletableFuture<?>[] imports = jobList.stream()
+                    .map(job -> importJobOutputs(job.getId()))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(imports).whenComplete(
+                    (result, ex) -> finishImport(workflowId, importStart));
+        } catch (RuntimeException ex) {
+            importingWorkflows.remove(workflowId);
+            throw ex;
+        }
+        return true;
+    }
+
+    /**
+     * Start importing the outputs of a single job, for example as soon as
+     * its step completes while the rest of the workflow is still running.
+     *
+     * @param jobId the id of the succeeded job
+     * @return the running import, shared with any concurrent request for
+     * the same job
+     */
+    public CompletableFuture<Void> importJobOutputs(String jobId) {
+        CompletableFuture<Void> jobImport = new CompletableFuture<>();
+        CompletableFuture<Void> runningImport = importingJobs.putIfAbsent(
+                jobId, jobImport);
+        if (runningImport != null) {
+            return runningImport;
+        }
+        Date requestTime = new Date();
+        importExecutor.execute(() -> {
+            try {
+                doImportJobOutputs(jobId, requestTime);
+            } finally {
+                importingJobs.remove(jobId, jobImport);
+                jobImport.complete(null);
+            }
+        });
+        return jobImport;
+    }
+
+    /**
+     * @param requestTime the time the import was requested, the import may
+     * have waited for a thread since
+     */
+    private void doImportJobOutputs(String jobId, Date requestTime) {
+        Date startTime = new Date();
+        // Reload the job to get the outputs imported by previous callbacks
+        Optional<Job> jobOpt = jobRepository.findById(jobId);
+        if (!jobOpt.isPresent()) {
+            return;
+        }
+        Job job = jobOpt.get();
+        int importedOutputs = 0;
+        job.setStatus(JobStatus.SUCCEEDED);
+        if (job.getEndTime() == null) {
+            job.setEndTime(new Date());
+        }
+        if (job.getOutputParameters() == null) {
+            job.setOutputParameters(new HashMap<>());
+        }
+        try {
+            if (!pluginCache.findById(job.getWippExecutable()).isPresent()) {
+                throw new IllegalStateException("Unknown plugin "
+                        + job.getWippExecutable());
+            }
+            Map<String, String> outputs = pluginCache.getOutputTypes(
+                    job.getWippExecutable());
+            for (Map.Entry<String, String> output : outputs.entrySet()) {
+                // Already imported by a previous callback
+                if (job.getOutputParameters().get(output.getKey()) != null) {
+                    continue;
+                }
+                DataHandler dataHandler = dataHandlerService.getDataHandler(
+                        output.getValue());
+                dataHandler.importData(job, output.getKey());
+                // Record each output as soon as it is imported
+                jobRepository.save(job);
+                importedOutputs++;
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Unable to import result of job "
+                    + job.getId(), e);
+            job.setStatus(JobStatus.ERROR);
+            job.setError("Unable to import job result");
+        }
+        jobRepository.save(job);
+
+        Optional<TraceContext> trace = getTrace(job.getWippWorkflow());
+        if (trace.isPresent()) {
+            WorkflowSpan span = tracer.newSpan(trace.get(),
+                    job.getWippWorkflow(), "import-job", requestTime);
+            span.setJobId(job.getId());
+            span.setError(job.getStatus() == JobStatus.ERROR);
+            span.setAttribute("name", job.getName());
+            span.setAttribute("waitMillis",
+                    startTime.getTime() - requestTime.getTime());
+            span.setAttribute("importedOutputs", importedOutputs);
+            tracer.record(span);
+        }
+    }
+
+    private Optional<TraceContext> getTrace(String workflowId) {
+        Optional<Workflow> workflow = workflowRepository.findById(workflowId);
+        return workflow.isPresent()
+                ? tracer.getTrace(workflow.get()) : Optional.empty();
+    }
+
+    private void finishImport(String workflowId, Date importStart) {
+        try {
+            Optional<Workflow> workflow = workflowRepository.findById(
+                    workflowId);
+            if (workflow.isPresent()) {
+                workflow.get().setEndTime(new Date());
+                workflow.get().setStatus(WorkflowStatus.SUCCEEDED);
+                workflowRepository.save(workflow.get());
+
+                Optional<TraceContext> trace = tracer.getTrace(workflow.get());
+                if (trace.isPresent()) {
+                    WorkflowSpan span = tracer.newSpan(trace.get(), workflowId,
+                            "import", importStart);
+                    span.setEndTime(workflow.get().getEndTime());
+                    tracer.record(span);
+                    tracer.endTrace(trace.get(), false);
+                }
+            }
+            LOGGER.log(Level.INFO, "Done importing outputs of workflow {0}",
+                    workflowId);
+        } finally {
+            importingWorkflows.remove(workflowId);
+        }
+    }
+}
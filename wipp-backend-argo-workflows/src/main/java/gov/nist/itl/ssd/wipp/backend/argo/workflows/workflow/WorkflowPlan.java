@@ -0,0 +1,269 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.workflow;
+
+import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Execution plan of the jobs of a workflow, seen as a DAG.
+ *
+ * The jobs are sorted so that every job comes after its dependencies and,
+ * among the jobs ready at the same time, the ones starting the longest
+ * remaining chain of jobs come first. The plan also gives the length of
+ * the critical path, in number of jobs, and the width of the DAG, i.e. the
+ * largest number of jobs at the same depth, which is how many jobs can run
+ * at the same time at most when each job takes the same time.
+ * Jobs whose results are already available can be left out of the plan.
+ *
+ * Argo starts the ready tasks of a DAG whatever their order in the spec, so
+ * the order of the jobs does not change when they run. The plan validates
+ * the dependencies and sizes the parallelism of the workflow.
+ */
+public final class WorkflowPlan {
+
+    private final List<Job> jobs;
+    private final Map<Job, List<String>> jobsDependencies;
+    private final Map<Job, Integer> jobsDepths;
+    private final int criticalPathLength;
+    private final int width;
+    private final List<Job> skippedJobs;
+
+    private WorkflowPlan(List<Job> jobs, Map<Job, List<String>> jobsDependencies,
+            Map<Job, Integer> jobsDepths, int criticalPathLength, int width) {
+        this.jobs = Collections.unmodifiableList(jobs);
+        this.jobsDependencies = Collections.unmodifiableMap(jobsDependencies);
+        this.jobsDepths = Collections.unmodifiableMap(jobsDepths);
+        this.criticalPathLength = criticalPathLength;
+        this.width = width;
+        this.skippedJobs = Collections.emptyList();
+    }
+
+    private WorkflowPlan(WorkflowPlan plan, List<Job> skippedJobs) {
+        this.jobs = plan.jobs;
+        this.jobsDependencies = plan.jobsDependencies;
+        this.jobsDepths = plan.jobsDepths;
+        this.criticalPathLength = plan.criticalPathLength;
+        this.width = plan.width;
+        this.skippedJobs = Collections.unmodifiableList(skippedJobs);
+    }
+
+    /**
+     * Plan the execution of the jobs of a workflow.
+     *
+     * @param jobsDependencies the names of the jobs each job depends on, in
+     * the order the jobs were created
+     * @return the plan
+     * @throws IllegalArgumentException if two jobs have the same name, if a
+     * job depends on a job which is not part of the workflow, or if the
+     * dependencies form a cycle
+     */
+    public static WorkflowPlan of(Map<Job, List<String>> jobsDependencies) {
+        List<Job> jobs = new ArrayList<>(jobsDependencies.keySet());
+        int size = jobs.size();
+
+        Map<String, Integer> indexesByName = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (indexesByName.put(jobs.get(i).getName(), i) != null) {
+                throw new IllegalArgumentException("several jobs are named "
+                        + jobs.get(i).getName());
+            }
+        }
+
+        // Adjacency lists, from each job to the jobs depending on it
+        List<List<Integer>> dependents = new ArrayList<>(size);
+        int[] dependenciesCounts = new int[size];
+        for (int i = 0; i < size; i++) {
+            dependents.add(new ArrayList<>());
+        }
+        for (int i = 0; i < size; i++) {
+            List<String> dependencies = jobsDependencies.get(jobs.get(i));
+            if (dependencies == null) {
+                continue;
+            }
+            for (String dependency : dependencies) {
+                Integer dependencyIndex = indexesByName.get(dependency);
+                if (dependencyIndex == null) {
+                    throw new IllegalArgumentException("job "
+                            + jobs.get(i).getName() + " depends on job "
+                            + dependency + " which is not part of the workflow");
+                }
+                dependents.get(dependencyIndex).add(i);
+                dependenciesCounts[i]++;
+            }
+        }
+
+        // First pass: topological order and depth of each job
+        int[] order = new int[size];
+        int[] depths = new int[size];
+        int[] remainingCounts = dependenciesCounts.clone();
+        int sorted = 0;
+        for (int i = 0; i < size; i++) {
+            if (remainingCounts[i] == 0) {
+                order[sorted++] = i;
+                depths[i] = 1;
+            }
+        }
+        for (int next = 0; next < sorted; next++) {
+            int job = order[next];
+            for (int dependent : dependents.get(job)) {
+                depths[dependent] = Math.max(depths[dependent], depths[job] + 1);
+                if (--remainingCounts[dependent] == 0) {
+                    order[sorted++] = dependent;
+                }
+            }
+        }
+        if (sorted < size) {
+            TreeSet<String> cycle = new TreeSet<>();
+            for (int i = 0; i < size; i++) {
+                if (remainingCounts[i] > 0) {
+                    cycle.add(jobs.get(i).getName());
+                }
+            }
+            throw new IllegalArgumentException(
+                    "cyclic dependencies between jobs " + cycle);
+        }
+
+        // Length of the longest chain starting at each job
+        int[] heights = new int[size];
+        for (int next = size - 1; next >= 0; next--) {
+            int job = order[next];
+            heights[job] = 1;
+            for (int dependent : dependents.get(job)) {
+                heights[job] = Math.max(heights[job], heights[dependent] + 1);
+            }
+        }
+
+        // Second pass: among the ready jobs, the longest chain first, then
+        // the creation order
+        PriorityQueue<Integer> ready = new PriorityQueue<>((a, b) ->
+                heights[a] != heights[b]
+                        ? Integer.compare(heights[b], heights[a])
+                        : Integer.compare(a, b));
+        remainingCounts = dependenciesCounts.clone();
+        for (int i = 0; i < size; i++) {
+            if (remainingCounts[i] == 0) {
+                ready.add(i);
+            }
+        }
+        List<Job> plannedJobs = new ArrayList<>(size);
+        Map<Job, List<String>> plannedDependencies = new LinkedHashMap<>();
+        Map<Job, Integer> plannedDepths = new LinkedHashMap<>();
+        while (!ready.isEmpty()) {
+            int job = ready.poll();
+            plannedJobs.add(jobs.get(job));
+            List<String> dependencies = jobsDependencies.get(jobs.get(job));
+            plannedDependencies.put(jobs.get(job), dependencies == null
+                    ? Collections.emptyList()
+                    : Collections.unmodifiableList(new ArrayList<>(dependencies)));
+            plannedDepths.put(jobs.get(job), depths[job]);
+            for (int dependent : dependents.get(job)) {
+                if (--remainingCounts[dependent] == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        int criticalPathLength = 0;
+        int[] levelsSizes = new int[size + 1];
+        int width = 0;
+        for (int i = 0; i < size; i++) {
+            criticalPathLength = Math.max(criticalPathLength, depths[i]);
+            width = Math.max(width, ++levelsSizes[depths[i]]);
+        }
+
+        return new WorkflowPlan(plannedJobs, plannedDependencies, plannedDepths,
+                criticalPathLength, width);
+    }
+
+    /**
+     * Plan the execution of the jobs left once some jobs are skipped. The
+     * dependencies on the skipped jobs are removed.
+     *
+     * @param completedJobs the jobs to skip
+     * @return the new plan
+     */
+    public WorkflowPlan skipping(Collection<Job> completedJobs) {
+        if (completedJobs.isEmpty()) {
+            return this;
+        }
+        Set<Job> skipped = new HashSet<>(completedJobs);
+        Set<String> skippedNames = skipped.stream()
+                .map(Job::getName)
+                .collect(Collectors.toSet());
+        Map<Job, List<String>> remainingDependencies = new LinkedHashMap<>();
+        for (Job job : jobs) {
+            if (!skipped.contains(job)) {
+                remainingDependencies.put(job, jobsDependencies.get(job).stream()
+                        .filter(dependency -> !skippedNames.contains(dependency))
+                        .collect(Collectors.toList()));
+            }
+        }
+        List<Job> skippedJobsInOrder = new ArrayList<>(skippedJobs);
+        for (Job job : jobs) {
+            if (skipped.contains(job)) {
+                skippedJobsInOrder.add(job);
+            }
+        }
+        return new WorkflowPlan(of(remainingDependencies), skippedJobsInOrder);
+    }
+
+    /**
+     * @return the jobs, every job after its dependencies
+     */
+    public List<Job> getJobs() {
+        return jobs;
+    }
+
+    /**
+     * @param job a job of the workflow
+     * @return the names of the jobs the job depends on
+     */
+    public List<String> getDependencies(Job job) {
+        return jobsDependencies.get(job);
+    }
+
+    /**
+     * @param job a job of the workflow
+     * @return the number of jobs on the longest chain ending with this job
+     */
+    public int getDepth(Job job) {
+        return jobsDepths.get(job);
+    }
+
+    /**
+     * @return the jobs left out of the plan
+     */
+    public List<Job> getSkippedJobs() {
+        return skippedJobs;
+    }
+
+    public int getCriticalPathLength() {
+        return criticalPathLength;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+}
@@ -1,5 +1,6 @@
 package gov.nist.itl.ssd.wipp.backend.argo.workflows.workflow;
 
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.WorkflowTimelineController;
 import gov.nist.itl.ssd.wipp.backend.core.model.workflow.Workflow;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Resource;
@@ -30,6 +31,11 @@ public class WorkflowResourceProcessor
                 .withRel("exit");
             resource.add(exitLink);
 
+        Link timelineLink = ControllerLinkBuilder.linkTo(
+                WorkflowTimelineController.class, workflow.getId())
+                .withRel("timeline");
+        resource.add(timelineLink);
+
         return resource;
     }
 }
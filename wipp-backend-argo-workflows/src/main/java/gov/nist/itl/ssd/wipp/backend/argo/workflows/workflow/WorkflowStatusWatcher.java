@@ -0,0 +1,377 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.workflow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.TraceContext;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.WorkflowSpan;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.WorkflowTracer;
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.JobRepository;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.JobStatus;
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.Workflow;
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.WorkflowRepository;
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.WorkflowStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Follows the state of the submitted Argo workflows while they run.
+ *
+ * The state of each workflow is read periodically with
+ * "argo get NAME -o json". Each job is updated as its pod node changes
+ * phase, and the outputs of a job are imported once its node succeeded and
+ * the jobs depending on it are done, without waiting for the rest of the
+ * workflow. The exit callback remains in charge of completing the
+ * workflow; watching stops once Argo reports a final phase.
+ *
+ * A single thread schedules the polls, which run on a bounded pool so that
+ * slow "argo get" calls do not delay the polls of the other workflows. A
+ * workflow is never polled twice at the same time, and a poll is skipped
+ * when the pool is saturated.
+ *
+ * The run of the workflow in Argo and the run of each of its jobs are
+ * recorded as spans of the trace of the submission, with the times reported
+ * by Argo.
+ */
+@Component
+public class WorkflowStatusWatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            WorkflowStatusWatcher.class.getName());
+
+    // Name and key of the span of the run of a workflow in Argo
+    static final String EXECUTION_SPAN = "execution";
+
+    private static final int MAX_CONSECUTIVE_FAILURES = 10;
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private static final List<String> FINAL_PHASES = Collections.unmodifiableList(
+            Arrays.asList("Succeeded", "Failed", "Error"));
+
+    private static final List<JobStatus> FINAL_JOB_STATUSES = Collections.unmodifiableList(
+            Arrays.asList(JobStatus.SUCCEEDED, JobStatus.FAILED,
+                    JobStatus.ERROR, JobStatus.CANCELLED));
+
+    @Autowired
+    private CoreConfig config;
+
+    @Autowired
+    private WorkflowRepository workflowRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private WorkflowOutputImporter outputImporter;
+
+    @Autowired
+    private WorkflowTracer tracer;
+
+    private ScheduledExecutorService watchExecutor;
+
+    private ThreadPoolExecutor pollExecutor;
+
+    private final ConcurrentMap<String, ScheduledFuture<?>> watchedWorkflows
+            = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void instantiateWatcher() {
+        watchExecutor = Executors.newSingleThreadScheduledExecutor();
+        int threads = config.getWorkflowWatchThreads();
+        pollExecutor = new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads));
+
+        // Resume watching the workflows still running
+        for (Workflow workflow : workflowRepository.findByStatusIn(Arrays.asList(
+                WorkflowStatus.SUBMITTED, WorkflowStatus.RUNNING))) {
+            if (workflow.getGeneratedName() != null) {
+                watch(workflow.getId(), workflow.getGeneratedName());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdownWatcher() {
+        watchExecutor.shutdownNow();
+        pollExecutor.shutdownNow();
+    }
+
+    /**
+     * Start following the state of a submitted workflow.
+     *
+     * @param workflowId the workflow id
+     * @param generatedName the name of the workflow in Argo
+     */
+    public void watch(String workflowId, String generatedName) {
+        AtomicInteger failures = new AtomicInteger();
+        AtomicBoolean polling = new AtomicBoolean();
+        long interval = config.getWorkflowWatchIntervalSeconds();
+        Runnable pollTask = () -> {
+            try {
+                if (!poll(workflowId, generatedName)) {
+                    stopWatching(workflowId);
+                }
+                failures.set(0);
+            } catch (Exception ex) {
+                LOGGER.log(Level.WARNING, "Cannot get state of workflow "
+                        + workflowId, ex);
+                if (failures.incrementAndGet() >= MAX_CONSECUTIVE_FAILURES) {
+                    stopWatching(workflowId);
+                }
+            } finally {
+                polling.set(false);
+            }
+        };
+        watchedWorkflows.computeIfAbsent(workflowId, id ->
+                watchExecutor.scheduleWithFixedDelay(() -> {
+                    // The previous poll of this workflow is still running
+                    if (!polling.compareAndSet(false, true)) {
+                        return;
+                    }
+                    try {
+                        pollExecutor.execute(pollTask);
+                    } catch (RejectedExecutionException ex) {
+                        polling.set(false);
+                        LOGGER.log(Level.FINE, "Poll of workflow " + workflowId
+                                + " skipped, all watch threads are busy.");
+                    }
+                }, interval, interval, TimeUnit.SECONDS));
+    }
+
+    public void stopWatching(String workflowId) {
+        ScheduledFuture<?> watch = watchedWorkflows.remove(workflowId);
+        if (watch != null) {
+            watch.cancel(false);
+        }
+    }
+
+    /**
+     * @return false when the workflow does not need to be watched anymore
+     */
+    private boolean poll(String workflowId, String generatedName)
+            throws IOException, InterruptedException {
+        Optional<Workflow> workflowOpt = workflowRepository.findById(workflowId);
+        if (!workflowOpt.isPresent() || workflowOpt.get().getEndTime() != null
+                || !generatedName.equals(workflowOpt.get().getGeneratedName())) {
+            return false;
+        }
+
+        JsonNode state = getArgoState(generatedName);
+        JsonNode status = state.path("status");
+        String phase = status.path("phase").asText("");
+        Optional<TraceContext> trace = tracer.getTrace(workflowOpt.get());
+        // Parent of the spans of the jobs
+        TraceContext execution = trace.map(
+                t -> t.spanFor(EXECUTION_SPAN)).orElse(null);
+
+        Map<String, Job> jobsByName = new HashMap<>();
+        List<Job> jobs = jobRepository.findByWippWorkflow(workflowId);
+        for (Job job : jobs) {
+            jobsByName.put(job.getName(), job);
+        }
+        List<Job> succeededJobs = new ArrayList<>();
+        Iterator<JsonNode> nodes = status.path("nodes").elements();
+        while (nodes.hasNext()) {
+            JsonNode node = nodes.next();
+            if ("Pod".equals(node.path("type").asText())) {
+                // Argo tasks are named after the jobs
+                Job job = jobsByName.get(node.path("displayName").asText());
+                if (job != null && updateJob(job, node, execution)) {
+                    succeededJobs.add(job);
+                }
+            }
+        }
+
+        // Importing moves the outputs out of the job folder, which the
+        // jobs depending on them read while they run
+        for (Job job : succeededJobs) {
+            if (jobs.stream().noneMatch(other -> !succeededJobs.contains(other)
+                    && isPendingDependent(other, job))) {
+                outputImporter.importJobOutputs(job.getId());
+            }
+        }
+
+        if ("Running".equals(phase)
+                && workflowOpt.get().getStatus() == WorkflowStatus.SUBMITTED) {
+            workflowRepository.setRunning(workflowId,
+                    parseDate(status.path("startedAt")));
+        }
+        if (FINAL_PHASES.contains(phase) && trace.isPresent()) {
+            WorkflowSpan span = tracer.newSpan(trace.get(), EXECUTION_SPAN,
+                    workflowId, EXECUTION_SPAN, parseDate(status.path("startedAt")));
+            span.setEndTime(parseDate(status.path("finishedAt")));
+            span.setError(!"Succeeded".equals(phase));
+            span.setAttribute("generatedName", generatedName);
+            span.setAttribute("phase", phase);
+            tracer.record(span);
+        }
+        return !FINAL_PHASES.contains(phase);
+    }
+
+    /**
+     * @param execution the context of the execution span, null if the
+     * workflow is not traced
+     * @return true if the job succeeded and its outputs are not imported yet
+     */
+    private boolean updateJob(Job job, JsonNode node, TraceContext execution) {
+        JobStatus status = job.getStatus();
+        switch (node.path("phase").asText()) {
+            case "Running":
+                if ((status == JobStatus.CREATED || status == JobStatus.SUBMITTED
+                        || status == null) && jobRepository.setRunning(
+                                job.getId(), parseDate(node.path("startedAt")))) {
+                    job.setStatus(JobStatus.RUNNING);
+                    job.setStartTime(parseDate(node.path("startedAt")));
+                }
+                break;
+            case "Succeeded":
+                if (status != JobStatus.SUCCEEDED && status != JobStatus.ERROR) {
+                    // Not saving the whole job, which the import of its
+                    // outputs may be updating
+                    if (job.getStartTime() == null) {
+                        jobRepository.setMissingStartTime(job.getId(),
+                                parseDate(node.path("startedAt")));
+                    }
+                    recordJobSpan(job, node, execution);
+                    return true;
+                }
+                break;
+            case "Failed":
+            case "Error":
+                JobStatus failedStatus = "Failed".equals(node.path("phase").asText())
+                        ? JobStatus.FAILED : JobStatus.ERROR;
+                String error = node.path("message").asText(
+                        "Error during job execution.");
+                if (status != failedStatus && jobRepository.setFailed(
+                        job.getId(), failedStatus, error,
+                        parseDate(node.path("finishedAt")))) {
+                    job.setStatus(failedStatus);
+                    job.setError(error);
+                    job.setEndTime(parseDate(node.path("finishedAt")));
+                    recordJobSpan(job, node, execution);
+                }
+                break;
+            default:
+                break;
+        }
+        return false;
+    }
+
+    /**
+     * Record the run of a job, replacing the span recorded by a previous
+     * poll if any.
+     */
+    private void recordJobSpan(Job job, JsonNode node, TraceContext execution) {
+        if (execution == null) {
+            return;
+        }
+        WorkflowSpan span = tracer.newSpan(execution, "job/" + job.getId(),
+                job.getWippWorkflow(), "job", parseDate(node.path("startedAt")));
+        span.setJobId(job.getId());
+        span.setEndTime(parseDate(node.path("finishedAt")));
+        span.setError(!"Succeeded".equals(node.path("phase").asText()));
+        span.setAttribute("name", job.getName());
+        span.setAttribute("pod", node.path("id").asText(null));
+        tracer.record(span);
+    }
+
+    private static boolean isPendingDependent(Job job, Job dependency) {
+        return job.getDependencies() != null
+                && job.getDependencies().contains(dependency.getId())
+                && !FINAL_JOB_STATUSES.contains(job.getStatus());
+    }
+
+    private JsonNode getArgoState(String generatedName)
+            throws IOException, InterruptedException {
+        List<String> builderCommands = new ArrayList<>();
+        Collections.addAll(builderCommands,
+                config.getWorflowBinary().split(" "));
+        builderCommands.add("get");
+        builderCommands.add(generatedName);
+        builderCommands.add("-o");
+        builderCommands.add("json");
+
+        // Output redirected to files so a large state can not fill the pipe,
+        // and kept apart from warnings so that it stays valid JSON
+        File outputFile = File.createTempFile("argo-get", ".json");
+        File errorFile = File.createTempFile("argo-get", ".err");
+        try {
+            ProcessBuilder builder = new ProcessBuilder(builderCommands);
+            builder.redirectOutput(outputFile);
+            builder.redirectError(errorFile);
+            Process process = builder.start();
+            int timeout = config.getWorkflowSubmissionTimeoutSeconds();
+            if (!process.waitFor(timeout, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("argo get timed out after "
+                        + timeout + " seconds.");
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException(new String(Files.readAllBytes(
+                        errorFile.toPath()), StandardCharsets.UTF_8));
+            }
+            return JSON_MAPPER.readTree(outputFile);
+        } finally {
+            outputFile.delete();
+            errorFile.delete();
+        }
+    }
+
+    private static Date parseDate(JsonNode date) {
+        if (date.isTextual()) {
+            try {
+                return Date.from(Instant.parse(date.asText()));
+            } catch (DateTimeParseException ex) {
+                LOGGER.log(Level.FINE, "Invalid date " + date.asText(), ex);
+            }
+        }
+        return new Date();
+    }
+}
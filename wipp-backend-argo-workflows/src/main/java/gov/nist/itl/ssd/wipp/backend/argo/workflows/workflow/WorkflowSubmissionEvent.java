@@ -0,0 +1,45 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.workflow;
+
+import gov.nist.itl.ssd.wipp.backend.core.utils.FlightRecorderEvents;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Run of the Argo submission command of a workflow, see
+ * FlightRecorderEvents.
+ */
+@Name("gov.nist.itl.ssd.wipp.WorkflowSubmission")
+@Label("Workflow Submission")
+@Category({FlightRecorderEvents.CATEGORY, "Workflows"})
+@Description("Run of the argo submit command of a workflow")
+class WorkflowSubmissionEvent extends Event {
+
+    @Label("Workflow Id")
+    String workflowId;
+
+    @Label("Workflow File Size")
+    @DataAmount(DataAmount.BYTES)
+    long workflowFileSize;
+
+    @Label("Generated Name")
+    String generatedName;
+
+    @Label("Exit Code")
+    @Description("Exit code of the command, -1 if it timed out or did not start")
+    int exitCode = -1;
+}
@@ -0,0 +1,251 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.argo.workflows.workflow;
+
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.TraceContext;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.WorkflowSpan;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.WorkflowTracer;
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.JobRepository;
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.Workflow;
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.WorkflowRepository;
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.WorkflowStatus;
+import gov.nist.itl.ssd.wipp.backend.core.utils.FlightRecorderEvents;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the Argo submission commands on a bounded pool of workers.
+ *
+ * The command output and error streams are redirected to files in the
+ * workflow folder, so a verbose command can not block on a full pipe, and
+ * the command is killed if it does not complete in time. The generated
+ * name, or the error, is then written back to the workflow, unless its
+ * status changed in the meantime. The jobs of the workflow are only saved
+ * once Argo accepted it, so a failed submission leaves them unchanged. Workflows left pending by a restart are
+ * marked as failed, their submission being lost with the queue.
+ */
+@Component
+public class WorkflowSubmissionQueue {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            WorkflowSubmissionQueue.class.getName());
+
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 2000;
+
+    @Autowired
+    private CoreConfig config;
+
+    @Autowired
+    private WorkflowRepository workflowRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private WorkflowStatusWatcher statusWatcher;
+
+    @Autowired
+    private WorkflowTracer tracer;
+
+    private ThreadPoolExecutor submissionExecutor;
+
+    @PostConstruct
+    public void instantiateSubmissionExecutor() {
+        int threads = config.getWorkflowSubmissionThreads();
+        submissionExecutor = new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(
+                        config.getWorkflowSubmissionQueueCapacity()));
+
+        for (Workflow workflow : workflowRepository.findByStatusIn(
+                Collections.singletonList(WorkflowStatus.PENDING))) {
+            workflowRepository.setSubmissionError(workflow.getId(),
+                    "Submission interrupted by a restart of the server.");
+        }
+    }
+
+    @PreDestroy
+    public void shutdownSubmissionExecutor() {
+        submissionExecutor.shutdownNow();
+    }
+
+    /**
+     * Queue the submission of a converted workflow to Argo.
+     *
+     * @param workflowId the id of the workflow
+     * @param workflowFile the Argo spec file of the workflow
+     * @param jobs the jobs of the workflow, saved once Argo accepted it
+     * @param trace the trace of the submission
+     * @throws RejectedExecutionException if too many submissions are pending
+     */
+    public void submit(String workflowId, File workflowFile, List<Job> jobs,
+            TraceContext trace) {
+        WorkflowSpan queueSpan = tracer.newSpan(trace, workflowId, "queue",
+                new Date());
+        queueSpan.setAttribute("pendingSubmissions", getPendingSubmissions());
+        submissionExecutor.execute(
+                () -> doSubmit(workflowId, workflowFile, jobs, trace,
+                        queueSpan));
+    }
+
+    /**
+     * @return the number of submissions waiting for a worker
+     */
+    public int getPendingSubmissions() {
+        return submissionExecutor.getQueue().size();
+    }
+
+    private void doSubmit(String workflowId, File workflowFile,
+            List<Job> jobs, TraceContext trace, WorkflowSpan queueSpan) {
+        tracer.record(queueSpan);
+        WorkflowSpan submitSpan = tracer.newSpan(trace, workflowId,
+                "argo-submit", queueSpan.getEndTime());
+        try {
+            String generatedName = executeSubmissionCommand(workflowId,
+                    workflowFile);
+            submitSpan.setAttribute("generatedName", generatedName);
+            tracer.record(submitSpan);
+            // Before the watcher starts updating them
+            jobRepository.saveAll(jobs);
+            if (!workflowRepository.setSubmitted(workflowId, generatedName)) {
+                LOGGER.log(Level.WARNING, "Workflow {0} changed or deleted during submission",
+                        workflowId);
+            }
+            LOGGER.log(Level.INFO, "Workflow {0} submitted as {1}",
+                    new Object[]{workflowId, generatedName});
+            // Stops by itself if the workflow is already completed
+            statusWatcher.watch(workflowId, generatedName);
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            LOGGER.log(Level.SEVERE, "Cannot start workflow " + workflowId, ex);
+            if (!workflowRepository.setSubmissionError(workflowId,
+                    ex.getMessage())) {
+                LOGGER.log(Level.WARNING, "Workflow {0} changed or deleted during submission",
+                        workflowId);
+            }
+            submitSpan.setError(true);
+            tracer.record(submitSpan);
+            tracer.endTrace(trace, true);
+        }
+    }
+
+    /**
+     * Execute Argo workflow submission command
+     * @param workflowId
+     * @param workflowFile
+     * @return the name generated by Argo
+     * @throws IOException if the command fails, times out or returns no name
+     * @throws InterruptedException
+     */
+    private String executeSubmissionCommand(String workflowId,
+            File workflowFile) throws IOException, InterruptedException {
+        // Build Argo command
+        List<String> builderCommands = new ArrayList<>();
+        Collections.addAll(builderCommands,
+                config.getWorflowBinary().split(" "));
+        builderCommands.add("submit");
+        builderCommands.add("--output");
+        builderCommands.add("name");
+        builderCommands.add(workflowFile.getPath());
+
+        File outputFile = new File(workflowFile.getParentFile(),
+                "argo-submit.out");
+        File errorFile = new File(workflowFile.getParentFile(),
+                "argo-submit.err");
+        ProcessBuilder builder = new ProcessBuilder(builderCommands);
+        builder.redirectInput(ProcessBuilder.Redirect.INHERIT);
+        builder.redirectOutput(outputFile);
+        builder.redirectError(errorFile);
+
+        WorkflowSubmissionEvent event = FlightRecorderEvents.ENABLED
+                ? new WorkflowSubmissionEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        String generatedName = null;
+        int exitCode = -1;
+        try {
+            // Submit workflow to Argo
+            Process process = builder.start();
+            int timeout = config.getWorkflowSubmissionTimeoutSeconds();
+            boolean completed;
+            try {
+                completed = process.waitFor(timeout, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                // Do not leave the command running after a shutdown
+                process.destroyForcibly();
+                throw ex;
+            }
+            if (!completed) {
+                process.destroyForcibly();
+                throw new IOException("Argo submission timed out after "
+                        + timeout + " seconds.");
+            }
+            exitCode = process.exitValue();
+
+            // if Argo exit code is zero, submission was successful, get generated name
+            if (exitCode == 0) {
+                List<String> lines = Files.readAllLines(outputFile.toPath(),
+                        StandardCharsets.UTF_8);
+                for (String line : lines) {
+                    if (!line.trim().isEmpty()) {
+                        generatedName = line.trim();
+                        return generatedName;
+                    }
+                }
+                // The workflow could not be watched without its name
+                throw new IOException("Argo returned no workflow name");
+            }
+
+            // else submission failed, get error message
+            String errorMessage = new String(Files.readAllBytes(
+                    errorFile.toPath()), StandardCharsets.UTF_8).trim();
+            if (errorMessage.length() > MAX_ERROR_MESSAGE_LENGTH) {
+                errorMessage = errorMessage.substring(0, MAX_ERROR_MESSAGE_LENGTH);
+            }
+            throw new IOException(errorMessage.isEmpty()
+                    ? "Argo exited with code " + exitCode
+                    : errorMessage);
+        } finally {
+            if (event != null && event.shouldCommit()) {
+                event.workflowId = workflowId;
+                event.workflowFileSize = workflowFile.length();
+                event.generatedName = generatedName;
+                event.exitCode = exitCode;
+                event.commit();
+            }
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package gov.nist.itl.ssd.wipp.backend.argo.workflows.workflow;
 
 import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.Plugin;
-import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.PluginRepository;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.PluginCache;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.TraceContext;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.WorkflowSpan;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.tracing.WorkflowTracer;
 import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
 import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
 import gov.nist.itl.ssd.wipp.backend.core.model.job.JobRepository;
@@ -9,6 +12,8 @@ import gov.nist.itl.ssd.wipp.backend.core.model.workflow.Workflow;
 import gov.nist.itl.ssd.wipp.backend.core.model.workflow.WorkflowRepository;
 import gov.nist.itl.ssd.wipp.backend.core.model.workflow.WorkflowStatus;
 import gov.nist.itl.ssd.wipp.backend.core.rest.exception.ClientException;
+import gov.nist.itl.ssd.wipp.backend.core.rest.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.annotations.Api;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,13 +24,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.lang.ProcessBuilder.Redirect;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -49,13 +52,28 @@ public class WorkflowSubmitController {
     private JobRepository jobRepository;
 
     @Autowired
-    private PluginRepository wippPluginRepository;
+    private PluginCache pluginCache;
 
     @Autowired
     private WorkflowConverter converter;
+
+    @Autowired
+    private WorkflowSubmissionQueue submissionQueue;
+
+    @Autowired
+    private JobResultMemoizer resultMemoizer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WorkflowTracer tracer;
     
     private static final Logger LOGGER = Logger.getLogger(WorkflowSubmitController.class.getName());
 
+    // Delay suggested to the clients when the submission queue is full
+    private static final int SUBMISSION_RETRY_AFTER_SECONDS = 30;
+
     @RequestMapping(
         value = "",
         method = RequestMethod.POST,
@@ -75,10 +93,16 @@ public class WorkflowSubmitController {
 
         Workflow workflow = wippWorkflow.get();
 
+        Date submitTime = new Date();
+        long startTime = System.nanoTime();
+
         // Build the list of jobs, dependencies and plugins
         List<Job> jobList = jobRepository.findByWippWorkflow(workflowId);
+        Map<String, Job> jobsById = indexJobsById(jobList);
+        Map<String, Plugin> pluginsById = resolvePlugins(jobList);
 
-        Map<Job, List<String>> jobsDependencies = new HashMap<>();
+        // Keep the creation order of the jobs for the plan
+        Map<Job, List<String>> jobsDependencies = new LinkedHashMap<>();
         Map<Job, Plugin> jobsPlugins = new HashMap<>();
 
         for(Job job: jobList) {
@@ -87,13 +111,13 @@ public class WorkflowSubmitController {
 
             if(job.getDependencies() != null) {
                 for(String dependencyId: job.getDependencies()) {
-                    Optional<Job> optionalJobDependency = jobRepository.findById(dependencyId);
+                    Job jobDependency = jobsById.get(dependencyId);
 
-                    if(!optionalJobDependency.isPresent()) {
-        				throw new ClientException("Error while submitting workflow: unknown job dependency " + dependencyId);
+                    if(jobDependency == null) {
+        				throw new ClientException("Error while submitting workflow: job " + job.getName()
+        				        + " depends on job " + dependencyId + " which is not part of the workflow");
                     }
 
-                    Job jobDependency = optionalJobDependency.get();
                     dependencies.add(jobDependency.getName());
                 }
             }
@@ -101,16 +125,56 @@ public class WorkflowSubmitController {
             jobsDependencies.put(job, dependencies);
 
             // Link plugin to the job
-            Optional<Plugin> plugin = wippPluginRepository.findById(job.getWippExecutable());
-            if(!plugin.isPresent()) {
+            Plugin plugin = pluginsById.get(job.getWippExecutable());
+            if(plugin == null) {
 				throw new ClientException("Error while submitting workflow: unknown plugin " + job.getWippExecutable());
             }
 
-            jobsPlugins.put(job, plugin.get());
+            jobsPlugins.put(job, plugin);
         }
 
+        WorkflowPlan plan;
+        try {
+            plan = WorkflowPlan.of(jobsDependencies);
+        } catch (IllegalArgumentException ex) {
+            throw new ClientException("Error while submitting workflow: " + ex.getMessage());
+        }
+
+        long resolvedTime = System.nanoTime();
+
+        // Traced from the reception of the submission, the context is
+        // written to the Argo spec and saved with the workflow below
+        TraceContext trace = tracer.startTrace(workflow, submitTime);
+        WorkflowSpan resolveSpan = tracer.newSpan(trace, workflowId, "resolve",
+                submitTime);
+        resolveSpan.setEndTime(after(submitTime, resolvedTime - startTime));
+        resolveSpan.setAttribute("jobs", jobList.size());
+        tracer.record(resolveSpan);
+
         // Start the conversion
+        WorkflowSpan convertSpan = tracer.newSpan(trace, workflowId, "convert",
+                resolveSpan.getEndTime());
         try {
+            // Skip the jobs which already ran on the same inputs
+            plan = plan.skipping(resultMemoizer.reuseResults(plan, jobsPlugins));
+            convertSpan.setAttribute("reusedJobs", plan.getSkippedJobs().size());
+            LOGGER.log(Level.INFO, "Workflow {0} plan: {1} jobs, {2} reused, critical path of {3} jobs, width of {4} jobs",
+                    new Object[]{workflowId, jobList.size(), plan.getSkippedJobs().size(),
+                        plan.getCriticalPathLength(), plan.getWidth()});
+            if (plan.getJobs().isEmpty()) {
+                Date now = new Date();
+                workflow.setStatus(WorkflowStatus.SUCCEEDED);
+                workflow.setErrorMessage(null);
+                workflow.setStartTime(now);
+                workflow.setEndTime(now);
+                jobRepository.saveAll(jobList);
+                workflowRepository.save(workflow);
+                tracer.record(convertSpan);
+                tracer.endTrace(trace, false);
+                countSubmission("reused");
+                return new ResponseEntity<>(workflow, HttpStatus.OK);
+            }
+
             File workflowFolder = new File(config.getWorkflowsFolder(), workflowId);
             if(!workflowFolder.exists()) {
                 if(!workflowFolder.mkdirs()) {
@@ -119,69 +183,106 @@ public class WorkflowSubmitController {
             }
 
 			String workflowFilePath = workflowFolder + File.separator + "workflow-" + workflowId + ".yaml";
-			converter.convert(workflow, jobsDependencies, jobsPlugins,workflowFilePath);
-			
-			// Launch submission of the workflow to Argo
-			workflow = executeSubmissionCommand(workflow, workflowFilePath);
-            workflow.setStatus(WorkflowStatus.SUBMITTED);
+			converter.convert(workflow, plan, jobsPlugins, workflowFilePath);
+			long convertedTime = System.nanoTime();
+			convertSpan.setEndTime(after(submitTime, convertedTime - startTime));
+			convertSpan.setAttribute("workflowFileSize", new File(workflowFilePath).length());
+			tracer.record(convertSpan);
 
-            // Save the workflow and send the HTTP response
+            // Save the workflow before queuing it, the submission worker
+            // marks it as submitted once Argo accepted it, or as failed
+            workflow.setStatus(WorkflowStatus.PENDING);
+            workflow.setErrorMessage(null);
+            // Cleared so that the exit callback of this run is handled
+            workflow.setEndTime(null);
             workflowRepository.save(workflow);
-            return new ResponseEntity<>(workflow, HttpStatus.OK);
+
+			// Queue the submission of the workflow to Argo, the jobs updated
+			// by the memoizer are saved once Argo accepted it
+			submissionQueue.submit(workflowId, new File(workflowFilePath),
+			        jobList, trace);
+            long queuedTime = System.nanoTime();
+
+            LOGGER.log(Level.INFO, "Workflow {0} ({1} jobs) submission timings: "
+                    + "resolve {2} ms, convert {3} ms, queue {4} ms, trace {5}",
+                    new Object[]{workflowId, jobList.size(),
+                        TimeUnit.NANOSECONDS.toMillis(resolvedTime - startTime),
+                        TimeUnit.NANOSECONDS.toMillis(convertedTime - resolvedTime),
+                        TimeUnit.NANOSECONDS.toMillis(queuedTime - convertedTime),
+                        trace.getTraceId()});
+            recordPhase("resolve", resolvedTime - startTime);
+            recordPhase("convert", convertedTime - resolvedTime);
+            recordPhase("queue", queuedTime - convertedTime);
+            countSubmission("accepted");
+
+            return new ResponseEntity<>(workflow, HttpStatus.ACCEPTED);
+
+        } catch (RejectedExecutionException ex) {
+        	workflow.setStatus(WorkflowStatus.ERROR);
+        	workflow.setErrorMessage("Too many pending workflow submissions");
+        	workflowRepository.save(workflow);
+        	tracer.endTrace(trace, true);
+        	countSubmission("rejected");
+        	throw new ServiceUnavailableException("Error while submitting workflow: too many pending submissions, try again later.",
+        	        SUBMISSION_RETRY_AFTER_SECONDS);
             
         } catch (Exception ex) {
         	workflow.setStatus(WorkflowStatus.ERROR);
         	workflow.setErrorMessage(ex.getMessage());
         	workflowRepository.save(workflow);
+            if (convertSpan.getEndTime() == null) {
+                convertSpan.setError(true);
+                tracer.record(convertSpan);
+            }
+        	tracer.endTrace(trace, true);
             LOGGER.log(Level.SEVERE, "Cannot start workflow: " + ex.getMessage());
+            countSubmission("error");
         	throw new ClientException("Error while submitting workflow: " + ex.getMessage());
         }
 
     }
     
+    private static Date after(Date time, long durationNanos) {
+        return new Date(time.getTime()
+                + TimeUnit.NANOSECONDS.toMillis(durationNanos));
+    }
+
+    private void recordPhase(String phase, long durationNanos) {
+        meterRegistry.timer("wipp.workflows.submission", "phase", phase)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void countSubmission(String outcome) {
+        meterRegistry.counter("wipp.workflows.submissions", "outcome", outcome)
+                .increment();
+    }
+
     /**
-     * Execute Argo workflow submission command
-     * @param workflow
-     * @param workflowFilePath
-     * @return
-     * @throws IOException
-     * @throws InterruptedException
-     * @throws RuntimeException
+     * Index the workflow jobs by id. A dependency on a job of another
+     * workflow is not resolved, the plan only accepts the jobs of the
+     * workflow.
+     * @param jobList the jobs of the workflow
+     * @return the jobs indexed by id
      */
-	private Workflow executeSubmissionCommand(Workflow workflow, String workflowFilePath)
-			throws IOException, InterruptedException, RuntimeException {
-        // Build Argo command
-    	List<String> builderCommands = new ArrayList<>();
-        Collections.addAll(builderCommands, config.getWorflowBinary().split(" "));
-        builderCommands.add("submit");
-        builderCommands.add("--output");
-        builderCommands.add("name");
-        builderCommands.add(workflowFilePath);
-        
-        ProcessBuilder builder = new ProcessBuilder(builderCommands);
-        builder.redirectInput(Redirect.INHERIT);
-        Process process;
-        
-        // Submit workflow to Argo
-        process = builder.start();
-        int exitCode = process.waitFor();
-    	
-        // if Argo exit code is zero, submission was successful, get generated name
-    	if (exitCode == 0) {
-    		InputStream is = process.getInputStream();
-        	BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-        	String line = reader.readLine();
-        	if(line != null){
-        		workflow.setGeneratedName(line);
-        	} 
-        // else submission failed, get error message
-    	} else {
-    		InputStream es = process.getErrorStream();
-    		BufferedReader errorReader = new BufferedReader(new InputStreamReader(es));
-    		String errorMsg = errorReader.readLine();
-    		throw new RuntimeException(errorMsg);
-    	}
-    	
-    	return workflow;
+    private Map<String, Job> indexJobsById(List<Job> jobList) {
+        Map<String, Job> jobsById = new HashMap<>();
+        for (Job job : jobList) {
+            jobsById.put(job.getId(), job);
+        }
+        return jobsById;
+    }
+
+    /**
+     * Get the plugins of all the jobs, the ones not cached yet are fetched
+     * with a single query.
+     * @param jobList the jobs of the workflow
+     * @return the plugins indexed by id
+     */
+    private Map<String, Plugin> resolvePlugins(List<Job> jobList) {
+        Set<String> pluginIds = new HashSet<>();
+        for (Job job : jobList) {
+            pluginIds.add(job.getWippExecutable());
+        }
+        return pluginCache.findAllById(pluginIds);
     }
 }
@@ -0,0 +1,59 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Generated fixtures shared by the benchmarks, nothing is read from the
+ * network or from an existing WIPP installation.
+ */
+final class BenchmarkFixtures {
+
+    // Fixed seed, so that every run works on the same data
+    private static final long SEED = 42;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Set a field normally injected by Spring.
+     */
+    static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException("No field " + fieldName
+                    + " in " + target.getClass().getName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    static File createTempDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory("wipp-benchmarks-" + prefix).toFile();
+    }
+
+    static void delete(File folder) throws IOException {
+        FileUtils.deleteDirectory(folder);
+    }
+
+    static Random random() {
+        return new Random(SEED);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.benchmarks;
+
+import gov.nist.itl.ssd.wipp.backend.core.utils.PatternFilenameConverter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Conversion of stitched tiles file names to the input tiles file names, as
+ * done for each tile when fetching regions of a stitched pyramid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilenameConverterBenchmark {
+
+    private static final int NB_FILES = 1024;
+
+    private PatternFilenameConverter converter;
+
+    private String[] matchingFileNames;
+
+    private String[] otherFileNames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        converter = new PatternFilenameConverter(
+                "img_r{rrr}_c{ccc}.ome.tif", "tile_x{ccc}_y{rrr}.ome.tif");
+        matchingFileNames = new String[NB_FILES];
+        otherFileNames = new String[NB_FILES];
+        for (int i = 0; i < NB_FILES; i++) {
+            matchingFileNames[i] = String.format("img_r%03d_c%03d.ome.tif",
+                    i / 32, i % 32);
+            otherFileNames[i] = String.format("img_%05d.tif", i);
+        }
+    }
+
+    @Benchmark
+    public void convert(Blackhole bh) {
+        for (String fileName : matchingFileNames) {
+            bh.consume(converter.convert(fileName));
+        }
+    }
+
+    @Benchmark
+    public void canConvertMatching(Blackhole bh) {
+        for (String fileName : matchingFileNames) {
+            bh.consume(converter.canConvert(fileName));
+        }
+    }
+
+    @Benchmark
+    public void canConvertOther(Blackhole bh) {
+        for (String fileName : otherFileNames) {
+            bh.consume(converter.canConvert(fileName));
+        }
+    }
+}
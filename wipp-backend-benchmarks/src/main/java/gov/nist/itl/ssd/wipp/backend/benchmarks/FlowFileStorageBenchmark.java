@@ -0,0 +1,117 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.benchmarks;
+
+import gov.nist.itl.ssd.wipp.backend.data.utils.flowjs.FlowFile;
+import gov.nist.itl.ssd.wipp.backend.data.utils.flowjs.FlowFileStorage;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Chunk bookkeeping of the Flow.js uploads: each chunk request builds a
+ * FlowFile from its parameters, checks and records the chunk in the shared
+ * FlowFileStorage, then checks whether the upload is finished.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowFileStorageBenchmark {
+
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    @State(Scope.Benchmark)
+    public static class Storage {
+
+        FlowFileStorage storage;
+
+        AtomicInteger uploads;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            storage = new FlowFileStorage();
+            uploads = new AtomicInteger();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Upload {
+
+        @Param({"16", "1024"})
+        int nbChunks;
+
+        String relativePath;
+
+        @Setup(Level.Iteration)
+        public void setUp(Storage storage) {
+            relativePath = "collection/images/img_"
+                    + storage.uploads.incrementAndGet() + ".tif";
+        }
+
+        FlowFile newFlowFile() {
+            // As parsed from the parameters of each chunk request
+            return new FlowFile(CHUNK_SIZE, (long) nbChunks * CHUNK_SIZE,
+                    nbChunks * CHUNK_SIZE + "-" + relativePath,
+                    relativePath.substring(relativePath.lastIndexOf('/') + 1),
+                    relativePath);
+        }
+    }
+
+    @Benchmark
+    public void flowFileHashing(Upload upload, Blackhole bh) {
+        FlowFile flowFile = upload.newFlowFile();
+        bh.consume(flowFile.hashCode());
+        bh.consume(flowFile.equals(upload.newFlowFile()));
+    }
+
+    @Benchmark
+    public boolean uploadFile(Storage storage, Upload upload) {
+        return uploadAllChunks(storage.storage, upload);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean uploadFilesConcurrently(Storage storage, Upload upload) {
+        return uploadAllChunks(storage.storage, upload);
+    }
+
+    private static boolean uploadAllChunks(FlowFileStorage storage,
+            Upload upload) {
+        boolean finished = false;
+        for (int chunk = 1; chunk <= upload.nbChunks; chunk++) {
+            FlowFile flowFile = upload.newFlowFile();
+            if (!storage.isChunckUploaded(flowFile, chunk)) {
+                storage.setChunckUploaded(flowFile, chunk);
+            }
+            finished = storage.isUploadFinished(flowFile);
+        }
+        storage.removeFlowFile(upload.newFlowFile());
+        return finished;
+    }
+}
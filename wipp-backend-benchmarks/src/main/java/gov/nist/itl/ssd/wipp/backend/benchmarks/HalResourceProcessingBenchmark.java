@@ -0,0 +1,282 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.benchmarks;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.JobStatus;
+import gov.nist.itl.ssd.wipp.backend.core.rest.ManualRefLinksResourceProcessor;
+import gov.nist.itl.ssd.wipp.backend.core.rest.annotation.ManualListRef;
+import gov.nist.itl.ssd.wipp.backend.core.rest.annotation.ManualRef;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.hateoas.EntityLinks;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkBuilder;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.ResourceProcessor;
+import org.springframework.hateoas.Resources;
+import org.springframework.hateoas.core.AbstractEntityLinks;
+import org.springframework.hateoas.core.DefaultRelProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * HAL rendering of a page of jobs: the ManualRef links of each job are added
+ * by the resource processor, then the page is serialized to HAL JSON.
+ * The *Baseline benchmarks run the reflective ManualRefResourceProcessor and
+ * ManualListRefResourceProcessor that ManualRefLinksResourceProcessor
+ * replaced, so that both can be compared on the same page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HalResourceProcessingBenchmark {
+
+    @Param({"20", "1000"})
+    private int pageSize;
+
+    private ManualRefLinksResourceProcessor processor;
+
+    private List<ResourceProcessor<Resource<?>>> baselineProcessors;
+
+    private ObjectMapper halObjectMapper;
+
+    private List<Job> jobs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        processor = new ManualRefLinksResourceProcessor();
+        BenchmarkFixtures.inject(processor, "entityLinks",
+                new FixedBaseEntityLinks());
+        EntityLinks baselineEntityLinks = new FixedBaseEntityLinks();
+        baselineProcessors = Arrays.asList(
+                new ReflectiveManualRefProcessor(baselineEntityLinks),
+                new ReflectiveManualListRefProcessor(baselineEntityLinks));
+
+        halObjectMapper = new ObjectMapper();
+        halObjectMapper.registerModule(new Jackson2HalModule());
+        halObjectMapper.setHandlerInstantiator(
+                new Jackson2HalModule.HalHandlerInstantiator(
+                        new DefaultRelProvider(), null, null));
+
+        jobs = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Job job = new Job();
+            job.setId(String.format("5d1f0c2b8a1e4b0001%06d", i));
+            job.setName("workflow-job-" + i);
+            job.setStatus(JobStatus.SUCCEEDED);
+            job.setCreationDate(new Date());
+            job.setWippExecutable("5d1f0c2b8a1e4b0000000001");
+            job.setWippWorkflow("5d1f0c2b8a1e4b0000000002");
+            if (i > 0) {
+                job.setDependencies(Arrays.asList(jobs.get(i - 1).getId()));
+            }
+            Map<String, String> parameters = new HashMap<>();
+            parameters.put("inputDir", "5d1f0c2b8a1e4b0000000003");
+            parameters.put("filePattern", "img_r{rrr}_c{ccc}.ome.tif");
+            job.setParameters(parameters);
+            jobs.add(job);
+        }
+    }
+
+    @Benchmark
+    public Resources<Resource<Job>> processPage() {
+        return newProcessedPage();
+    }
+
+    @Benchmark
+    public String renderPage() throws JsonProcessingException {
+        return halObjectMapper.writeValueAsString(newProcessedPage());
+    }
+
+    @Benchmark
+    public Resources<Resource<Job>> processPageBaseline() {
+        return newBaselinePage();
+    }
+
+    @Benchmark
+    public String renderPageBaseline() throws JsonProcessingException {
+        return halObjectMapper.writeValueAsString(newBaselinePage());
+    }
+
+    private Resources<Resource<Job>> newProcessedPage() {
+        List<Resource<Job>> content = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            Resource<Job> resource = new Resource<>(job);
+            processor.process(resource);
+            content.add(resource);
+        }
+        return new Resources<>(content);
+    }
+
+    private Resources<Resource<Job>> newBaselinePage() {
+        List<Resource<Job>> content = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            Resource<Job> resource = new Resource<>(job);
+            for (ResourceProcessor<Resource<?>> baseline : baselineProcessors) {
+                baseline.process(resource);
+            }
+            content.add(resource);
+        }
+        return new Resources<>(content);
+    }
+
+    /**
+     * Fields of the content class and of its public member classes, looked up
+     * on every call as the reflective processors did.
+     */
+    private static Stream<Field> reflectiveFields(Object content) {
+        Class<?> clazz = content.getClass();
+        Stream<Field> ownFields = Arrays.stream(clazz.getDeclaredFields());
+        Stream<Field> parentFields = Arrays.stream(clazz.getClasses())
+                .flatMap(c -> Arrays.stream(c.getDeclaredFields()));
+        return Stream.concat(ownFields, parentFields);
+    }
+
+    /**
+     * Baseline copy of the former ManualRefResourceProcessor.
+     */
+    private static class ReflectiveManualRefProcessor
+            implements ResourceProcessor<Resource<?>> {
+
+        private final EntityLinks entityLinks;
+
+        ReflectiveManualRefProcessor(EntityLinks entityLinks) {
+            this.entityLinks = entityLinks;
+        }
+
+        @Override
+        public Resource<?> process(Resource<?> resource) {
+            reflectiveFields(resource.getContent()).forEach(field -> {
+                ManualRef manualRef = AnnotationUtils.getAnnotation(
+                        field, ManualRef.class);
+                if (manualRef != null) {
+                    try {
+                        field.setAccessible(true);
+                        Object fieldValue = field.get(resource.getContent());
+                        if (fieldValue != null) {
+                            resource.add(entityLinks.linkToSingleResource(
+                                    manualRef.value(), fieldValue)
+                                    .withRel(field.getName()));
+                        }
+                    } catch (IllegalAccessException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            });
+            return resource;
+        }
+    }
+
+    /**
+     * Baseline copy of the former ManualListRefResourceProcessor.
+     */
+    private static class ReflectiveManualListRefProcessor
+            implements ResourceProcessor<Resource<?>> {
+
+        private final EntityLinks entityLinks;
+
+        ReflectiveManualListRefProcessor(EntityLinks entityLinks) {
+            this.entityLinks = entityLinks;
+        }
+
+        @Override
+        public Resource<?> process(Resource<?> resource) {
+            reflectiveFields(resource.getContent()).forEach(field -> {
+                ManualListRef manualListRef = AnnotationUtils.getAnnotation(
+                        field, ManualListRef.class);
+                if (manualListRef != null) {
+                    try {
+                        field.setAccessible(true);
+                        Object fieldValues = field.get(resource.getContent());
+                        if (fieldValues != null) {
+                            for (Object fieldValue : (List<?>) fieldValues) {
+                                resource.add(entityLinks.linkToSingleResource(
+                                        manualListRef.value(), fieldValue)
+                                        .withRel(field.getName()));
+                            }
+                        }
+                    } catch (IllegalAccessException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            });
+            return resource;
+        }
+    }
+
+    /**
+     * Entity links of a fixed base URI, as built by Spring Data REST for a
+     * request without forwarded headers.
+     */
+    private static class FixedBaseEntityLinks extends AbstractEntityLinks {
+
+        private static final String BASE = "http://localhost:8080"
+                + CoreConfig.BASE_URI;
+
+        @Override
+        public boolean supports(Class<?> delimiter) {
+            return true;
+        }
+
+        @Override
+        public LinkBuilder linkFor(Class<?> type) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public LinkBuilder linkFor(Class<?> type, Object... parameters) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Link linkToCollectionResource(Class<?> type) {
+            String name = type.getSimpleName();
+            return new Link(BASE + "/" + name.substring(0, 1)
+                    .toLowerCase(Locale.ROOT) + name.substring(1) + "s");
+        }
+
+        @Override
+        public Link linkToSingleResource(Class<?> type, Object id) {
+            return new Link(linkToCollectionResource(type).getHref() + "/" + id);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.benchmarks;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandler;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandlerFactory;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandlerService;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.JobOutputReference;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.ParameterResolutionService;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+
+/**
+ * Resolution of the parameters of all the jobs of a workflow, where most
+ * jobs read the same collections, with and without the batch cache of
+ * ParameterResolutionService.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterResolutionBenchmark {
+
+    private static final String STORAGE_ROOT = "/data/WIPP-plugins";
+
+    private static final String[] TYPES = {
+        "collection", "stitchingVector", "string"};
+
+    private static final int NB_DISTINCT_INPUTS = 4;
+
+    @Param({"10", "200"})
+    private int nbJobs;
+
+    private ParameterResolutionService parameterResolutionService;
+
+    private DataHandlerService dataHandlerService;
+
+    // Job -> parameter name -> {type, value}
+    private Map<String, Map<String, String[]>> workflowParameters;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CoreConfig config = new CoreConfig();
+        BenchmarkFixtures.inject(config, "storageRootFolder", STORAGE_ROOT);
+        BenchmarkFixtures.inject(config, "containerInputsMountPath",
+                "/data/inputs");
+        BenchmarkFixtures.inject(config, "jobsTempFolder",
+                STORAGE_ROOT + "/temp/jobs");
+
+        parameterResolutionService = new ParameterResolutionService();
+        dataHandlerService = new DataHandlerService();
+        BenchmarkFixtures.inject(dataHandlerService, "dataHandlerFactory",
+                new FolderDataHandlerFactory(parameterResolutionService));
+        BenchmarkFixtures.inject(parameterResolutionService, "config", config);
+        BenchmarkFixtures.inject(parameterResolutionService,
+                "dataHandlerService", dataHandlerService);
+
+        workflowParameters = new HashMap<>();
+        for (int i = 0; i < nbJobs; i++) {
+            Map<String, String[]> parameters = new HashMap<>();
+            for (int t = 0; t < TYPES.length; t++) {
+                String value = "string".equals(TYPES[t])
+                        ? "img_r{rrr}_c{ccc}.ome.tif"
+                        : String.format("5d1f0c2b8a1e4b%04d%06d", t,
+                                i % NB_DISTINCT_INPUTS);
+                parameters.put("input" + t, new String[]{TYPES[t], value});
+            }
+            if (i > 0) {
+                parameters.put("previousOutput", new String[]{"collection",
+                        new JobOutputReference("job" + (i - 1), "outDir")
+                                .toString()});
+            }
+            workflowParameters.put("job" + i, parameters);
+        }
+    }
+
+    @Benchmark
+    public void resolveWithBatch(Blackhole bh) {
+        ParameterResolutionService.Batch batch
+                = parameterResolutionService.newBatch();
+        for (Map<String, String[]> parameters : workflowParameters.values()) {
+            for (String[] parameter : parameters.values()) {
+                bh.consume(resolve(parameter, (type, value)
+                        -> batch.resolve(type, value)));
+            }
+        }
+    }
+
+    @Benchmark
+    public void resolveWithoutBatch(Blackhole bh) {
+        for (Map<String, String[]> parameters : workflowParameters.values()) {
+            for (String[] parameter : parameters.values()) {
+                bh.consume(resolve(parameter, (type, value)
+                        -> dataHandlerService.getDataHandler(type)
+                                .exportDataAsParam(value)));
+            }
+        }
+    }
+
+    private String resolve(String[] parameter, Resolver resolver) {
+        Optional<JobOutputReference> reference
+                = JobOutputReference.parse(parameter[1]);
+        if (reference.isPresent()) {
+            return parameterResolutionService.toContainerPath(
+                    parameterResolutionService.getJobOutputTempFolder(
+                            reference.get()));
+        }
+        return resolver.resolve(parameter[0], parameter[1]);
+    }
+
+    private interface Resolver {
+
+        String resolve(String type, String value);
+    }
+
+    /**
+     * Data handlers resolving data ids to their folder, like the handlers of
+     * the data module, without the database lookups.
+     */
+    private static class FolderDataHandlerFactory implements DataHandlerFactory {
+
+        private final Map<String, DataHandler> dataHandlers = new HashMap<>();
+
+        private FolderDataHandlerFactory(
+                ParameterResolutionService parameterResolutionService) {
+            dataHandlers.put("defaultDataHandler", new FolderDataHandler(
+                    null, parameterResolutionService));
+            dataHandlers.put("collectionDataHandler", new FolderDataHandler(
+                    "collections", parameterResolutionService));
+            dataHandlers.put("stitchingVectorDataHandler", new FolderDataHandler(
+                    "stitching", parameterResolutionService));
+        }
+
+        @Override
+        public DataHandler getDataHandler(String name) {
+            DataHandler dataHandler = dataHandlers.get(name);
+            if (dataHandler == null) {
+                throw new NoSuchBeanDefinitionException(name);
+            }
+            return dataHandler;
+        }
+    }
+
+    private static class FolderDataHandler implements DataHandler {
+
+        private final String folder;
+        private final ParameterResolutionService parameterResolutionService;
+
+        private FolderDataHandler(String folder,
+                ParameterResolutionService parameterResolutionService) {
+            this.folder = folder;
+            this.parameterResolutionService = parameterResolutionService;
+        }
+
+        @Override
+        public void importData(Job job, String outputName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String exportDataAsParam(String value) {
+            if (folder == null) {
+                return value;
+            }
+            File dataFolder = new File(new File(new File(STORAGE_ROOT, folder),
+                    value), "images");
+            return parameterResolutionService.toContainerPath(dataFolder);
+        }
+    }
+}
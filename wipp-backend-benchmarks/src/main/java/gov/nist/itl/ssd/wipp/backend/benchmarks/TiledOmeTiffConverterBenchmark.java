@@ -0,0 +1,112 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.benchmarks;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.data.imagescollection.images.ImageMetadata;
+import gov.nist.itl.ssd.wipp.backend.data.utils.tiledtiffs.TiledOmeTiffConverter;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversion of an uploaded image to a tiled OME TIFF with its thumbnail, on
+ * synthetic 16 bits grayscale images.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TiledOmeTiffConverterBenchmark {
+
+    private static final int THUMBNAIL_SIZE = 256;
+
+    @Param({"1024", "4096"})
+    private int size;
+
+    private File folder;
+
+    private File inputFile;
+
+    private File outputFile;
+
+    private File thumbnailFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        folder = BenchmarkFixtures.createTempDirectory("tiledtiff");
+        inputFile = new File(folder, "input.png");
+        outputFile = new File(folder, "output.ome.tif");
+        thumbnailFile = new File(folder, "thumbnail.png");
+        ImageIO.write(createImage(size), "png", inputFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFixtures.delete(folder);
+    }
+
+    @Benchmark
+    public ImageMetadata convert() throws Exception {
+        TiledOmeTiffConverter converter = new TiledOmeTiffConverter(
+                inputFile.getPath(), outputFile.getPath(),
+                CoreConfig.TILE_SIZE, CoreConfig.TILE_SIZE);
+        converter.setThumbnail(thumbnailFile, THUMBNAIL_SIZE);
+        try {
+            converter.init();
+            converter.readWriteTiles();
+            return converter.extractMetadata();
+        } finally {
+            converter.cleanup();
+        }
+    }
+
+    /**
+     * Smooth gradient with noise, so that the compression of the tiles does
+     * some real work.
+     */
+    private static BufferedImage createImage(int size) {
+        BufferedImage image = new BufferedImage(size, size,
+                BufferedImage.TYPE_USHORT_GRAY);
+        WritableRaster raster = image.getRaster();
+        Random random = BenchmarkFixtures.random();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int value = (x + y) * 0xFFFF / (2 * size) + random.nextInt(256);
+                raster.setSample(x, y, 0, Math.min(value, 0xFFFF));
+            }
+        }
+        return image;
+    }
+}
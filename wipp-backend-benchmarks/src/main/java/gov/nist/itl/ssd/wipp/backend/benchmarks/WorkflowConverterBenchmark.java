@@ -0,0 +1,285 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.benchmarks;
+
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.Plugin;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.plugin.PluginIO;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.workflow.WorkflowConverter;
+import gov.nist.itl.ssd.wipp.backend.argo.workflows.workflow.WorkflowPlan;
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandler;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandlerFactory;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.DataHandlerService;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.JobOutputReference;
+import gov.nist.itl.ssd.wipp.backend.core.model.data.ParameterResolutionService;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
+import gov.nist.itl.ssd.wipp.backend.core.model.workflow.Workflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversion of workflows to Argo specs by a single converter, as shared by
+ * the concurrent submissions. Each thread converts its own workflow to its
+ * own file, and checks after each conversion that the file is the spec
+ * written by a conversion of the same workflow running alone. Reading the
+ * file back is part of the measured time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkflowConverterBenchmark {
+
+    private static final int NB_PLUGINS = 3;
+
+    // Kept referenced so that its level is not reset
+    private static final Logger CONVERTER_LOGGER = Logger.getLogger(
+            WorkflowConverter.class.getName());
+
+    @State(Scope.Benchmark)
+    public static class Converter {
+
+        @Param({"10", "200"})
+        private int nbJobs;
+
+        private WorkflowConverter converter;
+
+        private File folder;
+
+        private final AtomicInteger nextWorkflow = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            folder = BenchmarkFixtures.createTempDirectory("converter");
+            CoreConfig config = new CoreConfig();
+            BenchmarkFixtures.inject(config, "storageRootFolder",
+                    folder.getAbsolutePath());
+            BenchmarkFixtures.inject(config, "jobsTempFolder",
+                    new File(folder, "temp/jobs").getAbsolutePath());
+            BenchmarkFixtures.inject(config, "containerInputsMountPath",
+                    "/data/inputs");
+            BenchmarkFixtures.inject(config, "containerOutputsMountPath",
+                    "/data/outputs");
+            BenchmarkFixtures.inject(config, "wippDataPVCName",
+                    "wippdata-pvc");
+            BenchmarkFixtures.inject(config, "workflowMaxParallelism", 20);
+
+            ParameterResolutionService parameterResolutionService
+                    = new ParameterResolutionService();
+            DataHandlerService dataHandlerService = new DataHandlerService();
+            BenchmarkFixtures.inject(dataHandlerService, "dataHandlerFactory",
+                    new CollectionDataHandlerFactory());
+            BenchmarkFixtures.inject(parameterResolutionService, "config",
+                    config);
+            BenchmarkFixtures.inject(parameterResolutionService,
+                    "dataHandlerService", dataHandlerService);
+
+            // The exit URL is logged on each conversion
+            CONVERTER_LOGGER.setLevel(java.util.logging.Level.WARNING);
+
+            converter = new WorkflowConverter();
+            BenchmarkFixtures.inject(converter, "coreConfig", config);
+            BenchmarkFixtures.inject(converter, "parameterResolutionService",
+                    parameterResolutionService);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            BenchmarkFixtures.delete(folder);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Submission {
+
+        private Workflow workflow;
+
+        private WorkflowPlan plan;
+
+        private Map<Job, Plugin> jobsPlugins;
+
+        private File workflowFile;
+
+        private byte[] expectedSpec;
+
+        @Setup(Level.Trial)
+        public void setUp(Converter converter) throws Exception {
+            String workflowId = "benchmark-workflow-"
+                    + converter.nextWorkflow.incrementAndGet();
+            workflow = new Workflow();
+            BenchmarkFixtures.inject(workflow, "id", workflowId);
+            workflow.setName(workflowId);
+            workflow.setTraceparent(
+                    "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+
+            List<Plugin> plugins = new ArrayList<>();
+            for (int p = 0; p < NB_PLUGINS; p++) {
+                plugins.add(newPlugin(p));
+            }
+
+            // Binary tree of jobs, each job reading the output of its parent
+            List<Job> jobs = new ArrayList<>();
+            Map<Job, List<String>> jobsDependencies = new LinkedHashMap<>();
+            jobsPlugins = new HashMap<>();
+            for (int i = 0; i < converter.nbJobs; i++) {
+                Plugin plugin = plugins.get(i % NB_PLUGINS);
+                Job job = new Job();
+                job.setId(workflowId + "-job-" + i);
+                job.setName(workflowId + "-job-" + i);
+                job.setWippWorkflow(workflowId);
+                job.setWippExecutable(plugin.getId());
+                Map<String, String> parameters = new HashMap<>();
+                parameters.put("filePattern", "img_r{rrr}_c{ccc}.ome.tif");
+                if (i == 0) {
+                    parameters.put("inpDir", "5d1f0c2b8a1e4b0000000003");
+                    jobsDependencies.put(job, Collections.emptyList());
+                } else {
+                    Job parent = jobs.get((i - 1) / 2);
+                    parameters.put("inpDir", new JobOutputReference(
+                            parent.getId(), "outDir").toString());
+                    job.setDependencies(Arrays.asList(parent.getId()));
+                    jobsDependencies.put(job,
+                            Arrays.asList(parent.getName()));
+                }
+                job.setParameters(parameters);
+                jobs.add(job);
+                jobsPlugins.put(job, plugin);
+            }
+            plan = WorkflowPlan.of(jobsDependencies);
+            workflowFile = new File(converter.folder, workflowId + ".yaml");
+
+            // Reference spec, converted while no other thread converts
+            File expectedFile = new File(converter.folder,
+                    workflowId + "-expected.yaml");
+            synchronized (converter) {
+                converter.converter.convert(workflow, plan, jobsPlugins,
+                        expectedFile.getPath());
+            }
+            expectedSpec = Files.readAllBytes(expectedFile.toPath());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public File convert(Converter converter, Submission submission)
+            throws Exception {
+        return doConvert(converter, submission);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public File convertConcurrently(Converter converter,
+            Submission submission) throws Exception {
+        return doConvert(converter, submission);
+    }
+
+    private static File doConvert(Converter converter, Submission submission)
+            throws Exception {
+        converter.converter.convert(submission.workflow, submission.plan,
+                submission.jobsPlugins, submission.workflowFile.getPath());
+        // Fails the run on any change made by a concurrent conversion
+        if (!Arrays.equals(submission.expectedSpec, Files.readAllBytes(
+                submission.workflowFile.toPath()))) {
+            throw new IllegalStateException("Spec of workflow "
+                    + submission.workflow.getId()
+                    + " differs from its conversion alone");
+        }
+        return submission.workflowFile;
+    }
+
+    private static Plugin newPlugin(int index) {
+        Plugin plugin = new Plugin();
+        plugin.setId(String.format("5d1f0c2b8a1e4b00000001%02d", index));
+        plugin.setName("benchmark-plugin-" + index);
+        plugin.setVersion("1.0." + index);
+        plugin.setContainerId("wipp/benchmark-plugin:1.0." + index);
+        plugin.setInputs(Arrays.asList(
+                newPluginIO("inpDir", "collection"),
+                newPluginIO("filePattern", "string")));
+        plugin.setOutputs(Collections.singletonList(
+                newPluginIO("outDir", "collection")));
+        return plugin;
+    }
+
+    private static PluginIO newPluginIO(String name, String type) {
+        PluginIO pluginIO = new PluginIO();
+        pluginIO.setName(name);
+        pluginIO.setType(type);
+        return pluginIO;
+    }
+
+    /**
+     * Data handlers giving the folder of a collection, or the value itself
+     * for the other types, without the database lookups.
+     */
+    private static class CollectionDataHandlerFactory
+            implements DataHandlerFactory {
+
+        private final DataHandler collectionDataHandler = new DataHandler() {
+            @Override
+            public void importData(Job job, String outputName) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String exportDataAsParam(String value) {
+                return "/data/inputs/collections/" + value + "/images";
+            }
+        };
+
+        private final DataHandler defaultDataHandler = new DataHandler() {
+            @Override
+            public void importData(Job job, String outputName) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String exportDataAsParam(String value) {
+                return value;
+            }
+        };
+
+        @Override
+        public DataHandler getDataHandler(String name) {
+            return "collectionDataHandler".equals(name)
+                    ? collectionDataHandler : defaultDataHandler;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.benchmarks;
+
+import gov.nist.itl.ssd.wipp.backend.data.csvCollection.CsvCollectionDownloadController;
+import gov.nist.itl.ssd.wipp.backend.data.utils.download.DownloadMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Zip export of a folder, as done by the collections download controllers,
+ * written to a discarding stream so that only the zip writing is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZipExportBenchmark {
+
+    private static final int NB_FILES = 32;
+
+    private static final int FILE_SIZE = 1024 * 1024;
+
+    // Already compressed images do not deflate, text files such as CSV do
+    @Param({"random", "text"})
+    private String content;
+
+    private File folder;
+
+    private DownloadMetrics downloadMetrics;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        folder = BenchmarkFixtures.createTempDirectory("zip");
+        Random random = BenchmarkFixtures.random();
+        byte[] bytes = new byte[FILE_SIZE];
+        for (int i = 0; i < NB_FILES; i++) {
+            if ("random".equals(content)) {
+                random.nextBytes(bytes);
+            } else {
+                fillWithCsv(bytes, random);
+            }
+            Files.write(new File(folder, "file" + i).toPath(), bytes);
+        }
+
+        downloadMetrics = new DownloadMetrics();
+        BenchmarkFixtures.inject(downloadMetrics, "meterRegistry",
+                new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFixtures.delete(folder);
+    }
+
+    @Benchmark
+    public long exportFolder() throws IOException {
+        CountingNullOutputStream out = new CountingNullOutputStream();
+        ZipOutputStream zos = new ZipOutputStream(out);
+        CsvCollectionDownloadController.addToZip("", zos, folder);
+        zos.finish();
+        return out.count;
+    }
+
+    @Benchmark
+    public long exportFolderWithMetrics() throws IOException {
+        CountingNullOutputStream out = new CountingNullOutputStream();
+        try (DownloadMetrics.Download download = downloadMetrics.start(
+                "benchmark", "folder", out)) {
+            ZipOutputStream zos = new ZipOutputStream(download.getOutputStream());
+            CsvCollectionDownloadController.addToZip("", zos, folder);
+            zos.finish();
+            download.completed();
+        }
+        return out.count;
+    }
+
+    private static void fillWithCsv(byte[] bytes, Random random) {
+        int i = 0;
+        while (i < bytes.length) {
+            byte[] line = (random.nextInt(10000) + "," + random.nextInt(10000)
+                    + "," + random.nextDouble() + "\n").getBytes();
+            int length = Math.min(line.length, bytes.length - i);
+            System.arraycopy(line, 0, bytes, i, length);
+            i += length;
+        }
+    }
+
+    private static class CountingNullOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -43,6 +43,39 @@ public class CoreConfig {
 
     @Value("${workflow.binary}")
     private String worflowBinary;
+
+    @Value("${workflow.submission.threads:2}")
+    private int workflowSubmissionThreads;
+
+    @Value("${workflow.submission.queue.capacity:100}")
+    private int workflowSubmissionQueueCapacity;
+
+    @Value("${workflow.submission.timeout.seconds:120}")
+    private int workflowSubmissionTimeoutSeconds;
+
+    @Value("${workflow.import.threads:4}")
+    private int workflowImportThreads;
+
+    @Value("${workflow.watch.interval.seconds:5}")
+    private int workflowWatchIntervalSeconds;
+
+    @Value("${workflow.watch.threads:4}")
+    private int workflowWatchThreads;
+
+    @Value("${workflow.max.parallelism:20}")
+    private int workflowMaxParallelism;
+
+    @Value("${workflow.reuse.results:true}")
+    private boolean workflowReuseResults;
+
+    @Value("${progress.events.timeout.minutes:30}")
+    private int progressEventsTimeoutMinutes;
+
+    @Value("${progress.events.threads:4}")
+    private int progressEventsThreads;
+
+    @Value("${progress.events.queue.size:100}")
+    private int progressEventsQueueSize;
     
     @Value("${kube.wippdata.pvc}")
     private String wippDataPVCName;
@@ -77,12 +110,33 @@ public class CoreConfig {
     @Value("${storage.temp.jobs}")
     private String jobsTempFolder;
 
+    @Value("${storage.trash:${storage.root}/trash}")
+    private String trashFolder;
+
+    @Value("${trash.purger.threads:2}")
+    private int trashPurgerThreads;
+
+    @Value("${trash.purger.deletes.per.second:1000}")
+    private int trashPurgerDeletesPerSecond;
+
     @Value("${ome.converter.threads:2}")
     private int omeConverterThreads;
+
+    @Value("${thumbnail.size:256}")
+    private int thumbnailSize;
+
+    @Value("${thumbnail.threads:2}")
+    private int thumbnailThreads;
     
     @Value("${fetching.pixels.max}")
     private int fetchingPixelsMax;
 
+    @Value("${mongo.profiler.slow.threshold.ms:100}")
+    private long mongoProfilerSlowThresholdMs;
+
+    @Value("${mongo.profiler.max.queries:500}")
+    private int mongoProfilerMaxQueries;
+
 	public String getWippVersion() {
 		return wippVersion;
 	}
@@ -147,6 +201,50 @@ public class CoreConfig {
 	    return worflowBinary;
     }
 
+	public int getWorkflowSubmissionThreads() {
+		return workflowSubmissionThreads;
+	}
+
+	public int getWorkflowSubmissionQueueCapacity() {
+		return workflowSubmissionQueueCapacity;
+	}
+
+	public int getWorkflowSubmissionTimeoutSeconds() {
+		return workflowSubmissionTimeoutSeconds;
+	}
+
+	public int getWorkflowImportThreads() {
+		return workflowImportThreads;
+	}
+
+	public int getWorkflowWatchIntervalSeconds() {
+		return workflowWatchIntervalSeconds;
+	}
+
+	public int getWorkflowWatchThreads() {
+		return workflowWatchThreads;
+	}
+
+	public int getWorkflowMaxParallelism() {
+		return workflowMaxParallelism;
+	}
+
+	public boolean isWorkflowReuseResults() {
+		return workflowReuseResults;
+	}
+
+	public int getProgressEventsTimeoutMinutes() {
+		return progressEventsTimeoutMinutes;
+	}
+
+	public int getProgressEventsThreads() {
+		return progressEventsThreads;
+	}
+
+	public int getProgressEventsQueueSize() {
+		return progressEventsQueueSize;
+	}
+
 	public String getWippDataPVCName() {
 		return wippDataPVCName;
 	}
@@ -162,6 +260,18 @@ public class CoreConfig {
     public String getJobsTempFolder() {
         return jobsTempFolder;
     }
+
+    public String getTrashFolder() {
+        return trashFolder;
+    }
+
+    public int getTrashPurgerThreads() {
+        return trashPurgerThreads;
+    }
+
+    public int getTrashPurgerDeletesPerSecond() {
+        return trashPurgerDeletesPerSecond;
+    }
     
     public int getFetchingPixelsMax() {
         return fetchingPixelsMax;
@@ -170,6 +280,22 @@ public class CoreConfig {
     public int getOmeConverterThreads() {
         return omeConverterThreads;
     }
+
+    public int getThumbnailSize() {
+        return thumbnailSize;
+    }
+
+    public int getThumbnailThreads() {
+        return thumbnailThreads;
+    }
+
+    public long getMongoProfilerSlowThresholdMs() {
+        return mongoProfilerSlowThresholdMs;
+    }
+
+    public int getMongoProfilerMaxQueries() {
+        return mongoProfilerMaxQueries;
+    }
     
     
 }
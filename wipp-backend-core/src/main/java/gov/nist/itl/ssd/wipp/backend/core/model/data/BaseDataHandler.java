@@ -5,6 +5,8 @@ import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.File;
+import java.util.Optional;
+import java.util.function.Function;
 
 
 
@@ -13,10 +15,30 @@ public abstract class BaseDataHandler {
     @Autowired
     CoreConfig config;
 
+    @Autowired
+    private ParameterResolutionService parameterResolutionService;
+
     protected final File getJobOutputTempFolder(String jobId, String outputName) {
         return new File(new File(config.getJobsTempFolder(), jobId), outputName);
     }
 
+    /**
+     * Get the container path of a data given as job parameter, either
+     * the output of another job or an existing data.
+     *
+     * @param value the job parameter value
+     * @param dataFolder the folder of an existing data, from its id
+     * @return the path of the data in the job container
+     */
+    protected final String exportDataPath(String value,
+            Function<String, File> dataFolder) {
+        Optional<JobOutputReference> reference = JobOutputReference.parse(value);
+        File folder = reference.isPresent()
+                ? parameterResolutionService.getJobOutputTempFolder(reference.get())
+                : dataFolder.apply(value);
+        return parameterResolutionService.toContainerPath(folder);
+    }
+
     protected void setOutputId(Job job, String outputName, String id) {
         job.getOutputParameters().put(outputName, id);
     }
@@ -21,4 +21,16 @@ public interface DataHandler {
     public void importData(Job job, String outputName) throws Exception;
 
     public String exportDataAsParam(String value);
+
+    /**
+     * Get the version of the content of a data, used to reuse the results
+     * of jobs which already ran on the same inputs.
+     *
+     * @param value the data id, as given in the job parameters
+     * @return a string which changes whenever the data content changes, or
+     * null if the data does not exist or may change without notice
+     */
+    public default String getDataVersion(String value) {
+        return null;
+    }
 }
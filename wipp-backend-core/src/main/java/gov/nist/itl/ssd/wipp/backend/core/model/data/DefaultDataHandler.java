@@ -35,4 +35,10 @@ public class DefaultDataHandler implements DataHandler {
         return value;
     }
 
+    @Override
+    public String getDataVersion(String value) {
+        // Plain parameters are their own content
+        return value;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.model.data;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reference to the output of another job, written "{{ jobId.outputName }}"
+ * in the job parameters.
+ */
+public final class JobOutputReference {
+
+    private static final Pattern PATTERN = Pattern.compile(
+            "\\{\\{ (.*)\\.(.*) \\}\\}");
+
+    private final String jobId;
+    private final String outputName;
+
+    public JobOutputReference(String jobId, String outputName) {
+        this.jobId = jobId;
+        this.outputName = outputName;
+    }
+
+    /**
+     * @param value a job parameter value
+     * @return the reference contained in the value, if any
+     */
+    public static Optional<JobOutputReference> parse(String value) {
+        if (value == null || value.indexOf('{') < 0) {
+            return Optional.empty();
+        }
+        Matcher m = PATTERN.matcher(value);
+        if (!m.find()) {
+            return Optional.empty();
+        }
+        return Optional.of(new JobOutputReference(m.group(1), m.group(2)));
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getOutputName() {
+        return outputName;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof JobOutputReference)) {
+            return false;
+        }
+        JobOutputReference other = (JobOutputReference) obj;
+        return jobId.equals(other.jobId) && outputName.equals(other.outputName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(jobId, outputName);
+    }
+
+    @Override
+    public String toString() {
+        return "{{ " + jobId + "." + outputName + " }}";
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.model.data;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves the job parameters to the values given to the job containers.
+ */
+@Service
+public class ParameterResolutionService {
+
+    @Autowired
+    private CoreConfig config;
+
+    @Autowired
+    private DataHandlerService dataHandlerService;
+
+    /**
+     * Start the resolution of the parameters of a workflow. A batch keeps
+     * the data handler of each type and the resolved values, so a data
+     * used by several jobs is only resolved once. A batch is not thread-safe.
+     *
+     * @return a new batch
+     */
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    /**
+     * Get the path of a data folder, as mounted in the job containers.
+     *
+     * @param folder the data folder
+     * @return the path of the folder in the containers
+     */
+    public String toContainerPath(File folder) {
+        String path = folder.getAbsolutePath();
+        String storageRoot = config.getStorageRootFolder();
+        // Literal replacement of the first occurrence of the storage root
+        int index = path.indexOf(storageRoot);
+        if (storageRoot.isEmpty() || index < 0) {
+            return path;
+        }
+        return path.substring(0, index) + config.getContainerInputsMountPath()
+                + path.substring(index + storageRoot.length());
+    }
+
+    /**
+     * Get the temporary folder of a job output.
+     *
+     * @param reference the job output
+     * @return the folder
+     */
+    public File getJobOutputTempFolder(JobOutputReference reference) {
+        return new File(new File(config.getJobsTempFolder(),
+                reference.getJobId()), reference.getOutputName());
+    }
+
+    public class Batch {
+
+        private final Map<String, DataHandler> dataHandlers = new HashMap<>();
+        private final Map<String, Map<String, String>> resolvedValues
+                = new HashMap<>();
+
+        private Batch() {
+        }
+
+        /**
+         * @param type the parameter type
+         * @param value the parameter value, as set in the job
+         * @return the value given to the job container
+         */
+        public String resolve(String type, String value) {
+            DataHandler dataHandler = dataHandlers.computeIfAbsent(type,
+                    dataHandlerService::getDataHandler);
+            return resolvedValues
+                    .computeIfAbsent(type, t -> new HashMap<>())
+                    .computeIfAbsent(value, dataHandler::exportDataAsParam);
+        }
+    }
+}
@@ -15,9 +15,13 @@ import java.util.Date;
 import java.util.Map;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 import gov.nist.itl.ssd.wipp.backend.core.model.workflow.Workflow;
 import gov.nist.itl.ssd.wipp.backend.core.rest.annotation.ManualListRef;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.format.annotation.DateTimeFormat;
 
@@ -68,6 +72,16 @@ public class Job {
 
     private String wippVersion;
 
+    // Hash of the plugin and of the inputs content, set on submission
+    @JsonIgnore
+    @Indexed(sparse = true)
+    private String resultKey;
+
+    // Job whose results were reused instead of running this job
+    @JsonProperty(access = Access.READ_ONLY)
+    @ManualRef(value = Job.class)
+    private String reusedJob;
+
     public String getId() {
         return id;
     }
@@ -176,4 +190,20 @@ public class Job {
         this.outputParameters = outputParameters;
     }
 
-}
\ No newline at end of file
+    public String getResultKey() {
+        return resultKey;
+    }
+
+    public void setResultKey(String resultKey) {
+        this.resultKey = resultKey;
+    }
+
+    public String getReusedJob() {
+        return reusedJob;
+    }
+
+    public void setReusedJob(String reusedJob) {
+        this.reusedJob = reusedJob;
+    }
+
+}
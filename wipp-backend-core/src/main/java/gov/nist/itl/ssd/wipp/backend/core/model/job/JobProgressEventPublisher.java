@@ -0,0 +1,68 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.model.job;
+
+import gov.nist.itl.ssd.wipp.backend.core.rest.ProgressEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes a progress event on the channel of the workflow of a job each
+ * time the job is saved. The targeted updates of JobRepositoryImpl, which do
+ * not raise save events, publish it through publish.
+ */
+@Component
+public class JobProgressEventPublisher extends AbstractMongoEventListener<Job> {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Job> event) {
+        publish(event.getSource());
+    }
+
+    /**
+     * Publish the progress event of a job, if it is part of a workflow.
+     *
+     * @param job the job as saved
+     */
+    public void publish(Job job) {
+        if (job.getWippWorkflow() == null) {
+            return;
+        }
+        eventPublisher.publishEvent(toProgressEvent(job));
+    }
+
+    /**
+     * @param job a job of a workflow
+     * @return the progress event of the current values of the job
+     */
+    public ProgressEvent toProgressEvent(Job job) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("name", job.getName());
+        values.put("status", job.getStatus());
+        values.put("startTime", job.getStartTime());
+        values.put("endTime", job.getEndTime());
+        values.put("error", job.getError());
+        return new ProgressEvent(
+                ProgressEvent.channel("workflows", job.getWippWorkflow()),
+                "job", job.getId(), values);
+    }
+}
@@ -24,7 +24,8 @@ import java.util.List;
  * @author Antoine Vandecreme <antoine.vandecreme at nist.gov>
  */
 @RepositoryRestResource
-public interface JobRepository<T extends Job> extends MongoRepository<T, String> {
+public interface JobRepository<T extends Job> extends MongoRepository<T, String>,
+        JobRepositoryCustom {
     @Override
     @RestResource(exported = false)
     void delete(T t);
@@ -48,6 +49,9 @@ public interface JobRepository<T extends Job> extends MongoRepository<T, String>
     Page<T> findByWippWorkflow(@Param("wippWorkflow") String workflow,
                                Pageable p);
 
+    @RestResource(exported = false)
+    List<T> findByResultKeyAndStatus(String resultKey, JobStatus status);
+
     List<T> findByWippWorkflowOrderByCreationDateAsc(@Param("wippWorkflow") String workflow);
 
 }
@@ -0,0 +1,55 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.model.job;
+
+import java.util.Date;
+
+/**
+ * Updates of the job fields written by the workflow status watcher. Only the
+ * given fields are written, and only if the job is still in the expected
+ * status, so that they can not overwrite the outputs or status written
+ * concurrently by the import of the job outputs.
+ */
+public interface JobRepositoryCustom {
+
+    /**
+     * Record that a job started running, unless it already started or
+     * completed.
+     *
+     * @param jobId the job id
+     * @param startTime the time the job started in Argo
+     * @return false if the job is not created or submitted anymore
+     */
+    boolean setRunning(String jobId, Date startTime);
+
+    /**
+     * Record the start time of a job which succeeded before being seen
+     * running, unless its outputs are already imported.
+     *
+     * @param jobId the job id
+     * @param startTime the time the job started in Argo
+     * @return false if the job already has a start time or is completed
+     */
+    boolean setMissingStartTime(String jobId, Date startTime);
+
+    /**
+     * Record that a job failed.
+     *
+     * @param jobId the job id
+     * @param status FAILED or ERROR
+     * @param error the error message
+     * @param endTime the time the job ended in Argo
+     * @return false if the job already has this status
+     */
+    boolean setFailed(String jobId, JobStatus status, String error,
+            Date endTime);
+}
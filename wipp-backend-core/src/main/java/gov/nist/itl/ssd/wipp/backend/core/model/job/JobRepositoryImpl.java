@@ -0,0 +1,72 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.model.job;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class JobRepositoryImpl implements JobRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private JobProgressEventPublisher progressEventPublisher;
+
+    @Override
+    public boolean setRunning(String jobId, Date startTime) {
+        return update(Criteria.where("id").is(jobId)
+                .and("status").in(Arrays.asList(
+                        JobStatus.CREATED, JobStatus.SUBMITTED, null)),
+                new Update().set("status", JobStatus.RUNNING)
+                        .set("startTime", startTime));
+    }
+
+    @Override
+    public boolean setMissingStartTime(String jobId, Date startTime) {
+        return update(Criteria.where("id").is(jobId)
+                .and("startTime").is(null)
+                .and("status").nin(JobStatus.SUCCEEDED, JobStatus.ERROR),
+                new Update().set("startTime", startTime));
+    }
+
+    @Override
+    public boolean setFailed(String jobId, JobStatus status, String error,
+            Date endTime) {
+        return update(Criteria.where("id").is(jobId).and("status").ne(status),
+                new Update().set("status", status)
+                        .set("error", error)
+                        .set("endTime", endTime));
+    }
+
+    /**
+     * Apply the update if the job matches, and publish its progress event as
+     * a save would.
+     */
+    private boolean update(Criteria criteria, Update update) {
+        Job updated = mongoTemplate.findAndModify(Query.query(criteria),
+                update, FindAndModifyOptions.options().returnNew(true),
+                Job.class);
+        if (updated == null) {
+            return false;
+        }
+        progressEventPublisher.publish(updated);
+        return true;
+    }
+}
@@ -34,6 +34,9 @@ public class Workflow {
 	
     private String errorMessage;
 
+    // Trace context of the last submission, in the W3C traceparent format
+    private String traceparent;
+
     /**
 	 * @return the id
 	 */
@@ -139,5 +142,19 @@ public class Workflow {
 		this.errorMessage = errorMessage;
 	}
 
+	/**
+	 * @return the trace context of the last submission
+	 */
+	public String getTraceparent() {
+		return traceparent;
+	}
+
+	/**
+	 * @param traceparent the trace context to set
+	 */
+	public void setTraceparent(String traceparent) {
+		this.traceparent = traceparent;
+	}
+
 
 }
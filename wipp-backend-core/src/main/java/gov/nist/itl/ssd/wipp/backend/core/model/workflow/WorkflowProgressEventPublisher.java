@@ -0,0 +1,66 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.model.workflow;
+
+import gov.nist.itl.ssd.wipp.backend.core.rest.ProgressEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes a progress event of the workflow each time a workflow is saved,
+ * whichever component changed it. The targeted updates of
+ * WorkflowRepositoryImpl, which do not raise save events, publish it through
+ * publish.
+ */
+@Component
+public class WorkflowProgressEventPublisher
+        extends AbstractMongoEventListener<Workflow> {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Workflow> event) {
+        publish(event.getSource());
+    }
+
+    /**
+     * Publish the progress event of a workflow.
+     *
+     * @param workflow the workflow as saved
+     */
+    public void publish(Workflow workflow) {
+        eventPublisher.publishEvent(toProgressEvent(workflow));
+    }
+
+    /**
+     * @param workflow the workflow
+     * @return the progress event of the current values of the workflow
+     */
+    public ProgressEvent toProgressEvent(Workflow workflow) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("status", workflow.getStatus());
+        values.put("startTime", workflow.getStartTime());
+        values.put("endTime", workflow.getEndTime());
+        values.put("errorMessage", workflow.getErrorMessage());
+        return new ProgressEvent(
+                ProgressEvent.channel("workflows", workflow.getId()),
+                "workflow", workflow.getId(), values);
+    }
+}
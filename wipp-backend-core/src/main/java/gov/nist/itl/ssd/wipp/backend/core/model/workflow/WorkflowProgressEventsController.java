@@ -0,0 +1,88 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.model.workflow;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.JobProgressEventPublisher;
+import gov.nist.itl.ssd.wipp.backend.core.model.job.JobRepository;
+import gov.nist.itl.ssd.wipp.backend.core.rest.ProgressEvent;
+import gov.nist.itl.ssd.wipp.backend.core.rest.ProgressEventBroadcaster;
+import gov.nist.itl.ssd.wipp.backend.core.rest.exception.NotFoundException;
+import io.swagger.annotations.Api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent events of a workflow: "workflow" events when the workflow
+ * status changes and "job" events when the status of one of its jobs
+ * changes. The current values of the workflow and of its jobs are sent
+ * first.
+ */
+@Controller
+@Api(tags="Workflow Entity")
+@RequestMapping(CoreConfig.BASE_URI + "/workflows/{workflowId}/events")
+public class WorkflowProgressEventsController {
+
+    @Autowired
+    private WorkflowRepository workflowRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private WorkflowProgressEventPublisher workflowProgressEventPublisher;
+
+    @Autowired
+    private JobProgressEventPublisher jobProgressEventPublisher;
+
+    @Autowired
+    private ProgressEventBroadcaster progressEventBroadcaster;
+
+    @RequestMapping(
+            value = "",
+            method = RequestMethod.GET,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable("workflowId") String workflowId) {
+        if (!workflowRepository.existsById(workflowId)) {
+            throw new NotFoundException("Workflow " + workflowId + " not found.");
+        }
+        return progressEventBroadcaster.subscribe(
+                ProgressEvent.channel("workflows", workflowId),
+                () -> getCurrentValues(workflowId));
+    }
+
+    private List<ProgressEvent> getCurrentValues(String workflowId) {
+        List<ProgressEvent> events = new ArrayList<>();
+        Optional<Workflow> workflow = workflowRepository.findById(workflowId);
+        if (!workflow.isPresent()) {
+            return events;
+        }
+        events.add(workflowProgressEventPublisher.toProgressEvent(
+                workflow.get()));
+        List<Job> jobs = jobRepository.findByWippWorkflow(workflowId);
+        for (Job job : jobs) {
+            events.add(jobProgressEventPublisher.toProgressEvent(job));
+        }
+        return events;
+    }
+}
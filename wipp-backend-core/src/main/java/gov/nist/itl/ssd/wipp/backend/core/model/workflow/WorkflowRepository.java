@@ -7,6 +7,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RestResource;
+
+import java.util.Collection;
+import java.util.List;
 
 
 /**
@@ -14,7 +18,11 @@ import org.springframework.data.repository.query.Param;
  * @author Mohamed Ouladi <mohamed.ouladi at nist.gov>
  *
  */
-public interface WorkflowRepository extends MongoRepository<Workflow, String> {
+public interface WorkflowRepository extends MongoRepository<Workflow, String>,
+        WorkflowRepositoryCustom {
 
 	Page<Workflow> findByNameContainingIgnoreCase(@Param("name") String name, Pageable p);
+
+	@RestResource(exported = false)
+	List<Workflow> findByStatusIn(Collection<WorkflowStatus> statuses);
 }
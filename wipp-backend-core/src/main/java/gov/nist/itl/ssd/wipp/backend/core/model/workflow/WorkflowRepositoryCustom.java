@@ -0,0 +1,50 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.model.workflow;
+
+import java.util.Date;
+
+/**
+ * Updates of the workflow fields written by the submission and by the
+ * watcher. Only the given fields are written, and only if the workflow is
+ * still in the expected status, so that they can not overwrite the status
+ * or end time written concurrently by the exit callback or the import.
+ */
+public interface WorkflowRepositoryCustom {
+
+    /**
+     * Record that Argo accepted a pending workflow.
+     *
+     * @param workflowId the workflow id
+     * @param generatedName the name of the workflow in Argo
+     * @return false if the workflow is not pending anymore
+     */
+    boolean setSubmitted(String workflowId, String generatedName);
+
+    /**
+     * Record that a pending workflow could not be submitted.
+     *
+     * @param workflowId the workflow id
+     * @param errorMessage the error message
+     * @return false if the workflow is not pending anymore
+     */
+    boolean setSubmissionError(String workflowId, String errorMessage);
+
+    /**
+     * Record that a submitted workflow started running.
+     *
+     * @param workflowId the workflow id
+     * @param startTime the time the workflow started in Argo
+     * @return false if the workflow is not submitted anymore
+     */
+    boolean setRunning(String workflowId, Date startTime);
+}
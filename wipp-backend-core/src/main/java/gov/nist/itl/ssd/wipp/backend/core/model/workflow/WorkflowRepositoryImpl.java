@@ -0,0 +1,73 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.model.workflow;
+
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class WorkflowRepositoryImpl implements WorkflowRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WorkflowProgressEventPublisher progressEventPublisher;
+
+    @Override
+    public boolean setSubmitted(String workflowId, String generatedName) {
+        // The name is kept even if the exit callback already completed it
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(workflowId)),
+                new Update().set("generatedName", generatedName),
+                Workflow.class);
+        return updateStatus(workflowId, WorkflowStatus.PENDING,
+                new Update().set("status", WorkflowStatus.SUBMITTED));
+    }
+
+    @Override
+    public boolean setSubmissionError(String workflowId, String errorMessage) {
+        return updateStatus(workflowId, WorkflowStatus.PENDING,
+                new Update().set("status", WorkflowStatus.ERROR)
+                        .set("errorMessage", errorMessage));
+    }
+
+    @Override
+    public boolean setRunning(String workflowId, Date startTime) {
+        return updateStatus(workflowId, WorkflowStatus.SUBMITTED,
+                new Update().set("status", WorkflowStatus.RUNNING)
+                        .set("startTime", startTime));
+    }
+
+    /**
+     * Apply the update if the workflow still has the expected status, and
+     * publish its progress event as a save would.
+     */
+    private boolean updateStatus(String workflowId,
+            WorkflowStatus expectedStatus, Update update) {
+        Workflow updated = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(workflowId)
+                        .and("status").is(expectedStatus)),
+                update, FindAndModifyOptions.options().returnNew(true),
+                Workflow.class);
+        if (updated == null) {
+            return false;
+        }
+        progressEventPublisher.publish(updated);
+        return true;
+    }
+}
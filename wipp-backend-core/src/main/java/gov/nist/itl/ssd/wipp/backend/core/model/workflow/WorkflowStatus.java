@@ -19,6 +19,8 @@ package gov.nist.itl.ssd.wipp.backend.core.model.workflow;
 public enum WorkflowStatus {
 
 	CREATED,
+	// Queued for submission, not accepted by Argo yet
+	PENDING,
 	SUBMITTED,
     RUNNING,
     SUCCEEDED,
@@ -0,0 +1,73 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.model.workflow;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.rest.PartialResource;
+import gov.nist.itl.ssd.wipp.backend.core.rest.SparseFieldsetsHelper;
+import io.swagger.annotations.Api;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Lightweight listing of the workflows, with only the requested fields, e.g.
+ * /workflows/summary?fields=name,status
+ */
+@RestController
+@Api(tags="Workflow Entity")
+@RequestMapping(CoreConfig.BASE_URI + "/workflows/summary")
+public class WorkflowSummaryController {
+
+    private static final List<String> DEFAULT_FIELDS = Arrays.asList(
+            "name", "status", "creationDate", "startTime", "endTime");
+
+    @Autowired
+    private SparseFieldsetsHelper sparseFieldsetsHelper;
+
+    @RequestMapping(value = "", method = RequestMethod.GET)
+    public HttpEntity<PagedResources<PartialResource>> getWorkflowsSummary(
+            @RequestParam(value = "fields", required = false) List<String> fields,
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "status", required = false) WorkflowStatus status,
+            @PageableDefault Pageable pageable,
+            PagedResourcesAssembler<Document> assembler) {
+        Criteria criteria = null;
+        if (name != null) {
+            criteria = Criteria.where("name").regex(Pattern.quote(name), "i");
+        }
+        if (status != null) {
+            criteria = (criteria == null ? Criteria.where("status")
+                    : criteria.and("status")).is(status.name());
+        }
+        PagedResources<PartialResource> resources = sparseFieldsetsHelper
+                .findPage(Workflow.class, criteria, fields, DEFAULT_FIELDS,
+                        pageable, assembler);
+        return new ResponseEntity<>(resources, HttpStatus.OK);
+    }
+}
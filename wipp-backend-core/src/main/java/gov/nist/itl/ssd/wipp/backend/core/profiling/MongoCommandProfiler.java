@@ -0,0 +1,248 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.profiling;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records the latency and the number of returned documents of the Mongo
+ * commands, by collection and by the repository method which sent them.
+ *
+ * The commands are recorded as the wipp.mongo.commands timer and the
+ * wipp.mongo.documents.returned summary, and their statistics are kept by
+ * query shape, see QueryShape, for the mongoqueries endpoint. Commands
+ * slower than mongo.profiler.slow.threshold.ms are logged with their shape.
+ *
+ * The getMore commands of a cursor are attributed to the repository method
+ * which opened it, even when the cursor is read after the method returned.
+ */
+@Component
+public class MongoCommandProfiler implements CommandListener {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            MongoCommandProfiler.class.getName());
+
+    private static final String GET_MORE = "getMore";
+    private static final String KILL_CURSORS = "killCursors";
+
+    @Autowired
+    private CoreConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Commands sent and not answered yet, by request id
+    private final ConcurrentMap<Integer, StartedCommand> startedCommands
+            = new ConcurrentHashMap<>();
+
+    // Repository call which opened each open cursor, by cursor id
+    private final ConcurrentMap<Long, RepositoryCall> cursorCalls
+            = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, QueryStatistics> statistics
+            = new ConcurrentHashMap<>();
+
+    private final LongAdder untrackedCommands = new LongAdder();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        String commandName = event.getCommandName();
+        String collection = getCollection(commandName, command);
+        // Handshakes, authentication and other commands on no collection
+        if (collection == null) {
+            return;
+        }
+
+        RepositoryCall call = RepositoryCall.current();
+        long cursorId = 0;
+        if (GET_MORE.equals(commandName) && command.isInt64(commandName)) {
+            cursorId = command.getInt64(commandName).getValue();
+            call = cursorCalls.getOrDefault(cursorId, call);
+        } else if (KILL_CURSORS.equals(commandName)
+                && command.isArray("cursors")) {
+            for (BsonValue killedCursorId : command.getArray("cursors")) {
+                if (killedCursorId.isInt64()) {
+                    cursorCalls.remove(killedCursorId.asInt64().getValue());
+                }
+            }
+        }
+        startedCommands.put(event.getRequestId(), new StartedCommand(call,
+                collection, commandName, QueryShape.of(commandName, command),
+                cursorId));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        StartedCommand started = startedCommands.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        BsonDocument response = event.getResponse();
+        int documents = 0;
+        if (response.isDocument("cursor")) {
+            BsonDocument cursor = response.getDocument("cursor");
+            BsonArray batch = cursor.isArray("firstBatch")
+                    ? cursor.getArray("firstBatch")
+                    : cursor.getArray("nextBatch", new BsonArray());
+            documents = batch.size();
+            long cursorId = cursor.isInt64("id")
+                    ? cursor.getInt64("id").getValue() : 0;
+            if (cursorId != 0) {
+                cursorCalls.put(cursorId, started.call);
+            } else if (started.cursorId != 0) {
+                // Exhausted cursor
+                cursorCalls.remove(started.cursorId);
+            }
+        } else if (response.isArray("values")) {
+            documents = response.getArray("values").size();
+        }
+        record(started, event.getElapsedTime(TimeUnit.NANOSECONDS), documents,
+                false);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        StartedCommand started = startedCommands.remove(event.getRequestId());
+        if (started != null) {
+            if (started.cursorId != 0) {
+                cursorCalls.remove(started.cursorId);
+            }
+            record(started, event.getElapsedTime(TimeUnit.NANOSECONDS), 0,
+                    true);
+        }
+    }
+
+    /**
+     * @return the statistics of each query shape sent by each repository
+     * method
+     */
+    public Collection<QueryStatistics> getStatistics() {
+        return new ArrayList<>(statistics.values());
+    }
+
+    /**
+     * @return the number of commands whose statistics were not kept, because
+     * mongo.profiler.max.queries shapes were already tracked
+     */
+    public long getUntrackedCommands() {
+        return untrackedCommands.sum();
+    }
+
+    public void resetStatistics() {
+        statistics.clear();
+        untrackedCommands.reset();
+    }
+
+    private void record(StartedCommand started, long nanos, int documents,
+            boolean error) {
+        RepositoryCall call = started.call;
+        Timer.builder("wipp.mongo.commands")
+                .description("Duration of the Mongo commands")
+                .tags("repository", call.getRepository(),
+                        "method", call.getMethod(),
+                        "collection", started.collection,
+                        "command", started.command,
+                        "outcome", error ? "error" : "success")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("wipp.mongo.documents.returned")
+                .description("Documents returned by the Mongo commands")
+                .tags("repository", call.getRepository(),
+                        "method", call.getMethod(),
+                        "collection", started.collection)
+                .register(meterRegistry)
+                .record(documents);
+
+        boolean slow = nanos >= TimeUnit.MILLISECONDS.toNanos(
+                config.getMongoProfilerSlowThresholdMs());
+        if (slow) {
+            LOGGER.warning(String.format(
+                    "Slow Mongo command %s on %s by %s.%s: %d ms, "
+                    + "%d documents returned, shape %s",
+                    started.command, started.collection, call.getRepository(),
+                    call.getMethod(), TimeUnit.NANOSECONDS.toMillis(nanos),
+                    documents, started.shape));
+        }
+
+        String key = String.join("\n", call.getRepository(), call.getMethod(),
+                started.collection, started.command, started.shape);
+        QueryStatistics queryStatistics = statistics.get(key);
+        if (queryStatistics == null) {
+            if (statistics.size() >= config.getMongoProfilerMaxQueries()) {
+                untrackedCommands.increment();
+                return;
+            }
+            queryStatistics = statistics.computeIfAbsent(key,
+                    k -> new QueryStatistics(call, started.collection,
+                            started.command, started.shape));
+        }
+        queryStatistics.record(nanos, documents, error, slow);
+    }
+
+    /**
+     * @return the collection of the command, null if the command is not on
+     * a collection
+     */
+    private static String getCollection(String commandName,
+            BsonDocument command) {
+        if (GET_MORE.equals(commandName)) {
+            return command.isString("collection")
+                    ? command.getString("collection").getValue() : null;
+        }
+        return command.isString(commandName)
+                ? command.getString(commandName).getValue() : null;
+    }
+
+    private static class StartedCommand {
+
+        private final RepositoryCall call;
+        private final String collection;
+        private final String command;
+        private final String shape;
+        // Cursor read by a getMore command, 0 for other commands
+        private final long cursorId;
+
+        private StartedCommand(RepositoryCall call, String collection,
+                String command, String shape, long cursorId) {
+            this.call = call;
+            this.collection = collection;
+            this.command = command;
+            this.shape = shape;
+            this.cursorId = cursorId;
+        }
+    }
+}
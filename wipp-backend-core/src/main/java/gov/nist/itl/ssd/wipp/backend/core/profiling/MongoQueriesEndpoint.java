@@ -0,0 +1,85 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.profiling;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint listing the Mongo queries which cost the most, on
+ * /actuator/mongoqueries.
+ *
+ * The queries can be sorted by total, mean or max duration, by number of
+ * slow executions or by number of returned documents, e.g.
+ * /actuator/mongoqueries?sort=max&amp;limit=10. A DELETE request resets the
+ * statistics, to compare the queries before and after a change.
+ */
+@Component
+@Endpoint(id = "mongoqueries")
+public class MongoQueriesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private static final Map<String, Comparator<QueryStatistics>> SORTS;
+    static {
+        SORTS = new LinkedHashMap<>();
+        SORTS.put("total",
+                Comparator.comparingDouble(QueryStatistics::getTotalMillis));
+        SORTS.put("mean",
+                Comparator.comparingDouble(QueryStatistics::getMeanMillis));
+        SORTS.put("max",
+                Comparator.comparingDouble(QueryStatistics::getMaxMillis));
+        SORTS.put("slow",
+                Comparator.comparingLong(QueryStatistics::getSlowCount));
+        SORTS.put("documents",
+                Comparator.comparingLong(QueryStatistics::getDocumentsReturned));
+    }
+
+    @Autowired
+    private MongoCommandProfiler profiler;
+
+    @ReadOperation
+    public Map<String, Object> worstQueries(@Nullable String sort,
+            @Nullable Integer limit) {
+        Comparator<QueryStatistics> comparator = SORTS.get(
+                sort == null ? "total" : sort);
+        if (comparator == null) {
+            throw new InvalidEndpointRequestException("Unknown sort " + sort,
+                    "The sort must be one of " + SORTS.keySet());
+        }
+        List<QueryStatistics> queries = profiler.getStatistics().stream()
+                .sorted(comparator.reversed())
+                .limit(limit == null || limit < 0 ? DEFAULT_LIMIT : limit)
+                .collect(Collectors.toList());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("untrackedCommands", profiler.getUntrackedCommands());
+        result.put("queries", queries);
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        profiler.resetStatistics();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.profiling;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+/**
+ * Shape of a Mongo command: the command with its values replaced by "?",
+ * so that the commands which only differ by their values have the same shape.
+ *
+ * Sorts, projections and groupings keep their values, they are part of the
+ * shape. The collection, the session fields and the inserted documents are
+ * left out.
+ */
+final class QueryShape {
+
+    private static final BsonString MASK = new BsonString("?");
+
+    private static final Set<String> IGNORED_FIELDS = new HashSet<>(
+            Arrays.asList("lsid", "txnNumber", "documents", "cursor",
+                    "batchSize", "collection"));
+
+    // Arrays of sub-queries or stages, shaped element by element
+    private static final Set<String> SHAPED_ARRAYS = new HashSet<>(
+            Arrays.asList("pipeline", "updates", "deletes", "$and", "$or",
+                    "$nor"));
+
+    private static final Set<String> UNMASKED_FIELDS = new HashSet<>(
+            Arrays.asList("sort", "projection", "fields", "$sort", "$project",
+                    "$group", "$lookup", "$unwind", "$count"));
+
+    private QueryShape() {
+    }
+
+    /**
+     * @param commandName the name of the command, e.g. "find"
+     * @param command the command
+     * @return the shape, as JSON
+     */
+    static String of(String commandName, BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        for (Map.Entry<String, BsonValue> field : command.entrySet()) {
+            String name = field.getKey();
+            // The collection is already known, the rest is driver metadata
+            if (name.equals(commandName) || name.startsWith("$")
+                    || IGNORED_FIELDS.contains(name)) {
+                continue;
+            }
+            shape.put(name, mask(name, field.getValue()));
+        }
+        return shape.toJson();
+    }
+
+    private static BsonValue mask(String name, BsonValue value) {
+        if (UNMASKED_FIELDS.contains(name)) {
+            return value;
+        }
+        if (value.isDocument()) {
+            BsonDocument masked = new BsonDocument();
+            for (Map.Entry<String, BsonValue> field
+                    : value.asDocument().entrySet()) {
+                masked.put(field.getKey(),
+                        mask(field.getKey(), field.getValue()));
+            }
+            return masked;
+        }
+        if (value.isArray() && SHAPED_ARRAYS.contains(name)) {
+            BsonArray masked = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                masked.add(mask(name, element));
+            }
+            return masked;
+        }
+        return MASK;
+    }
+}
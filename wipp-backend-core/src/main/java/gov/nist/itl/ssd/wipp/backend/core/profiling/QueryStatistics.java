@@ -0,0 +1,125 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.profiling;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the Mongo commands of one shape sent by one repository
+ * method, as listed by the mongoqueries endpoint.
+ */
+public class QueryStatistics {
+
+    private final String repository;
+    private final String method;
+    private final String collection;
+    private final String command;
+    private final String shape;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder slowCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder documentsReturned = new LongAdder();
+    private final AtomicLong lastSlowTime = new AtomicLong();
+
+    QueryStatistics(RepositoryCall call, String collection, String command,
+            String shape) {
+        this.repository = call.getRepository();
+        this.method = call.getMethod();
+        this.collection = collection;
+        this.command = command;
+        this.shape = shape;
+    }
+
+    void record(long nanos, int documents, boolean error, boolean slow) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        documentsReturned.add(documents);
+        if (error) {
+            errors.increment();
+        }
+        if (slow) {
+            slowCount.increment();
+            lastSlowTime.set(System.currentTimeMillis());
+        }
+    }
+
+    public String getRepository() {
+        return repository;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getSlowCount() {
+        return slowCount.sum();
+    }
+
+    public Date getLastSlowTime() {
+        long time = lastSlowTime.get();
+        return time == 0 ? null : new Date(time);
+    }
+
+    public double getTotalMillis() {
+        return toMillis(totalNanos.sum());
+    }
+
+    public double getMeanMillis() {
+        long n = getCount();
+        return n == 0 ? 0 : toMillis(totalNanos.sum()) / n;
+    }
+
+    public double getMaxMillis() {
+        return toMillis(maxNanos.get());
+    }
+
+    public long getDocumentsReturned() {
+        return documentsReturned.sum();
+    }
+
+    public double getMeanDocumentsReturned() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) documentsReturned.sum() / n;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
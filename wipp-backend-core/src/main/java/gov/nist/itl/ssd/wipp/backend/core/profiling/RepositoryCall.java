@@ -0,0 +1,65 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.profiling;
+
+/**
+ * The repository method being executed by the current thread, to which the
+ * Mongo commands it sends are attributed.
+ */
+final class RepositoryCall {
+
+    static final RepositoryCall NONE = new RepositoryCall("none", "none");
+
+    private static final ThreadLocal<RepositoryCall> CURRENT
+            = new ThreadLocal<>();
+
+    private final String repository;
+    private final String method;
+
+    RepositoryCall(String repository, String method) {
+        this.repository = repository;
+        this.method = method;
+    }
+
+    /**
+     * @return the outermost repository call of the current thread, NONE if
+     * the commands are sent by other code, e.g. a MongoTemplate
+     */
+    static RepositoryCall current() {
+        RepositoryCall call = CURRENT.get();
+        return call == null ? NONE : call;
+    }
+
+    /**
+     * @return true if the call is now the current one, false if the thread
+     * is already in a repository call
+     */
+    static boolean enter(RepositoryCall call) {
+        if (CURRENT.get() != null) {
+            return false;
+        }
+        CURRENT.set(call);
+        return true;
+    }
+
+    static void exit() {
+        CURRENT.remove();
+    }
+
+    String getRepository() {
+        return repository;
+    }
+
+    String getMethod() {
+        return method;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.profiling;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks the calls to the Spring Data repositories, so that MongoCommandProfiler
+ * knows which repository method sent each command.
+ *
+ * The repositories are already proxies, the advice is added to them rather
+ * than proxying them again.
+ */
+@Component
+public class RepositoryProfilingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Repository) || !(bean instanceof Advised)
+                || ((Advised) bean).isFrozen()) {
+            return bean;
+        }
+        Advised repository = (Advised) bean;
+        repository.addAdvice(0, new RepositoryCallInterceptor(
+                getRepositoryName(repository, beanName)));
+        return bean;
+    }
+
+    /**
+     * @return the simple name of the application repository interface, e.g.
+     * ImagesCollectionRepository
+     */
+    private static String getRepositoryName(Advised repository,
+            String beanName) {
+        for (Class<?> proxiedInterface : repository.getProxiedInterfaces()) {
+            if (Repository.class.isAssignableFrom(proxiedInterface)
+                    && !proxiedInterface.getName().startsWith(
+                            "org.springframework.")) {
+                return proxiedInterface.getSimpleName();
+            }
+        }
+        return beanName;
+    }
+
+    private static class RepositoryCallInterceptor implements MethodInterceptor {
+
+        private final String repository;
+
+        private RepositoryCallInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            boolean entered = RepositoryCall.enter(new RepositoryCall(
+                    repository, invocation.getMethod().getName()));
+            try {
+                return invocation.proceed();
+            } finally {
+                if (entered) {
+                    RepositoryCall.exit();
+                }
+            }
+        }
+    }
+}
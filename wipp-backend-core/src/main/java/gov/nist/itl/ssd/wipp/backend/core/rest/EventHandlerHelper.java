@@ -11,16 +11,6 @@
  */
 package gov.nist.itl.ssd.wipp.backend.core.rest;
 
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.Objects;
-
-import org.springframework.beans.BeanUtils;
-import org.springframework.util.ReflectionUtils;
-
-import gov.nist.itl.ssd.wipp.backend.core.rest.annotation.Updatable;
 import gov.nist.itl.ssd.wipp.backend.core.rest.exception.ForbiddenException;
 
 /**
@@ -41,30 +31,8 @@ public class EventHandlerHelper {
      */
     public static void assertUpdatedFieldsUpdatables(
             Object updated, Object original) {
-        PropertyDescriptor[] descriptors = BeanUtils.getPropertyDescriptors(
-                updated.getClass());
-        for (PropertyDescriptor pd : descriptors) {
-            try {
-                Method getter = pd.getReadMethod();
-                if (!Objects.equals(
-                        getter.invoke(updated),
-                        getter.invoke(original))) {
-                    Field field = ReflectionUtils.findField(
-                            updated.getClass(), pd.getName());
-                    if (!field.isAnnotationPresent(Updatable.class)) {
-                    	System.out.println("The field '" + pd.getDisplayName()
-                                + "' can not be modified.");
-                        throw new ForbiddenException(
-                                "The field '" + pd.getDisplayName()
-                                + "' can not be modified.");
-                    }
-                }
-            } catch (IllegalAccessException | IllegalArgumentException |
-                    InvocationTargetException ex) {
-            	ex.printStackTrace();
-                throw new RuntimeException(ex);
-            }
-        }
+        UpdateGuard.forClass(updated.getClass())
+                .assertUpdatedFieldsUpdatables(updated, original);
     }
 
 }
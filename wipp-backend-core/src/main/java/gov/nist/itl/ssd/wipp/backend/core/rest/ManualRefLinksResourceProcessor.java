@@ -0,0 +1,145 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.rest;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.hateoas.EntityLinks;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.ResourceProcessor;
+import org.springframework.stereotype.Component;
+
+import gov.nist.itl.ssd.wipp.backend.core.rest.annotation.ManualListRef;
+import gov.nist.itl.ssd.wipp.backend.core.rest.annotation.ManualRef;
+
+/**
+ * Adds a link to the referenced resources for each field annotated with
+ * ManualRef or ManualListRef.
+ *
+ * The annotated fields of each class, including the inherited ones, are
+ * looked up once and read through method handles afterwards.
+ */
+@Component
+public class ManualRefLinksResourceProcessor
+        implements ResourceProcessor<Resource<?>> {
+
+    private static final Logger logger = Logger.getLogger(
+            ManualRefLinksResourceProcessor.class.getName());
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(
+            Object.class, Object.class);
+
+    @Autowired
+    private EntityLinks entityLinks;
+
+    private final ConcurrentMap<Class<?>, List<LinkField>> linkPlans
+            = new ConcurrentHashMap<>();
+
+    @Override
+    public Resource<?> process(Resource<?> resource) {
+        Object content = resource.getContent();
+        if (content == null) {
+            return resource;
+        }
+        List<LinkField> linkFields = linkPlans.computeIfAbsent(
+                content.getClass(), ManualRefLinksResourceProcessor::plan);
+        for (LinkField linkField : linkFields) {
+            Object fieldValue;
+            try {
+                fieldValue = linkField.getter.invokeExact(content);
+            } catch (Throwable ex) {
+                logger.log(Level.SEVERE, "Can not add link to resource "
+                        + linkField.target, ex);
+                continue;
+            }
+            if (fieldValue == null) {
+                continue;
+            }
+            if (linkField.list) {
+                for (Object id : (List<?>) fieldValue) {
+                    resource.add(linkTo(linkField, id));
+                }
+            } else {
+                resource.add(linkTo(linkField, fieldValue));
+            }
+        }
+        return resource;
+    }
+
+    private Link linkTo(LinkField linkField, Object id) {
+        return entityLinks.linkToSingleResource(linkField.target, id)
+                .withRel(linkField.rel);
+    }
+
+    private static List<LinkField> plan(Class<?> clazz) {
+        List<LinkField> linkFields = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Class<?> c = clazz; c != null && c != Object.class;
+                c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                ManualRef manualRef = AnnotationUtils.getAnnotation(
+                        field, ManualRef.class);
+                ManualListRef manualListRef = AnnotationUtils.getAnnotation(
+                        field, ManualListRef.class);
+                if (manualRef == null && manualListRef == null) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    MethodHandle getter = lookup.unreflectGetter(field)
+                            .asType(GETTER_TYPE);
+                    if (manualRef != null) {
+                        linkFields.add(new LinkField(getter,
+                                manualRef.value(), field.getName(), false));
+                    }
+                    if (manualListRef != null) {
+                        linkFields.add(new LinkField(getter,
+                                manualListRef.value(), field.getName(), true));
+                    }
+                } catch (IllegalAccessException | SecurityException ex) {
+                    logger.log(Level.SEVERE, "Can not read field "
+                            + field.getName() + " of " + c.getName(), ex);
+                }
+            }
+        }
+        return Collections.unmodifiableList(linkFields);
+    }
+
+    private static class LinkField {
+
+        private final MethodHandle getter;
+        private final Class<?> target;
+        private final String rel;
+        private final boolean list;
+
+        private LinkField(MethodHandle getter, Class<?> target, String rel,
+                boolean list) {
+            this.getter = getter;
+            this.target = target;
+            this.rel = rel;
+            this.list = list;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.rest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.hateoas.ResourceSupport;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+
+/**
+ * Resource made of a subset of the fields of an entity.
+ */
+public class PartialResource extends ResourceSupport {
+
+    private final Map<String, Object> fields = new LinkedHashMap<>();
+
+    @JsonAnyGetter
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+
+    public void put(String name, Object value) {
+        fields.put(name, value);
+    }
+}
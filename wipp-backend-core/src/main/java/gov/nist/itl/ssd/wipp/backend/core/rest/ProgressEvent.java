@@ -0,0 +1,69 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.rest;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process event carrying the current state of a resource, such as the
+ * counters of an images collection or the status of a workflow, published
+ * through the application event publisher and pushed to the clients
+ * subscribed to its channel by the ProgressEventBroadcaster.
+ */
+public class ProgressEvent {
+
+    private final String channel;
+    private final String type;
+    private final String id;
+    private final Map<String, Object> values;
+
+    /**
+     * @param channel the channel of the subscribers, see channel()
+     * @param type the type of the resource, used as the event name
+     * @param id the id of the resource
+     * @param values the current values of the tracked fields of the resource
+     */
+    public ProgressEvent(String channel, String type, String id,
+            Map<String, Object> values) {
+        this.channel = channel;
+        this.type = type;
+        this.id = id;
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+
+    /**
+     * @param collection the REST collection of the resource, e.g. "workflows"
+     * @param id the id of the resource
+     * @return the channel of the resource
+     */
+    public static String channel(String collection, String id) {
+        return collection + "/" + id;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Map<String, Object> getValues() {
+        return values;
+    }
+}
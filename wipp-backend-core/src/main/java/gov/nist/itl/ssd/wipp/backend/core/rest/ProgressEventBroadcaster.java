@@ -0,0 +1,319 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.rest;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/**
+ * Pushes the progress events to the clients subscribed to their channel, as
+ * server-sent events.
+ *
+ * A new subscriber first receives the current values of every resource of
+ * its channel, read from the database by the events controller, then only
+ * the values which changed since the previous event of the same resource. Events are dropped without any work when nobody is
+ * subscribed to their channel.
+ *
+ * The changes are computed on a single thread, so that publishers are not
+ * slowed down and every client receives the events in the order they were
+ * published. Each client then has its own bounded queue of events, sent by a
+ * shared pool of threads. A client too slow to keep up with its queue is
+ * disconnected, it gets the current values again when it reconnects.
+ */
+@Component
+public class ProgressEventBroadcaster {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            ProgressEventBroadcaster.class.getName());
+
+    @Autowired
+    private CoreConfig config;
+
+    private final ConcurrentMap<String, List<Subscriber>> subscribers
+            = new ConcurrentHashMap<>();
+
+    // Current values of each resource of each channel, only accessed by the
+    // dispatcher thread
+    private final Map<String, Map<String, ProgressEvent>> currentValues
+            = new HashMap<>();
+
+    private ExecutorService dispatcher;
+
+    private ExecutorService senders;
+
+    @PostConstruct
+    public void init() {
+        dispatcher = Executors.newSingleThreadExecutor();
+        senders = Executors.newFixedThreadPool(
+                config.getProgressEventsThreads());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(list -> list.forEach(
+                subscriber -> subscriber.emitter.complete()));
+    }
+
+    /**
+     * Subscribe to the events of a channel. The current values of the
+     * resources of the channel are sent first, then only their changes.
+     *
+     * @param channel the channel, see ProgressEvent.channel()
+     * @param currentValues reads the current values of the resources of the
+     * channel, called once the subscriber is registered so that no change is
+     * missed
+     * @return the emitter of the events, to be returned by the controller
+     */
+    public SseEmitter subscribe(String channel,
+            Supplier<List<ProgressEvent>> currentValues) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(
+                config.getProgressEventsTimeoutMinutes()));
+        Subscriber subscriber = new Subscriber(channel, emitter,
+                config.getProgressEventsQueueSize());
+        subscribers.compute(channel, (c, list) -> {
+            List<Subscriber> result = list == null
+                    ? new CopyOnWriteArrayList<>() : list;
+            result.add(subscriber);
+            return result;
+        });
+        Runnable unsubscribe = () -> unsubscribe(subscriber);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(ex -> unsubscribe.run());
+        List<ProgressEvent> snapshot;
+        try {
+            snapshot = currentValues.get();
+        } catch (RuntimeException ex) {
+            unsubscribe.run();
+            throw ex;
+        }
+        try {
+            // Events already queued are newer than the snapshot, the
+            // following ones are sent as changes
+            dispatcher.execute(() -> sendSnapshot(subscriber, snapshot));
+        } catch (RejectedExecutionException ex) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onProgressEvent(ProgressEvent event) {
+        if (!subscribers.containsKey(event.getChannel())) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> dispatch(event));
+        } catch (RejectedExecutionException ex) {
+            LOGGER.log(Level.FINE, "Progress events are shut down", ex);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.channel, (c, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+        if (dispatcher.isShutdown()) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                if (!subscribers.containsKey(subscriber.channel)) {
+                    currentValues.remove(subscriber.channel);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            LOGGER.log(Level.FINE, "Progress events are shut down", ex);
+        }
+    }
+
+    private void sendSnapshot(Subscriber subscriber,
+            List<ProgressEvent> snapshot) {
+        if (!subscribers.containsKey(subscriber.channel)) {
+            return;
+        }
+        Map<String, ProgressEvent> resources = currentValues.computeIfAbsent(
+                subscriber.channel, c -> new HashMap<>());
+        for (ProgressEvent event : snapshot) {
+            // The values of the events received since the read are newer
+            resources.putIfAbsent(resourceKey(event), event);
+        }
+        for (ProgressEvent current : resources.values()) {
+            subscriber.enqueue(current.getType(),
+                    toData(current.getId(), current.getValues()));
+        }
+        subscriber.snapshotSent = true;
+    }
+
+    private void dispatch(ProgressEvent event) {
+        List<Subscriber> list = subscribers.get(event.getChannel());
+        if (list == null) {
+            return;
+        }
+        Map<String, ProgressEvent> resources = currentValues.computeIfAbsent(
+                event.getChannel(), c -> new HashMap<>());
+        String resource = resourceKey(event);
+        ProgressEvent previous = resources.get(resource);
+        Map<String, Object> delta = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> value : event.getValues().entrySet()) {
+            if (previous == null
+                    || !previous.getValues().containsKey(value.getKey())
+                    || !Objects.equals(previous.getValues().get(
+                            value.getKey()), value.getValue())) {
+                delta.put(value.getKey(), value.getValue());
+            }
+        }
+        if (delta.isEmpty()) {
+            return;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (previous != null) {
+            values.putAll(previous.getValues());
+        }
+        values.putAll(delta);
+        resources.put(resource, new ProgressEvent(event.getChannel(),
+                event.getType(), event.getId(), values));
+
+        Map<String, Object> data = toData(event.getId(), delta);
+        for (Subscriber subscriber : list) {
+            // Subscribers waiting for their snapshot get these values in it
+            if (subscriber.snapshotSent) {
+                subscriber.enqueue(event.getType(), data);
+            }
+        }
+    }
+
+    private static String resourceKey(ProgressEvent event) {
+        return event.getType() + "/" + event.getId();
+    }
+
+    private static Map<String, Object> toData(String id,
+            Map<String, Object> values) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("id", id);
+        data.putAll(values);
+        return data;
+    }
+
+    /**
+     * A client subscribed to a channel, with the events waiting to be sent to
+     * it. At most one sender thread sends the events of a client at a time.
+     */
+    private class Subscriber {
+
+        private final String channel;
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<SseEventBuilder> pending;
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        // Only accessed by the dispatcher thread
+        private boolean snapshotSent;
+
+        private Subscriber(String channel, SseEmitter emitter, int queueSize) {
+            this.channel = channel;
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        private void enqueue(String type, Map<String, Object> data) {
+            if (closed.get()) {
+                return;
+            }
+            if (!pending.offer(SseEmitter.event().name(type).data(data))) {
+                LOGGER.log(Level.INFO, "Disconnecting a slow client of the "
+                        + "progress events of {0}", channel);
+                close(null);
+                return;
+            }
+            scheduleSend();
+        }
+
+        private void close(Throwable error) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            pending.clear();
+            if (error == null) {
+                emitter.complete();
+            } else {
+                emitter.completeWithError(error);
+            }
+            unsubscribe(this);
+        }
+
+        private void scheduleSend() {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::sendPending);
+            } catch (RejectedExecutionException ex) {
+                sending.set(false);
+            }
+        }
+
+        private void sendPending() {
+            try {
+                SseEventBuilder event;
+                while (!closed.get() && (event = pending.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away
+                LOGGER.log(Level.FINE, "Can not send progress event", ex);
+                close(ex);
+            } finally {
+                sending.set(false);
+            }
+            // An event may have been queued after the last poll
+            if (!closed.get() && !pending.isEmpty()) {
+                scheduleSend();
+            }
+        }
+    }
+}
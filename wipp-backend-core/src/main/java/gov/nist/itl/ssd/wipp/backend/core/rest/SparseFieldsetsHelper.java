@@ -0,0 +1,159 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.rest;
+
+import gov.nist.itl.ssd.wipp.backend.core.rest.exception.ClientException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.EntityLinks;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Lists entities with only some of their fields (sparse fieldsets), as
+ * requested with a fields parameter such as "fields=name,status".
+ *
+ * The fields are selected by the Mongo query itself, so the other fields are
+ * neither transferred from the database nor serialized. Each resource only
+ * has a self link.
+ */
+@Service
+public class SparseFieldsetsHelper {
+
+    private static final String ID_PROPERTY = "id";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EntityLinks entityLinks;
+
+    // Property name -> document field name, for each entity class
+    private final ConcurrentMap<Class<?>, Map<String, String>> selectableFields
+            = new ConcurrentHashMap<>();
+
+    /**
+     * @param entityClass the class of the listed entities
+     * @param criteria the criteria of the listed entities, null for all
+     * @param fields the requested fields, null or empty for the default ones
+     * @param defaultFields the fields returned when none are requested
+     * @param pageable the page to return
+     * @param assembler the assembler of the page
+     * @return the page of resources, each one with the id and the selected
+     * fields of an entity
+     * @throws ClientException If an unknown field is requested or used to
+     * sort the page.
+     */
+    public PagedResources<PartialResource> findPage(Class<?> entityClass,
+            Criteria criteria, List<String> fields, List<String> defaultFields,
+            Pageable pageable, PagedResourcesAssembler<Document> assembler) {
+        Map<String, String> selectable = selectableFields.computeIfAbsent(
+                entityClass, this::getSelectableFields);
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add(ID_PROPERTY);
+        for (String field : fields == null || fields.isEmpty()
+                ? defaultFields : fields) {
+            String name = field.trim();
+            if (!selectable.containsKey(name)) {
+                throw new ClientException("Unknown field '" + name + "'.");
+            }
+            selected.add(name);
+        }
+
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        Query query = criteria == null ? new Query() : new Query(criteria);
+        query.with(toDocumentPageable(pageable, selectable));
+        for (String name : selected) {
+            query.fields().include(selectable.get(name));
+        }
+        List<Document> documents = mongoTemplate.find(
+                query, Document.class, collection);
+        Page<Document> page = PageableExecutionUtils.getPage(documents,
+                pageable, () -> mongoTemplate.count(criteria == null
+                        ? new Query() : new Query(criteria), collection));
+
+        return assembler.toResource(page,
+                document -> toResource(entityClass, document, selected,
+                        selectable));
+    }
+
+    private PartialResource toResource(Class<?> entityClass, Document document,
+            Set<String> selected, Map<String, String> selectable) {
+        PartialResource resource = new PartialResource();
+        // Ids may be stored as ObjectId
+        String id = String.valueOf(document.get(selectable.get(ID_PROPERTY)));
+        for (String name : selected) {
+            resource.put(name, ID_PROPERTY.equals(name)
+                    ? id : document.get(selectable.get(name)));
+        }
+        resource.add(entityLinks.linkToSingleResource(entityClass, id));
+        return resource;
+    }
+
+    private Pageable toDocumentPageable(Pageable pageable,
+            Map<String, String> selectable) {
+        if (pageable.getSort().isUnsorted()) {
+            return pageable;
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            String field = selectable.get(order.getProperty());
+            if (field == null) {
+                throw new ClientException("Unknown sort field '"
+                        + order.getProperty() + "'.");
+            }
+            orders.add(order.withProperty(field));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by(orders));
+    }
+
+    /**
+     * The selectable fields are the persisted ones which are part of the
+     * entity representation.
+     */
+    private Map<String, String> getSelectableFields(Class<?> entityClass) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter()
+                .getMappingContext().getRequiredPersistentEntity(entityClass);
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (MongoPersistentProperty property : entity) {
+            if (!property.isAnnotationPresent(JsonIgnore.class)) {
+                fields.put(property.getName(), property.getFieldName());
+            }
+        }
+        return Collections.unmodifiableMap(fields);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.rest;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+import gov.nist.itl.ssd.wipp.backend.core.rest.annotation.Updatable;
+import gov.nist.itl.ssd.wipp.backend.core.rest.exception.ForbiddenException;
+
+/**
+ * Checks that an update only modifies the fields annotated with @Updatable.
+ *
+ * The guard of each class is built once and compares only the properties
+ * backed by a field which is not updatable, through method handles.
+ */
+public final class UpdateGuard {
+
+    private static final ConcurrentMap<Class<?>, UpdateGuard> GUARDS
+            = new ConcurrentHashMap<>();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(
+            Object.class, Object.class);
+
+    private final List<GuardedProperty> guardedProperties;
+
+    private UpdateGuard(List<GuardedProperty> guardedProperties) {
+        this.guardedProperties = guardedProperties;
+    }
+
+    /**
+     * @param clazz the entity class
+     * @return the guard of the class
+     */
+    public static UpdateGuard forClass(Class<?> clazz) {
+        return GUARDS.computeIfAbsent(clazz, UpdateGuard::build);
+    }
+
+    /**
+     * @param updated the updated object
+     * @param original the original object
+     * @throws ForbiddenException If a not updatable field has been updated.
+     */
+    public void assertUpdatedFieldsUpdatables(Object updated, Object original) {
+        for (GuardedProperty property : guardedProperties) {
+            Object updatedValue;
+            Object originalValue;
+            try {
+                updatedValue = property.getter.invokeExact(updated);
+                originalValue = property.getter.invokeExact(original);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+            if (!Objects.equals(updatedValue, originalValue)) {
+                throw new ForbiddenException("The field '" + property.name
+                        + "' can not be modified.");
+            }
+        }
+    }
+
+    private static UpdateGuard build(Class<?> clazz) {
+        List<GuardedProperty> guardedProperties = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(clazz)) {
+            Method getter = pd.getReadMethod();
+            // Derived properties change with the fields they are made of
+            Field field = ReflectionUtils.findField(clazz, pd.getName());
+            if (getter == null || field == null
+                    || field.isAnnotationPresent(Updatable.class)) {
+                continue;
+            }
+            try {
+                getter.setAccessible(true);
+                guardedProperties.add(new GuardedProperty(pd.getDisplayName(),
+                        lookup.unreflect(getter).asType(GETTER_TYPE)));
+            } catch (IllegalAccessException | SecurityException ex) {
+                throw new IllegalStateException("Can not read property "
+                        + pd.getName() + " of " + clazz.getName(), ex);
+            }
+        }
+        return new UpdateGuard(Collections.unmodifiableList(guardedProperties));
+    }
+
+    private static class GuardedProperty {
+
+        private final String name;
+        private final MethodHandle getter;
+
+        private GuardedProperty(String name, MethodHandle getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+    }
+}
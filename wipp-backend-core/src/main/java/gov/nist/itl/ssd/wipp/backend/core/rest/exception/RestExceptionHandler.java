@@ -60,4 +60,17 @@ public class RestExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), httpHeaders,
                 HttpStatus.NOT_FOUND);
     }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    public ResponseEntity<String> serviceUnavailableException(
+            HttpServletRequest req, ServiceUnavailableException ex) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setContentType(MediaType.TEXT_PLAIN);
+        httpHeaders.set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(ex.getRetryAfterSeconds()));
+        return new ResponseEntity<>(ex.getMessage(), httpHeaders,
+                HttpStatus.SERVICE_UNAVAILABLE);
+    }
 }
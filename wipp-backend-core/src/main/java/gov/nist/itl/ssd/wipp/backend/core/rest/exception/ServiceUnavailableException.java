@@ -0,0 +1,42 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.rest.exception;
+
+/**
+ * Handled as 503 service unavailable, with a Retry-After header
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    /**
+     * Constructs an instance of <code>ServiceUnavailableException</code>
+     * with the specified detail message.
+     *
+     * @param msg the detail message.
+     * @param retryAfterSeconds the delay after which the client may retry
+     */
+    public ServiceUnavailableException(String msg, int retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public ServiceUnavailableException(String msg, int retryAfterSeconds,
+            Throwable cause) {
+        super(msg, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.utils;
+
+import gov.nist.itl.ssd.wipp.backend.core.utils.PatternFilenameConverter.Replacement;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * File name pattern similar to the ones used by MIST, such as
+ * img_r{rrr}_c{ccc}.ome.tif or .*_t{t+}\.tif, giving access to the value
+ * of each variable of the matching file names.
+ */
+public class FilenamePattern {
+
+    private final String pattern;
+    private final Pattern regexPattern;
+    private final List<Replacement> replacements;
+
+    public FilenamePattern(String pattern) {
+        this.pattern = pattern;
+        this.replacements = PatternFilenameConverter.getReplacements(pattern);
+        this.regexPattern = PatternFilenameConverter.toRegexPattern(
+                pattern, replacements);
+    }
+
+    /**
+     * @param pattern the pattern to check
+     * @return true if the pattern contains at least one variable such as
+     * {rrr} or {r+}
+     */
+    public static boolean isFilenamePattern(String pattern) {
+        return pattern != null
+                && PatternFilenameConverter.hasReplacements(pattern);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public boolean matches(String fileName) {
+        return regexPattern.matcher(fileName).matches();
+    }
+
+    /**
+     * Extract the value of each variable of the given file name.
+     *
+     * @param fileName the file name
+     * @return the value of each variable indexed by its letter, or an empty
+     * map if the file name does not match the pattern or a value is too
+     * large
+     */
+    public Map<String, Integer> extractVariables(String fileName) {
+        Matcher matcher = regexPattern.matcher(fileName);
+        if (!matcher.matches()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> variables = new LinkedHashMap<>();
+        for (Replacement repl : replacements) {
+            try {
+                variables.put(String.valueOf(repl.letter), Integer.valueOf(
+                        matcher.group(repl.getGroupName())));
+            } catch (NumberFormatException ex) {
+                // Only possible with more digits than an int holds
+                return Collections.emptyMap();
+            }
+        }
+        return variables;
+    }
+}
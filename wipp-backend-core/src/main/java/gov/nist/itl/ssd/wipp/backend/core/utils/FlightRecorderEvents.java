@@ -0,0 +1,44 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.core.utils;
+
+/**
+ * Support of the JDK Flight Recorder events of WIPP.
+ *
+ * The event classes extend jdk.jfr.Event, which is only available from
+ * OpenJDK 8u262 and JDK 11. Callers create events only if ENABLED is true,
+ * so that the event classes are never loaded on other runtimes:
+ * <pre>
+ * SomeEvent event = FlightRecorderEvents.ENABLED ? new SomeEvent() : null;
+ * </pre>
+ * Events are then recorded only when enabled in the running recording, e.g.
+ * with -XX:StartFlightRecording, and cost close to nothing otherwise.
+ */
+public final class FlightRecorderEvents {
+
+    public static final String CATEGORY = "WIPP";
+
+    public static final boolean ENABLED = isFlightRecorderAvailable();
+
+    private FlightRecorderEvents() {
+    }
+
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false,
+                    FlightRecorderEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+}
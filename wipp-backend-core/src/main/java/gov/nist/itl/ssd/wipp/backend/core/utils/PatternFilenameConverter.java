@@ -33,7 +33,9 @@ public class PatternFilenameConverter extends FilenameConverter {
     private final Pattern sourceRegexPattern;
     private final String destTemplate;
     private final Map<Replacement, Replacement> replacements;
-    private static final Pattern PATTERN = Pattern.compile("\\{[a-z]+\\}");
+    // Fixed length variables such as {ttt} or variable length ones such as {t+}
+    private static final Pattern PATTERN = Pattern.compile(
+            "\\{[a-z]+\\}|\\{[a-z]\\+\\}");
 
     public PatternFilenameConverter(String sourcePattern, String destPattern) {
         this.sourcePattern = sourcePattern;
@@ -41,19 +43,16 @@ public class PatternFilenameConverter extends FilenameConverter {
         this.replacements = new HashMap<>();
 
         List<Replacement> sourceReplacements = getReplacements(sourcePattern);
-        StringBuilder sourcePatternBuilder = new StringBuilder(sourcePattern);
-        int offset = 0;
-        for (Replacement sourceRepl : sourceReplacements) {
-            String regexp = "[0-9]{" + sourceRepl.length + "}";
-            sourcePatternBuilder.replace(
-                    sourceRepl.start + offset,
-                    sourceRepl.end + offset + 2,
-                    regexp);
-            offset += regexp.length() - sourceRepl.end + sourceRepl.start;
+        List<Replacement> destReplacements = getReplacements(destPattern);
+        for (Replacement repl : sourceReplacements) {
+            checkFixedLength(repl);
+        }
+        for (Replacement repl : destReplacements) {
+            checkFixedLength(repl);
         }
-        this.sourceRegexPattern = Pattern.compile(sourcePatternBuilder.toString());
+        this.sourceRegexPattern = toRegexPattern(
+                sourcePattern, sourceReplacements);
 
-        List<Replacement> destReplacements = getReplacements(destPattern);
         StringBuilder destTemplateBuilder = new StringBuilder(destPattern);
         for (Replacement destRepl : destReplacements) {
             destTemplateBuilder.replace(
@@ -86,7 +85,46 @@ public class PatternFilenameConverter extends FilenameConverter {
         }
     }
 
-    private static List<Replacement> getReplacements(String pattern) {
+    private static void checkFixedLength(Replacement repl) {
+        if (repl.variableLength) {
+            throw new IllegalArgumentException("Replacement pattern "
+                    + repl + " does not have a fixed length.");
+        }
+    }
+
+    /**
+     * Build the regex matching the file names of the given pattern, each
+     * replacement being replaced by a group of digits of the same length,
+     * or of any length for {t+}. The groups are named after the letters of
+     * the replacements, so that groups of the pattern itself do not shift
+     * them.
+     *
+     * @param pattern the pattern
+     * @param replacements the replacements of the pattern
+     * @return the regex pattern
+     */
+    static Pattern toRegexPattern(String pattern,
+            List<Replacement> replacements) {
+        StringBuilder patternBuilder = new StringBuilder(pattern);
+        int offset = 0;
+        for (Replacement repl : replacements) {
+            String regexp = "(?<" + repl.letter + ">[0-9]"
+                    + (repl.variableLength ? "+" : "{" + repl.length + "}")
+                    + ")";
+            patternBuilder.replace(
+                    repl.start + offset,
+                    repl.end + offset + 2,
+                    regexp);
+            offset += regexp.length() - repl.end + repl.start;
+        }
+        return Pattern.compile(patternBuilder.toString());
+    }
+
+    static boolean hasReplacements(String pattern) {
+        return PATTERN.matcher(pattern).find();
+    }
+
+    static List<Replacement> getReplacements(String pattern) {
         int offset = 0;
         List<Replacement> result = new ArrayList<>();
         Matcher destMatcher = PATTERN.matcher(pattern);
@@ -94,6 +132,8 @@ public class PatternFilenameConverter extends FilenameConverter {
             int start = destMatcher.start() - offset;
             int end = destMatcher.end() - offset - 2;
             char letter = pattern.charAt(destMatcher.start() + 1);
+            boolean variableLength = pattern.charAt(
+                    destMatcher.end() - 2) == '+';
 
             if (result.stream().filter(r -> r.letter == letter)
                     .findAny().isPresent()) {
@@ -101,29 +141,41 @@ public class PatternFilenameConverter extends FilenameConverter {
                         + letter + "' is used multiple times.");
             }
 
-            result.add(new Replacement(letter, start, end));
+            result.add(new Replacement(letter, start, end, variableLength));
             offset += 2;
         }
         return result;
     }
 
-    private static class Replacement {
+    static class Replacement {
 
-        private final char letter;
-        private final int start;
-        private final int end;
-        private final int length;
+        final char letter;
+        final int start;
+        final int end;
+        final int length;
+        final boolean variableLength;
 
-        private Replacement(char letter, int start, int end) {
+        private Replacement(char letter, int start, int end,
+                boolean variableLength) {
             this.letter = letter;
             this.start = start;
             this.end = end;
-            this.length = end - start;
+            this.variableLength = variableLength;
+            this.length = variableLength ? 0 : end - start;
+        }
+
+        /**
+         * @return the name of the regex group matching this replacement
+         */
+        String getGroupName() {
+            return String.valueOf(letter);
         }
 
         @Override
         public String toString() {
-            return '{' + StringUtils.repeat(letter + "", length) + '}';
+            return variableLength
+                    ? "{" + letter + "+}"
+                    : '{' + StringUtils.repeat(letter + "", length) + '}';
         }
     }
 
@@ -141,7 +193,8 @@ public class PatternFilenameConverter extends FilenameConverter {
      */
     @Override
     public String convert(String fileName) {
-        if (!canConvert(fileName)) {
+        Matcher matcher = sourceRegexPattern.matcher(fileName);
+        if (!matcher.matches()) {
             throw new IllegalArgumentException("The file " + fileName
                     + " does not match the provided pattern.");
         }
@@ -153,7 +206,7 @@ public class PatternFilenameConverter extends FilenameConverter {
             sb.replace(
                     destRepl.start,
                     destRepl.end,
-                    fileName.substring(sourceRepl.start, sourceRepl.end));
+                    matcher.group(sourceRepl.getGroupName()));
         }
         return sb.toString();
     }
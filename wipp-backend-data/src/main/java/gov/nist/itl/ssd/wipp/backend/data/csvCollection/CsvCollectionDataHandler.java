@@ -12,8 +12,6 @@
 package gov.nist.itl.ssd.wipp.backend.data.csvCollection;
 
 import java.io.File;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -57,27 +55,8 @@ public class CsvCollectionDataHandler  extends BaseDataHandler implements DataHa
 	}
 	
     public String exportDataAsParam(String value) {
-        String csvCollectionId = value;
-        String csvCollectionPath;
-
-        // check if the input of the job is the output of another job and if so return the associated path
-        String regex = "\\{\\{ (.*)\\.(.*) \\}\\}";
-        Pattern pattern = Pattern.compile(regex);
-        Matcher m = pattern.matcher(csvCollectionId);
-        if (m.find()) {
-            String jobId = m.group(1);
-            String outputName = m.group(2);
-            csvCollectionPath = getJobOutputTempFolder(jobId, outputName).getAbsolutePath();
-        }
-        // else return the path of the csv collection
-        else {
-            File csvCollectionFolder = new File(config.getCsvCollectionsFolder(), csvCollectionId);
-            csvCollectionPath = csvCollectionFolder.getAbsolutePath();
-
-        }
-        csvCollectionPath = csvCollectionPath.replaceFirst(config.getStorageRootFolder(),config.getContainerInputsMountPath());
-        return csvCollectionPath;
-
+        return exportDataPath(value,
+                id -> new File(config.getCsvCollectionsFolder(), id));
     }
 
 }
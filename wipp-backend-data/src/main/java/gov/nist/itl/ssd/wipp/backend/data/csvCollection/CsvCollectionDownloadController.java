@@ -31,6 +31,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
 import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.data.utils.download.DownloadMetrics;
 import io.swagger.annotations.Api;
 
 /**
@@ -48,6 +49,9 @@ public class CsvCollectionDownloadController {
 	@Autowired
 	CsvCollectionRepository csvCollectionRepository;
 
+	@Autowired
+	private DownloadMetrics downloadMetrics;
+
 	@RequestMapping(
 			value = "",
 			method = RequestMethod.GET,
@@ -76,9 +80,13 @@ public class CsvCollectionDownloadController {
 		response.setHeader("Content-disposition",
 				"attachment;filename=" + "CsvCollection-" + csvCollection.getName() + ".zip");
 
-		ZipOutputStream zos = new ZipOutputStream(response.getOutputStream());
-		addToZip("", zos, csvCollectionStorageFolder);
-		zos.finish();
+		try (DownloadMetrics.Download download = downloadMetrics.start(
+				"csvCollection", csvCollectionId, response.getOutputStream())) {
+			ZipOutputStream zos = new ZipOutputStream(download.getOutputStream());
+			addToZip("", zos, csvCollectionStorageFolder);
+			zos.finish();
+			download.completed();
+		}
 	}
 
 	//Recursive method to handle sub-folders
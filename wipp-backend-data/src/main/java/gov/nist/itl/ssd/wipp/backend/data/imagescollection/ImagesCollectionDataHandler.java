@@ -23,8 +23,6 @@ import gov.nist.itl.ssd.wipp.backend.core.model.data.BaseDataHandler;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * @author Samia Benjida <samia.benjida at nist.gov>
@@ -79,26 +77,18 @@ public class ImagesCollectionDataHandler extends BaseDataHandler implements Data
     }
 
     public String exportDataAsParam(String value) {
-        String imagesCollectionId = value;
-        String imagesCollectionPath;
-
-        // check if the input of the job is the output of another job and if so return the associated path
-        String regex = "\\{\\{ (.*)\\.(.*) \\}\\}";
-        Pattern pattern = Pattern.compile(regex);
-        Matcher m = pattern.matcher(imagesCollectionId);
-        if (m.find()) {
-            String jobId = m.group(1);
-            String outputName = m.group(2);
-            imagesCollectionPath = getJobOutputTempFolder(jobId, outputName).getAbsolutePath();
-        }
-        // else return the path of the regular images collection
-        else {
-            File inputImagesFolder = imageRepository.getFilesFolder(imagesCollectionId);
-            imagesCollectionPath = inputImagesFolder.getAbsolutePath();
+        return exportDataPath(value, imageRepository::getFilesFolder);
+    }
 
-        }
-        imagesCollectionPath = imagesCollectionPath.replaceFirst(config.getStorageRootFolder(),config.getContainerInputsMountPath());
-        return imagesCollectionPath;
+    @Override
+    public String getDataVersion(String value) {
+        // Only locked collections can not be modified anymore
+        return imagesCollectionRepository.findById(value)
+                .filter(ImagesCollection::isLocked)
+                .map(collection -> collection.getId()
+                        + ":" + collection.getNumberOfImages()
+                        + ":" + collection.getNumberOfMetadataFiles())
+                .orElse(null);
     }
 
     private void importFolder(FileHandler fileHandler, File file, String id) throws IOException {
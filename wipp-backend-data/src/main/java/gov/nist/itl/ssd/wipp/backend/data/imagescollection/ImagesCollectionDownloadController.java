@@ -18,6 +18,7 @@ import gov.nist.itl.ssd.wipp.backend.data.imagescollection.images.ImageRepositor
 import gov.nist.itl.ssd.wipp.backend.data.imagescollection.metadatafiles.MetadataFile;
 import gov.nist.itl.ssd.wipp.backend.data.imagescollection.metadatafiles.MetadataFileHandler;
 import gov.nist.itl.ssd.wipp.backend.data.imagescollection.metadatafiles.MetadataFileRepository;
+import gov.nist.itl.ssd.wipp.backend.data.utils.download.DownloadMetrics;
 import io.swagger.annotations.Api;
 
 import java.io.IOException;
@@ -61,6 +62,9 @@ public class ImagesCollectionDownloadController {
     @Autowired
     private MetadataFileHandler metadataFileHandler;
 
+    @Autowired
+    private DownloadMetrics downloadMetrics;
+
     @RequestMapping(
             value = "",
             method = RequestMethod.GET,
@@ -78,28 +82,33 @@ public class ImagesCollectionDownloadController {
         response.setHeader("Content-disposition",
                 "attachment;filename=" + tc.get().getName() + ".zip");
 
-        ZipOutputStream zos = new ZipOutputStream(response.getOutputStream());
-        List<Image> images = imageRepository.findByImagesCollection(
-                imagesCollectionId);
-        for (Image image : images) {
-            zos.putNextEntry(new ZipEntry("images/" + image.getFileName()));
-            try (InputStream is = imageHandler.getInputStream(
-                    imagesCollectionId, image.getFileName())) {
-                IOUtils.copyLarge(is, zos);
+        try (DownloadMetrics.Download download = downloadMetrics.start(
+                "imagesCollection", imagesCollectionId,
+                response.getOutputStream())) {
+            ZipOutputStream zos = new ZipOutputStream(download.getOutputStream());
+            List<Image> images = imageRepository.findByImagesCollection(
+                    imagesCollectionId);
+            for (Image image : images) {
+                zos.putNextEntry(new ZipEntry("images/" + image.getFileName()));
+                try (InputStream is = imageHandler.getInputStream(
+                        imagesCollectionId, image.getFileName())) {
+                    IOUtils.copyLarge(is, zos);
+                }
             }
-        }
 
-        List<MetadataFile> metadataFiles = metadataFileRepository
-                .findByImagesCollection(imagesCollectionId);
-        for (MetadataFile metadataFile : metadataFiles) {
-            zos.putNextEntry(new ZipEntry(
-                    "metadata/" + metadataFile.getFileName()));
-            try (InputStream is = metadataFileHandler.getInputStream(
-                    imagesCollectionId, metadataFile.getFileName())) {
-                IOUtils.copyLarge(is, zos);
+            List<MetadataFile> metadataFiles = metadataFileRepository
+                    .findByImagesCollection(imagesCollectionId);
+            for (MetadataFile metadataFile : metadataFiles) {
+                zos.putNextEntry(new ZipEntry(
+                        "metadata/" + metadataFile.getFileName()));
+                try (InputStream is = metadataFileHandler.getInputStream(
+                        imagesCollectionId, metadataFile.getFileName())) {
+                    IOUtils.copyLarge(is, zos);
+                }
             }
+            zos.finish();
+            download.completed();
         }
-        zos.finish();
     }
 
 }
@@ -14,8 +14,7 @@ package gov.nist.itl.ssd.wipp.backend.data.imagescollection;
 import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
 import gov.nist.itl.ssd.wipp.backend.core.rest.exception.ClientException;
 import gov.nist.itl.ssd.wipp.backend.core.rest.exception.NotFoundException;
-import gov.nist.itl.ssd.wipp.backend.data.imagescollection.images.ImageHandler;
-import gov.nist.itl.ssd.wipp.backend.data.imagescollection.metadatafiles.MetadataFileHandler;
+import gov.nist.itl.ssd.wipp.backend.data.utils.trash.TrashHandler;
 
 import java.io.File;
 import java.io.IOException;
@@ -25,7 +24,6 @@ import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.rest.core.annotation.HandleAfterDelete;
 import org.springframework.data.rest.core.annotation.HandleBeforeCreate;
@@ -51,10 +49,7 @@ public class ImagesCollectionEventHandler {
     private ImagesCollectionRepository imagesCollectionRepository;
 
     @Autowired
-    private ImageHandler imageRepository;
-
-    @Autowired
-    private MetadataFileHandler metadataFileRepository;
+    private TrashHandler trashHandler;
 
     @Autowired
     private ImagesCollectionLogic imagesCollectionLogic;
@@ -117,14 +112,12 @@ public class ImagesCollectionEventHandler {
 
     @HandleAfterDelete
     public void handleAfterDelete(ImagesCollection imagesCollection) {
-    	imageRepository.deleteAll(imagesCollection.getId(), false);
-    	metadataFileRepository.deleteAll(imagesCollection.getId(), false);
     	File imagesCollectionFolder = new File (config.getImagesCollectionsFolder(), imagesCollection.getId());
     	try {
-    		FileUtils.deleteDirectory(imagesCollectionFolder);
+    		trashHandler.moveToTrash(imagesCollectionFolder);
     	} catch (IOException e) {
     		LOGGER.log(Level.WARNING, "Was not able to delete the image collection folder " + imagesCollectionFolder);
-    	}	
+    	}
     }
 
 }
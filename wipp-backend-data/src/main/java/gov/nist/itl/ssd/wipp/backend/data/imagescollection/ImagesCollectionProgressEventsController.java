@@ -0,0 +1,87 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.imagescollection;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.rest.ProgressEvent;
+import gov.nist.itl.ssd.wipp.backend.core.rest.ProgressEventBroadcaster;
+import io.swagger.annotations.Api;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent events of an images collection, sent when its images or
+ * metadata files counters change, e.g. while images are imported. The
+ * current counters are sent first.
+ */
+@Controller
+@Api(tags="ImagesCollection Entity")
+@RequestMapping(CoreConfig.BASE_URI + "/imagesCollections/{imagesCollectionId}/events")
+public class ImagesCollectionProgressEventsController {
+
+    @Autowired
+    private ImagesCollectionRepository imagesCollectionRepository;
+
+    @Autowired
+    private ProgressEventBroadcaster progressEventBroadcaster;
+
+    @RequestMapping(
+            value = "",
+            method = RequestMethod.GET,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @PathVariable("imagesCollectionId") String imagesCollectionId) {
+        if (!imagesCollectionRepository.existsById(imagesCollectionId)) {
+            throw new ResourceNotFoundException(
+                    "Images collection " + imagesCollectionId + " not found.");
+        }
+        return progressEventBroadcaster.subscribe(ProgressEvent.channel(
+                "imagesCollections", imagesCollectionId),
+                () -> getCurrentValues(imagesCollectionId));
+    }
+
+    private List<ProgressEvent> getCurrentValues(String imagesCollectionId) {
+        Optional<ImagesCollection> collection = imagesCollectionRepository
+                .findById(imagesCollectionId);
+        if (!collection.isPresent()) {
+            return Collections.emptyList();
+        }
+        // Same values as ImagesCollectionRepositoryImpl.updateCaches
+        Map<String, Object> caches = new LinkedHashMap<>();
+        caches.put("numberOfImages", collection.get().getNumberOfImages());
+        caches.put("imagesTotalSize", collection.get().getImagesTotalSize());
+        caches.put("numberImportingImages",
+                collection.get().getNumberImportingImages());
+        caches.put("numberOfImportErrors",
+                collection.get().getNumberOfImportErrors());
+        caches.put("numberOfMetadataFiles",
+                collection.get().getNumberOfMetadataFiles());
+        caches.put("metadataFilesTotalSize",
+                collection.get().getMetadataFilesTotalSize());
+        return Collections.singletonList(new ProgressEvent(
+                ProgressEvent.channel("imagesCollections", imagesCollectionId),
+                "imagesCollection", imagesCollectionId, caches));
+    }
+}
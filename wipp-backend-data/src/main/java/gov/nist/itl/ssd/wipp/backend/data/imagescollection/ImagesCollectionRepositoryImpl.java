@@ -15,15 +15,19 @@ import com.mongodb.BasicDBObject;
 import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.MongoCollection;
 
+import gov.nist.itl.ssd.wipp.backend.core.rest.ProgressEvent;
 import gov.nist.itl.ssd.wipp.backend.data.imagescollection.images.Image;
 import gov.nist.itl.ssd.wipp.backend.data.imagescollection.metadatafiles.MetadataFile;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -39,6 +43,9 @@ public class ImagesCollectionRepositoryImpl
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public void updateImagesCaches(String imagesCollectionId) {
     	MongoCollection<Document> collection = mongoTemplate.getCollection(
@@ -85,14 +92,12 @@ public class ImagesCollectionRepositoryImpl
             numberOfImportErrors = dbo.getInteger("numberOfImportErrors");
         }
 
-        mongoTemplate.updateFirst(
-                Query.query(Criteria.where("id").is(imagesCollectionId)),
-                new Update()
-                .set("numberOfImages", numberOfImages)
-                .set("imagesTotalSize", imagesTotalSize)
-                .set("numberImportingImages", numberOfImportingImages)
-                .set("numberOfImportErrors", numberOfImportErrors),
-                ImagesCollection.class);
+        Map<String, Object> caches = new LinkedHashMap<>();
+        caches.put("numberOfImages", numberOfImages);
+        caches.put("imagesTotalSize", imagesTotalSize);
+        caches.put("numberImportingImages", numberOfImportingImages);
+        caches.put("numberOfImportErrors", numberOfImportErrors);
+        updateCaches(imagesCollectionId, caches);
     }
 
     @Override
@@ -122,12 +127,27 @@ public class ImagesCollectionRepositoryImpl
             numberOfMetadataFiles = dbo.getInteger("numberOfMetadataFiles");
             metadataFilesTotalSize = dbo.getLong("metadataFilesTotalSize");
         }
+        Map<String, Object> caches = new LinkedHashMap<>();
+        caches.put("numberOfMetadataFiles", numberOfMetadataFiles);
+        caches.put("metadataFilesTotalSize", metadataFilesTotalSize);
+        updateCaches(imagesCollectionId, caches);
+    }
+
+    /**
+     * Save the caches of the collection and publish them as a progress event
+     * of the collection.
+     */
+    private void updateCaches(String imagesCollectionId,
+            Map<String, Object> caches) {
+        Update update = new Update();
+        caches.forEach(update::set);
         mongoTemplate.updateFirst(
                 Query.query(Criteria.where("id").is(imagesCollectionId)),
-                new Update()
-                .set("numberOfMetadataFiles", numberOfMetadataFiles)
-                .set("metadataFilesTotalSize", metadataFilesTotalSize),
+                update,
                 ImagesCollection.class);
+        eventPublisher.publishEvent(new ProgressEvent(
+                ProgressEvent.channel("imagesCollections", imagesCollectionId),
+                "imagesCollection", imagesCollectionId, caches));
     }
 
 }
@@ -66,6 +66,11 @@ public class ImagesCollectionResourceProcessor
                 .withRel("copy");
         resource.add(copyLink);
 
+        Link eventsLink = linkTo(ImagesCollectionProgressEventsController.class,
+                imagesCollection.getId())
+                .withRel("events");
+        resource.add(eventsLink);
+
         return resource;
     }
 
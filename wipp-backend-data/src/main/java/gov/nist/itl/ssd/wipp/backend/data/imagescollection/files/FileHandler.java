@@ -14,6 +14,7 @@ package gov.nist.itl.ssd.wipp.backend.data.imagescollection.files;
 import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
 import gov.nist.itl.ssd.wipp.backend.core.utils.PatternFilenameConverter;
 import gov.nist.itl.ssd.wipp.backend.data.imagescollection.ImagesCollection;
+import gov.nist.itl.ssd.wipp.backend.data.utils.trash.TrashHandler;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -21,6 +22,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,9 +34,15 @@ import org.springframework.beans.factory.annotation.Autowired;
  */
 public abstract class FileHandler {
 
+    private static final Logger LOGGER = Logger.getLogger(
+            FileHandler.class.getName());
+
     @Autowired
     private CoreConfig config;
 
+    @Autowired
+    private TrashHandler trashHandler;
+
     protected abstract String getSubFolder();
 
     protected abstract void addAllInDb(String imagesCollectionId);
@@ -108,15 +117,24 @@ public abstract class FileHandler {
         deleteAll(imagesCollectionId, true);
     }
 
+    /**
+     * Delete all the files of the images collection. The files folder is
+     * moved to the trash and purged in the background.
+     *
+     * @param imagesCollectionId
+     * @param removeFromDb
+     */
     public void deleteAll(String imagesCollectionId, boolean removeFromDb) {
         if (removeFromDb) {
             deleteAllInDb(imagesCollectionId);
         }
-        File[] files = getFiles(imagesCollectionId);
-        if (files != null) {
-            for (File file : files) {
-                file.delete();
-            }
+        File filesFolder = getFilesFolder(imagesCollectionId);
+        try {
+            trashHandler.moveToTrash(filesFolder);
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING,
+                    "Was not able to move folder " + filesFolder + " to trash",
+                    ex);
         }
     }
 
@@ -13,6 +13,10 @@ package gov.nist.itl.ssd.wipp.backend.data.imagescollection.images;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import gov.nist.itl.ssd.wipp.backend.core.rest.annotation.ManualRef;
 import gov.nist.itl.ssd.wipp.backend.data.imagescollection.ImagesCollection;
 
@@ -31,7 +35,16 @@ import org.springframework.data.mongodb.core.mapping.Document;
     @CompoundIndex(
             name = "collection_filename",
             def = "{'imagesCollection': 1, 'fileName': 1}",
-            unique = true)
+            unique = true),
+    @CompoundIndex(
+            name = "collection_pattern_variables",
+            def = "{'imagesCollection': 1, 'patternVariables.name': 1, 'patternVariables.value': 1}"),
+    @CompoundIndex(
+            name = "collection_size",
+            def = "{'imagesCollection': 1, 'metadata.sizeX': 1, 'metadata.sizeY': 1}"),
+    @CompoundIndex(
+            name = "collection_pixel_type",
+            def = "{'imagesCollection': 1, 'metadata.pixelType': 1, 'metadata.sizeC': 1}")
 })
 public class Image {
 
@@ -53,6 +66,13 @@ public class Image {
 
     private String importError;
 
+    private List<PatternVariable> patternVariables;
+
+    private ImageMetadata metadata;
+
+    @JsonIgnore
+    private String omeXml;
+
     public Image() {
     }
 
@@ -119,4 +139,39 @@ public class Image {
     public void setImportError(String importError) {
         this.importError = importError;
     }
+
+    public List<PatternVariable> getPatternVariables() {
+        return patternVariables;
+    }
+
+    public void setPatternVariables(Map<String, Integer> variables) {
+        if (variables == null || variables.isEmpty()) {
+            this.patternVariables = null;
+            return;
+        }
+        this.patternVariables = new ArrayList<>(variables.size());
+        variables.forEach((name, value) -> this.patternVariables.add(
+                new PatternVariable(name, value)));
+    }
+
+    public ImageMetadata getMetadata() {
+        return metadata;
+    }
+
+    public void setMetadata(ImageMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+    /**
+     * @return the non indented OME-XML of the image, or null if it was not
+     * captured at import
+     */
+    @JsonIgnore
+    public String getOmeXml() {
+        return omeXml;
+    }
+
+    public void setOmeXml(String omeXml) {
+        this.omeXml = omeXml;
+    }
 }
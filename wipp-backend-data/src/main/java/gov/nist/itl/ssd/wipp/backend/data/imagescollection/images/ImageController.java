@@ -24,7 +24,18 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -39,17 +50,23 @@ import org.springframework.hateoas.ExposesResourceFor;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
 import org.springframework.hateoas.TemplateVariable;
 import org.springframework.hateoas.TemplateVariables;
 import org.springframework.hateoas.UriTemplate;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  *
@@ -61,6 +78,20 @@ import org.springframework.web.bind.annotation.RestController;
 @ExposesResourceFor(Image.class)
 public class ImageController {
 
+    private static final Logger LOG = Logger.getLogger(
+            ImageController.class.getName());
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 2000;
+
+    private static final int MAX_THUMBNAILS_BATCH_SIZE = 100;
+
+    // Thumbnails are only rewritten when an image is uploaded again
+    private static final CacheControl THUMBNAIL_CACHE_CONTROL = CacheControl
+            .maxAge(1, TimeUnit.HOURS).cachePrivate();
+
+    // Pattern variables are single letters, as in img_t{ttt}.ome.tif
+    private static final Pattern PATTERN_VARIABLE_NAME = Pattern.compile("[a-z]");
+
     @Autowired
     private ImageHandler imageHandler;
 
@@ -93,6 +124,48 @@ public class ImageController {
         return new ResponseEntity<>(resources, HttpStatus.OK);
     }
 
+    /**
+     * Keyset (cursor) pagination: returns the images sorted by file name
+     * starting after the given file name, with a next link carrying the
+     * cursor of the following page. Unlike offset pagination, any page costs
+     * the same as the first one.
+     */
+    @RequestMapping(value = "cursor", method = RequestMethod.GET)
+    public HttpEntity<Resources<Resource<Image>>> getFilesAfter(
+            @PathVariable("imagesCollectionId") String imagesCollectionId,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (size <= 0) {
+            throw new ClientException("Page size must be greater than 0.");
+        }
+        size = Math.min(size, MAX_CURSOR_PAGE_SIZE);
+        List<Image> files = imageRepository.findNextByImagesCollection(
+                imagesCollectionId, after, size);
+        List<Resource<Image>> content = files.stream()
+                .map(file -> new Resource<>(file))
+                .collect(Collectors.toList());
+        content.forEach(
+                resource -> processResource(imagesCollectionId, resource));
+
+        Resources<Resource<Image>> resources = new Resources<>(content);
+        if (files.size() == size) {
+            String next = UriComponentsBuilder.fromUriString(
+                    entityLinks.linkForSingleResource(
+                            ImagesCollection.class, imagesCollectionId)
+                            .slash("images")
+                            .slash("cursor")
+                            .withRel(Link.REL_NEXT).getHref())
+                    .queryParam("after", "{after}")
+                    .queryParam("size", "{size}")
+                    .encode()
+                    .buildAndExpand(
+                            files.get(files.size() - 1).getFileName(), size)
+                    .toUriString();
+            resources.add(new Link(next, Link.REL_NEXT));
+        }
+        return new ResponseEntity<>(resources, HttpStatus.OK);
+    }
+
     @RequestMapping(value = "", method = RequestMethod.DELETE)
     public void deleteAllFiles(
             @PathVariable("imagesCollectionId") String imagesCollectionId) {
@@ -162,6 +235,69 @@ public class ImageController {
         return imageHandler.getOmeXml(imagesCollectionId, fileName);
     }
 
+    @RequestMapping(
+            value = "/{fileName:.+}/thumbnail",
+            method = RequestMethod.GET,
+            produces = MediaType.IMAGE_PNG_VALUE)
+    public void getThumbnail(
+            @PathVariable("imagesCollectionId") String imagesCollectionId,
+            @PathVariable("fileName") String fileName,
+            WebRequest request,
+            HttpServletResponse response) throws IOException {
+        File thumbnail;
+        try {
+            thumbnail = imageHandler.getThumbnail(imagesCollectionId, fileName);
+        } catch (FileNotFoundException ex) {
+            throw new NotFoundException("File does not exist.", ex);
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, THUMBNAIL_CACHE_CONTROL
+                .getHeaderValue());
+        if (request.checkNotModified(thumbnail.lastModified())) {
+            return;
+        }
+        response.setContentType(MediaType.IMAGE_PNG_VALUE);
+        response.setContentLengthLong(thumbnail.length());
+        try (InputStream fis = new FileInputStream(thumbnail)) {
+            IOUtils.copyLarge(fis, response.getOutputStream());
+            response.flushBuffer();
+        }
+    }
+
+    /**
+     * Get the thumbnails of several images in one request, as PNG data URIs
+     * indexed by file name. Images which do not exist, can not be read or
+     * whose thumbnail is still being generated are omitted.
+     */
+    @RequestMapping(value = "thumbnails", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, String>> getThumbnails(
+            @PathVariable("imagesCollectionId") String imagesCollectionId,
+            @RequestParam("fileNames") List<String> fileNames) {
+        if (fileNames.size() > MAX_THUMBNAILS_BATCH_SIZE) {
+            throw new ClientException("Can not get more than "
+                    + MAX_THUMBNAILS_BATCH_SIZE + " thumbnails at once.");
+        }
+        Map<String, String> thumbnails = new LinkedHashMap<>();
+        imageHandler.getExistingThumbnails(imagesCollectionId, fileNames)
+                .forEach((fileName, thumbnail) -> {
+                    try {
+                        thumbnails.put(fileName, "data:"
+                                + MediaType.IMAGE_PNG_VALUE + ";base64,"
+                                + Base64.getEncoder().encodeToString(
+                                        Files.readAllBytes(thumbnail.toPath())));
+                    } catch (IOException ex) {
+                        LOG.log(Level.WARNING, "Unable to read thumbnail "
+                                + thumbnail, ex);
+                    }
+                });
+        // Thumbnails still missing will be available on a later request
+        CacheControl cacheControl = thumbnails.size() < fileNames.size()
+                ? CacheControl.noCache()
+                : THUMBNAIL_CACHE_CONTROL;
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .body(thumbnails);
+    }
+
     @RequestMapping(value = "filterByFileNameRegex", method = RequestMethod.GET)
     public HttpEntity<PagedResources<Resource<Image>>> getFilesMatchingRegexPage(
             @PathVariable("imagesCollectionId") String imagesCollectionId,
@@ -176,6 +312,36 @@ public class ImageController {
         return new ResponseEntity<>(resources, HttpStatus.OK);
     }
 
+    /**
+     * Filter the images on the variables of the collection pattern, e.g.
+     * ?t=5&c=1..3 for a collection with pattern img_c{ccc}_t{ttt}.ome.tif
+     * Each variable accepts a value or an inclusive range (a..b, a.. or ..b).
+     */
+    @RequestMapping(value = "filterByPatternVariables", method = RequestMethod.GET)
+    public HttpEntity<PagedResources<Resource<Image>>> getFilesMatchingPatternVariablesPage(
+            @PathVariable("imagesCollectionId") String imagesCollectionId,
+            @RequestParam Map<String, String> parameters,
+            @PageableDefault Pageable pageable,
+            PagedResourcesAssembler<Image> assembler) {
+        List<PatternVariableRange> ranges = new ArrayList<>();
+        parameters.forEach((name, value) -> {
+            if (PATTERN_VARIABLE_NAME.matcher(name).matches()) {
+                try {
+                    ranges.add(PatternVariableRange.parse(name, value));
+                } catch (IllegalArgumentException ex) {
+                    throw new ClientException(ex.getMessage());
+                }
+            }
+        });
+        Page<Image> files = imageRepository
+                .findByImagesCollectionAndPatternVariables(
+                        imagesCollectionId, ranges, pageable);
+        PagedResources<Resource<Image>> resources = assembler.toResource(files);
+        resources.forEach(
+                resource -> processResource(imagesCollectionId, resource));
+        return new ResponseEntity<>(resources, HttpStatus.OK);
+    }
+
     protected void processResource(String imagesCollectionId,
             Resource<Image> resource) {
         Image file = resource.getContent();
@@ -195,6 +361,14 @@ public class ImageController {
                 .withRel("ome");
         resource.add(link);
 
+        link = entityLinks.linkForSingleResource(
+                ImagesCollection.class, imagesCollectionId)
+                .slash("images")
+                .slash(file.getFileName())
+                .slash("thumbnail")
+                .withRel("thumbnail");
+        resource.add(link);
+
     }
 
     protected void processCollectionResource(String imagesCollectionId,
@@ -217,5 +391,18 @@ public class ImageController {
 
 		resources.add(paginationParameterTemplatesHelper.appendPaginationParameterTemplates(link));
 
+		Link cursorLink = entityLinks.linkForSingleResource(
+                ImagesCollection.class, imagesCollectionId)
+                .slash("images")
+                .slash("cursor")
+                .withRel("cursor");
+		resources.add(new Link(new UriTemplate(cursorLink.getHref(),
+				new TemplateVariables(
+						new TemplateVariable("after",
+								TemplateVariable.VariableType.REQUEST_PARAM),
+						new TemplateVariable("size",
+								TemplateVariable.VariableType.REQUEST_PARAM_CONTINUED))),
+				"cursor"));
+
     }
 }
@@ -12,10 +12,22 @@
 package gov.nist.itl.ssd.wipp.backend.data.imagescollection.images;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import loci.common.services.DependencyException;
 import loci.common.services.ServiceException;
 import loci.common.services.ServiceFactory;
@@ -28,8 +40,13 @@ import loci.formats.services.OMEXMLService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.utils.FilenamePattern;
+import gov.nist.itl.ssd.wipp.backend.data.imagescollection.ImagesCollection;
 import gov.nist.itl.ssd.wipp.backend.data.imagescollection.ImagesCollectionRepository;
 import gov.nist.itl.ssd.wipp.backend.data.imagescollection.files.FileHandler;
+import gov.nist.itl.ssd.wipp.backend.data.utils.tiledtiffs.ThumbnailBuilder;
+import gov.nist.itl.ssd.wipp.backend.data.utils.trash.TrashHandler;
 
 /**
  *
@@ -38,12 +55,36 @@ import gov.nist.itl.ssd.wipp.backend.data.imagescollection.files.FileHandler;
 @Component
 public class ImageHandler extends FileHandler {
 
+    private static final Logger LOG = Logger.getLogger(
+            ImageHandler.class.getName());
+
     @Autowired
     private ImageRepository imageRepository;
 
     @Autowired
     private ImagesCollectionRepository imagesCollectionRepository;
 
+    @Autowired
+    private CoreConfig config;
+
+    @Autowired
+    private TrashHandler trashHandler;
+
+    private ExecutorService thumbnailExecutor;
+
+    private final Set<File> pendingThumbnails = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void instantiateThumbnailExecutor() {
+        thumbnailExecutor = Executors.newFixedThreadPool(
+                config.getThumbnailThreads());
+    }
+
+    @PreDestroy
+    public void shutdownThumbnailExecutor() {
+        thumbnailExecutor.shutdownNow();
+    }
+
     @Override
     protected String getSubFolder() {
         return "images";
@@ -56,9 +97,16 @@ public class ImageHandler extends FileHandler {
             return;
         }
 
-        List<Image> images = Arrays.stream(files).map(f -> new Image(
-                imagesCollectionId, f.getName(), f.getName(), getFileSize(f), false))
-                .collect(Collectors.toList());
+        FilenamePattern pattern = toFilenamePattern(imagesCollectionRepository
+                .findById(imagesCollectionId)
+                .map(ImagesCollection::getPattern)
+                .orElse(null));
+        List<Image> images = Arrays.stream(files).map(f -> {
+            Image image = new Image(imagesCollectionId, f.getName(),
+                    f.getName(), getFileSize(f), false);
+            setPatternVariables(image, pattern);
+            return image;
+        }).collect(Collectors.toList());
         imageRepository.saveAll(images);
         imagesCollectionRepository.updateImagesCaches(imagesCollectionId);
     }
@@ -76,8 +124,182 @@ public class ImageHandler extends FileHandler {
         imagesCollectionRepository.updateImagesCaches(imagesCollectionId);
     }
 
+    @Override
+    public void deleteAll(String imagesCollectionId, boolean removeFromDb) {
+        super.deleteAll(imagesCollectionId, removeFromDb);
+        File thumbnailsFolder = getThumbnailsFolder(imagesCollectionId);
+        try {
+            trashHandler.moveToTrash(thumbnailsFolder);
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Was not able to move folder "
+                    + thumbnailsFolder + " to trash", ex);
+        }
+    }
+
+    @Override
+    public void delete(String imagesCollectionId, String fileName) {
+        super.delete(imagesCollectionId, fileName);
+        getThumbnailFile(imagesCollectionId, fileName).delete();
+    }
+
+    public File getThumbnailsFolder(String imagesCollectionId) {
+        return new File(
+                new File(config.getImagesCollectionsFolder(), imagesCollectionId),
+                "thumbnails");
+    }
+
+    public File getThumbnailFile(String imagesCollectionId, String fileName) {
+        return new File(getThumbnailsFolder(imagesCollectionId),
+                fileName + ".png");
+    }
+
+    /**
+     * Get the thumbnail of an image. Thumbnails are normally written during
+     * the OME TIFF conversion, the ones of images imported otherwise (jobs
+     * outputs, copies) are generated on first access.
+     *
+     * @param imagesCollectionId the images collection id
+     * @param fileName the image file name
+     * @return the thumbnail file
+     * @throws FileNotFoundException if the collection has no such image
+     * @throws IOException if the thumbnail can not be generated
+     */
+    public File getThumbnail(String imagesCollectionId, String fileName)
+            throws IOException {
+        // Only names of images of the collection are turned into paths
+        if (!imageRepository.existsByImagesCollectionAndFileName(
+                imagesCollectionId, fileName)) {
+            throw new FileNotFoundException(fileName);
+        }
+        File thumbnailFile = getThumbnailFile(imagesCollectionId, fileName);
+        if (!thumbnailFile.exists()) {
+            generateThumbnail(imagesCollectionId, fileName, thumbnailFile);
+        }
+        return thumbnailFile;
+    }
+
+    /**
+     * Get the thumbnails already generated for several images. The missing
+     * ones are generated in the background and can be requested again
+     * later.
+     *
+     * @param imagesCollectionId the images collection id
+     * @param fileNames the image file names
+     * @return the existing thumbnail files indexed by image file name, in
+     * the requested order, file names which are not images of the
+     * collection are left out
+     */
+    public Map<String, File> getExistingThumbnails(String imagesCollectionId,
+            List<String> fileNames) {
+        Set<String> imageFileNames = imageRepository
+                .findByImagesCollectionAndFileNameIn(
+                        imagesCollectionId, fileNames)
+                .stream()
+                .map(Image::getFileName)
+                .collect(Collectors.toSet());
+        Map<String, File> thumbnails = new LinkedHashMap<>();
+        for (String fileName : fileNames) {
+            if (!imageFileNames.contains(fileName)) {
+                continue;
+            }
+            File thumbnailFile = getThumbnailFile(imagesCollectionId, fileName);
+            if (thumbnailFile.exists()) {
+                thumbnails.put(fileName, thumbnailFile);
+            } else {
+                submitThumbnail(imagesCollectionId, fileName, thumbnailFile);
+            }
+        }
+        return thumbnails;
+    }
+
+    private void submitThumbnail(String imagesCollectionId, String fileName,
+            File thumbnailFile) {
+        if (!pendingThumbnails.add(thumbnailFile)) {
+            return;
+        }
+        thumbnailExecutor.execute(() -> {
+            try {
+                if (!thumbnailFile.exists()) {
+                    generateThumbnail(imagesCollectionId, fileName,
+                            thumbnailFile);
+                }
+            } catch (IOException ex) {
+                LOG.log(Level.WARNING, "Unable to generate thumbnail of image "
+                        + fileName + " of collection " + imagesCollectionId, ex);
+            } finally {
+                pendingThumbnails.remove(thumbnailFile);
+            }
+        });
+    }
+
+    private void generateThumbnail(String imagesCollectionId, String fileName,
+            File thumbnailFile) throws IOException {
+        File file = getFile(imagesCollectionId, fileName);
+        if (!file.exists()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+        try {
+            ThumbnailBuilder.generate(file, thumbnailFile,
+                    config.getThumbnailSize());
+        } catch (FormatException ex) {
+            throw new IOException("Unsuported format", ex);
+        }
+    }
+
+    /**
+     * @param pattern the pattern of an images collection
+     * @return the file name pattern, or null if the pattern does not contain
+     * any variable such as {ttt} or is not valid
+     */
+    static FilenamePattern toFilenamePattern(String pattern) {
+        if (!FilenamePattern.isFilenamePattern(pattern)) {
+            return null;
+        }
+        try {
+            return new FilenamePattern(pattern);
+        } catch (IllegalArgumentException ex) {
+            LOG.log(Level.WARNING, "Invalid file name pattern " + pattern, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Set the values of the pattern variables of the image, extracted from
+     * its file name or else from its original file name.
+     *
+     * @param image the image
+     * @param pattern the file name pattern of the collection, may be null
+     */
+    static void setPatternVariables(Image image, FilenamePattern pattern) {
+        if (pattern == null) {
+            return;
+        }
+        // The variables are only used for filtering, never fail an import
+        try {
+            Map<String, Integer> variables = pattern.extractVariables(
+                    image.getFileName());
+            if (variables.isEmpty() && image.getOriginalFileName() != null) {
+                variables = pattern.extractVariables(
+                        image.getOriginalFileName());
+            }
+            image.setPatternVariables(variables);
+        } catch (RuntimeException ex) {
+            LOG.log(Level.WARNING, "Unable to extract the variables of pattern "
+                    + pattern.getPattern() + " from image "
+                    + image.getFileName(), ex);
+        }
+    }
+
     public String getOmeXml(String imagesCollectionId, String fileName)
             throws IOException {
+        // Served from the copy captured at import when available
+        Optional<String> storedOmeXml = imageRepository
+                .findByImagesCollectionAndFileName(imagesCollectionId, fileName)
+                .map(Image::getOmeXml);
+        if (storedOmeXml.isPresent()) {
+            return XMLTools.indentXML(storedOmeXml.get(), 3, true);
+        }
+
         File file = getFile(imagesCollectionId, fileName);
 
         OMEXMLService service;
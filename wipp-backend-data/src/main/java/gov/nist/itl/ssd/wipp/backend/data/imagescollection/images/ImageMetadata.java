@@ -0,0 +1,159 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.imagescollection.images;
+
+/**
+ * Core metadata of an image, captured while converting it to OME TIFF so
+ * that it can be queried without reopening the file.
+ */
+public class ImageMetadata {
+
+    private int sizeX;
+
+    private int sizeY;
+
+    private int sizeZ;
+
+    private int sizeC;
+
+    private int sizeT;
+
+    private String pixelType;
+
+    private int bitsPerPixel;
+
+    private int rgbChannelCount;
+
+    private Double physicalSizeX;
+
+    private Double physicalSizeY;
+
+    private Double physicalSizeZ;
+
+    private String physicalSizeXUnit;
+
+    private String physicalSizeYUnit;
+
+    private String physicalSizeZUnit;
+
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    public void setSizeX(int sizeX) {
+        this.sizeX = sizeX;
+    }
+
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    public void setSizeY(int sizeY) {
+        this.sizeY = sizeY;
+    }
+
+    public int getSizeZ() {
+        return sizeZ;
+    }
+
+    public void setSizeZ(int sizeZ) {
+        this.sizeZ = sizeZ;
+    }
+
+    public int getSizeC() {
+        return sizeC;
+    }
+
+    public void setSizeC(int sizeC) {
+        this.sizeC = sizeC;
+    }
+
+    public int getSizeT() {
+        return sizeT;
+    }
+
+    public void setSizeT(int sizeT) {
+        this.sizeT = sizeT;
+    }
+
+    public String getPixelType() {
+        return pixelType;
+    }
+
+    public void setPixelType(String pixelType) {
+        this.pixelType = pixelType;
+    }
+
+    public int getBitsPerPixel() {
+        return bitsPerPixel;
+    }
+
+    public void setBitsPerPixel(int bitsPerPixel) {
+        this.bitsPerPixel = bitsPerPixel;
+    }
+
+    public int getRgbChannelCount() {
+        return rgbChannelCount;
+    }
+
+    public void setRgbChannelCount(int rgbChannelCount) {
+        this.rgbChannelCount = rgbChannelCount;
+    }
+
+    public Double getPhysicalSizeX() {
+        return physicalSizeX;
+    }
+
+    public void setPhysicalSizeX(Double physicalSizeX) {
+        this.physicalSizeX = physicalSizeX;
+    }
+
+    public Double getPhysicalSizeY() {
+        return physicalSizeY;
+    }
+
+    public void setPhysicalSizeY(Double physicalSizeY) {
+        this.physicalSizeY = physicalSizeY;
+    }
+
+    public Double getPhysicalSizeZ() {
+        return physicalSizeZ;
+    }
+
+    public void setPhysicalSizeZ(Double physicalSizeZ) {
+        this.physicalSizeZ = physicalSizeZ;
+    }
+
+    public String getPhysicalSizeXUnit() {
+        return physicalSizeXUnit;
+    }
+
+    public void setPhysicalSizeXUnit(String physicalSizeXUnit) {
+        this.physicalSizeXUnit = physicalSizeXUnit;
+    }
+
+    public String getPhysicalSizeYUnit() {
+        return physicalSizeYUnit;
+    }
+
+    public void setPhysicalSizeYUnit(String physicalSizeYUnit) {
+        this.physicalSizeYUnit = physicalSizeYUnit;
+    }
+
+    public String getPhysicalSizeZUnit() {
+        return physicalSizeZUnit;
+    }
+
+    public void setPhysicalSizeZUnit(String physicalSizeZUnit) {
+        this.physicalSizeZUnit = physicalSizeZUnit;
+    }
+}
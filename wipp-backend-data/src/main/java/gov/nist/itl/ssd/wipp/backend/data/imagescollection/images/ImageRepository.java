@@ -11,10 +11,14 @@
  */
 package gov.nist.itl.ssd.wipp.backend.data.imagescollection.images;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 
 /**
@@ -27,12 +31,26 @@ public interface ImageRepository extends MongoRepository<Image, String>,
 
     List<Image> findByImagesCollection(String imagesCollection);
 
+    // Listings do not need the OME-XML stored on each image
+    @Query(value = "{ 'imagesCollection' : ?0 }", fields = "{ 'omeXml' : 0 }")
     Page<Image> findByImagesCollection(String imagesCollection, Pageable p);
 
     List<Image> findByImagesCollectionAndFileNameRegex(String imagesCollection, String fileName);
 
+    @Query(value = "{ 'imagesCollection' : ?0, 'fileName' : { '$regex' : ?1 } }",
+            fields = "{ 'omeXml' : 0 }")
     Page<Image> findByImagesCollectionAndFileNameRegex(String imagesCollection, String fileName, Pageable p);
 
     List<Image> findByImporting(boolean importing);
 
+    Optional<Image> findByImagesCollectionAndFileName(String imagesCollection, String fileName);
+
+    boolean existsByImagesCollectionAndFileName(String imagesCollection, String fileName);
+
+    // Only the file names are needed to check which images exist
+    @Query(value = "{ 'imagesCollection' : ?0, 'fileName' : { '$in' : ?1 } }",
+            fields = "{ 'fileName' : 1 }")
+    List<Image> findByImagesCollectionAndFileNameIn(String imagesCollection,
+            Collection<String> fileNames);
+
 }
@@ -11,6 +11,11 @@
  */
 package gov.nist.itl.ssd.wipp.backend.data.imagescollection.images;
 
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import org.springframework.data.repository.query.Param;
 
 /**
@@ -25,4 +30,29 @@ public interface ImageRepositoryCustom {
     void deleteByImagesCollectionAndFileName(
             @Param("imagesCollection") String imagesCollection,
             @Param("fileName") String fileName);
+
+    /**
+     * Keyset pagination on the (imagesCollection, fileName) index.
+     *
+     * @param imagesCollection the images collection id
+     * @param afterFileName the last file name of the previous page, or null
+     * for the first page
+     * @param limit the maximum number of images to return
+     * @return the images sorted by file name
+     */
+    List<Image> findNextByImagesCollection(String imagesCollection,
+            String afterFileName, int limit);
+
+    /**
+     * Find the images whose pattern variables are in all the given ranges,
+     * using the (imagesCollection, patternVariables) index.
+     *
+     * @param imagesCollection the images collection id
+     * @param ranges the ranges of the pattern variables
+     * @param pageable the page to return
+     * @return the matching images
+     */
+    Page<Image> findByImagesCollectionAndPatternVariables(
+            String imagesCollection, List<PatternVariableRange> ranges,
+            Pageable pageable);
 }
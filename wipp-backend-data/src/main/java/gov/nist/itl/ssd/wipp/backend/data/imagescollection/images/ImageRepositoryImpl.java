@@ -11,7 +11,13 @@
  */
 package gov.nist.itl.ssd.wipp.backend.data.imagescollection.images;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -41,4 +47,50 @@ public class ImageRepositoryImpl implements ImageRepositoryCustom {
                 Image.class);
     }
 
+    @Override
+    public List<Image> findNextByImagesCollection(String imagesCollection,
+            String afterFileName, int limit) {
+        Criteria criteria = Criteria.where("imagesCollection").is(imagesCollection);
+        if (afterFileName != null) {
+            criteria = criteria.and("fileName").gt(afterFileName);
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "fileName"))
+                .limit(limit);
+        query.fields().exclude("omeXml");
+        return mongoTemplate.find(query, Image.class);
+    }
+
+    @Override
+    public Page<Image> findByImagesCollectionAndPatternVariables(
+            String imagesCollection, List<PatternVariableRange> ranges,
+            Pageable pageable) {
+        Criteria criteria = Criteria.where("imagesCollection").is(imagesCollection);
+        if (!ranges.isEmpty()) {
+            criteria = criteria.andOperator(ranges.stream()
+                    .map(ImageRepositoryImpl::toCriteria)
+                    .toArray(Criteria[]::new));
+        }
+        Query query = Query.query(criteria);
+        query.fields().exclude("omeXml");
+        long count = mongoTemplate.count(query, Image.class);
+        List<Image> images = mongoTemplate.find(query.with(pageable),
+                Image.class);
+        return new PageImpl<>(images, pageable, count);
+    }
+
+    private static Criteria toCriteria(PatternVariableRange range) {
+        Criteria variable = Criteria.where("name").is(range.getName());
+        if (range.getMin() != null || range.getMax() != null) {
+            Criteria value = variable.and("value");
+            if (range.getMin() != null) {
+                value.gte(range.getMin());
+            }
+            if (range.getMax() != null) {
+                value.lte(range.getMax());
+            }
+        }
+        return Criteria.where("patternVariables").elemMatch(variable);
+    }
+
 }
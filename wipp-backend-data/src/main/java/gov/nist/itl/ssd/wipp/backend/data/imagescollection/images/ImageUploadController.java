@@ -12,6 +12,7 @@
 package gov.nist.itl.ssd.wipp.backend.data.imagescollection.images;
 
 import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.core.utils.FilenamePattern;
 import gov.nist.itl.ssd.wipp.backend.data.utils.flowjs.FlowFile;
 import gov.nist.itl.ssd.wipp.backend.data.utils.tiledtiffs.TiledOmeTiffConverter;
 import io.swagger.annotations.Api;
@@ -33,6 +34,9 @@ import java.util.regex.Pattern;
 
 import javax.annotation.PostConstruct;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import loci.common.services.DependencyException;
 import loci.common.services.ServiceException;
 import loci.formats.FormatException;
@@ -55,21 +59,31 @@ public class ImageUploadController extends FileUploadController {
 
 	private static final Logger LOG = Logger.getLogger(ImageUploadController.class.getName());
 
+	private static final int MAX_STORED_OME_XML_LENGTH = 256 * 1024;
+
 	@Autowired
 	private ImageRepository imageRepository;
 
 	@Autowired
 	private ImagesCollectionRepository imagesCollectionRepository;
 
+	@Autowired
+	private ImageHandler imageHandler;
+
 	@Autowired
 	private CoreConfig appConfig;
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	private ExecutorService omeConverterExecutor;
 
 	@PostConstruct
 	public void instantiateOmeConverter() {
-		omeConverterExecutor = Executors.newFixedThreadPool(
-				appConfig.getOmeConverterThreads());
+		// Queue depth, active conversions and wait time as executor metrics
+		omeConverterExecutor = ExecutorServiceMetrics.monitor(meterRegistry,
+				Executors.newFixedThreadPool(appConfig.getOmeConverterThreads()),
+				"ome.converter");
 
 		// Resume any interrupted conversion
 		imageRepository.findByImporting(true)
@@ -86,10 +100,11 @@ public class ImageUploadController extends FileUploadController {
 			throws IOException {
 		String collectionId = getCollectionId(flowFile);
 		String fileName = flowFile.getFlowFilename();
+		String imgColPattern = null;
 
 		try {
 			ImagesCollection imgCol = imagesCollectionRepository.findById(collectionId).get();
-			String imgColPattern = imgCol.getPattern();
+			imgColPattern = imgCol.getPattern();
 			if(imgColPattern != null && !imgColPattern.isEmpty()){
 				fileName = fileNameFilter(imgColPattern, fileName);
 			}
@@ -103,16 +118,19 @@ public class ImageUploadController extends FileUploadController {
 		if(fileName != null){
 			fileName = fileName.replaceAll("[\\p{Punct}&&[^.-]]", "_");
 			fileName = fileName.replace(" ", "");
-			uploadImg(flowFile, tempPath, fileName);
+			uploadImg(flowFile, tempPath, fileName, imgColPattern);
 		}
 	}
 
-	private void uploadImg(FlowFile flowFile, Path tempPath, String fileName) throws IOException{
+	private void uploadImg(FlowFile flowFile, Path tempPath, String fileName,
+			String imgColPattern) throws IOException{
 		File uploadDir = getUploadDir(flowFile);
 		uploadDir.mkdirs();
 		String collectionId = getCollectionId(flowFile);
 		Image image = new Image(collectionId, fileName, flowFile.getFlowFilename(),
 				getPathSize(tempPath), true);
+		ImageHandler.setPatternVariables(image,
+				ImageHandler.toFilenamePattern(imgColPattern));
 		imageRepository.save(image);
 		imagesCollectionRepository.updateImagesCaches(collectionId);
 		submitImageToExtractor(image);
@@ -143,17 +161,22 @@ public class ImageUploadController extends FileUploadController {
 
 	private void doSubmit(String collectionId, Image image, String outputFileName,
 			Path tempPath, Path outputPath) {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "error";
 		try {
 			LOG.log(Level.INFO,
 					"Starting extracting image {0} of collection {1}",
 					new Object[]{image.getFileName(), collectionId});
-			convertToTiledOmeTiff(tempPath, outputPath);
+			convertToTiledOmeTiff(tempPath, outputPath,
+					imageHandler.getThumbnailFile(collectionId, outputFileName),
+					appConfig.getThumbnailSize(), image);
 			Files.delete(tempPath);
 			image.setFileName(outputFileName);
 			image.setFileSize(getPathSize(outputPath));
 			image.setImporting(false);
 			imageRepository.save(image);
 			imagesCollectionRepository.updateImagesCaches(collectionId);
+			outcome = "success";
 			LOG.log(Level.INFO,
 					"Done extracting image {0} of collection {1}",
 					new Object[]{image.getFileName(), collectionId});
@@ -166,10 +189,21 @@ public class ImageUploadController extends FileUploadController {
 			image.setImportError("Can not extract image.");
 			imageRepository.save(image);
 			imagesCollectionRepository.updateImagesCaches(collectionId);
+		} finally {
+			sample.stop(Timer.builder("wipp.images.conversion")
+					.description("Duration of the conversion of an uploaded image to tiled OME TIFF")
+					.tag("outcome", outcome)
+					.publishPercentileHistogram()
+					.register(meterRegistry));
 		}
 	}
 
 	private static String fileNameFilter(String patternStr, String fileName){
+		// MIST-like patterns such as img_t{ttt}.tif
+		FilenamePattern filenamePattern = ImageHandler.toFilenamePattern(patternStr);
+		if(filenamePattern != null){
+			return filenamePattern.matches(fileName) ? fileName : null;
+		}
 		Pattern p = Pattern.compile(patternStr);
 		Matcher m = p.matcher(fileName);
 		boolean matches = m.matches();
@@ -180,11 +214,17 @@ public class ImageUploadController extends FileUploadController {
 		return null;
 	}
 	
-	private static void convertToTiledOmeTiff(Path inputFile, Path outputFile) throws DependencyException, FormatException, IOException, ServiceException {
+	// Convert the image and capture its metadata in the image document
+	private static void convertToTiledOmeTiff(Path inputFile, Path outputFile, File thumbnailFile, int thumbnailSize, Image image) throws DependencyException, FormatException, IOException, ServiceException {
 		TiledOmeTiffConverter tiledOmeTiffConverter = new TiledOmeTiffConverter(inputFile.toString(), outputFile.toString(), CoreConfig.TILE_SIZE, CoreConfig.TILE_SIZE);
+		tiledOmeTiffConverter.setThumbnail(thumbnailFile, thumbnailSize);
 		try {
 	    	tiledOmeTiffConverter.init();
 	    	tiledOmeTiffConverter.readWriteTiles();
+	    	image.setMetadata(tiledOmeTiffConverter.extractMetadata());
+	    	String omeXml = tiledOmeTiffConverter.getOmeXml();
+	    	// Very large OME-XML are read from the file when needed instead
+	    	image.setOmeXml(omeXml.length() <= MAX_STORED_OME_XML_LENGTH ? omeXml : null);
 	    }
 	    catch(Exception e) {
 	      throw new IOException("Cannot convert image to OME TIFF.", e);
@@ -0,0 +1,41 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.imagescollection.images;
+
+/**
+ * Value of one variable of an image file name, as defined by the pattern of
+ * its collection (for example t=5 for img_t{ttt}.ome.tif).
+ * Stored as a list of (name, value) pairs so that one compound index covers
+ * any variable of any pattern.
+ */
+public class PatternVariable {
+
+    private String name;
+
+    private int value;
+
+    public PatternVariable() {
+    }
+
+    public PatternVariable(String name, int value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getValue() {
+        return value;
+    }
+}
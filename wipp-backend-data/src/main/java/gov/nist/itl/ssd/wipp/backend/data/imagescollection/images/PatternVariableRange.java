@@ -0,0 +1,75 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.imagescollection.images;
+
+/**
+ * Inclusive range of values of a pattern variable, parsed from query
+ * parameters such as t=5, c=1..3, c=2.. or c=..8
+ */
+public class PatternVariableRange {
+
+    private static final String RANGE_SEPARATOR = "..";
+
+    private final String name;
+
+    private final Integer min;
+
+    private final Integer max;
+
+    public PatternVariableRange(String name, Integer min, Integer max) {
+        this.name = name;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @param name the variable name
+     * @param value the value or range of values
+     * @return the parsed range
+     * @throws IllegalArgumentException if the value is not a valid range
+     */
+    public static PatternVariableRange parse(String name, String value) {
+        String trimmed = value.trim();
+        int separator = trimmed.indexOf(RANGE_SEPARATOR);
+        try {
+            if (separator < 0) {
+                Integer exact = Integer.valueOf(trimmed);
+                return new PatternVariableRange(name, exact, exact);
+            }
+            String lower = trimmed.substring(0, separator).trim();
+            String upper = trimmed.substring(
+                    separator + RANGE_SEPARATOR.length()).trim();
+            if (lower.isEmpty() && upper.isEmpty()) {
+                throw new IllegalArgumentException("Empty range for variable "
+                        + name + ".");
+            }
+            return new PatternVariableRange(name,
+                    lower.isEmpty() ? null : Integer.valueOf(lower),
+                    upper.isEmpty() ? null : Integer.valueOf(upper));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value " + value
+                    + " for variable " + name + ".", ex);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getMin() {
+        return min;
+    }
+
+    public Integer getMax() {
+        return max;
+    }
+}
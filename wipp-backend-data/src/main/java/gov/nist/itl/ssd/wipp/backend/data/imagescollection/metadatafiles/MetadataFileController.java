@@ -23,7 +23,9 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -38,13 +40,19 @@ import org.springframework.hateoas.ExposesResourceFor;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+import org.springframework.hateoas.TemplateVariable;
+import org.springframework.hateoas.TemplateVariables;
+import org.springframework.hateoas.UriTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  *
@@ -56,6 +64,8 @@ import org.springframework.web.bind.annotation.RestController;
 @ExposesResourceFor(MetadataFile.class)
 public class MetadataFileController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 2000;
+
     @Autowired
     private MetadataFileHandler metadataFileHandler;
 
@@ -79,6 +89,48 @@ public class MetadataFileController {
                 = assembler.toResource(files);
         resources.forEach(
                 resource -> processResource(imagesCollectionId, resource));
+        processCollectionResource(imagesCollectionId, resources);
+        return new ResponseEntity<>(resources, HttpStatus.OK);
+    }
+
+    /**
+     * Keyset (cursor) pagination: returns the metadata files sorted by file
+     * name starting after the given file name, with a next link carrying the
+     * cursor of the following page.
+     */
+    @RequestMapping(value = "cursor", method = RequestMethod.GET)
+    public HttpEntity<Resources<Resource<MetadataFile>>> getFilesAfter(
+            @PathVariable("imagesCollectionId") String imagesCollectionId,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (size <= 0) {
+            throw new ClientException("Page size must be greater than 0.");
+        }
+        size = Math.min(size, MAX_CURSOR_PAGE_SIZE);
+        List<MetadataFile> files = metadataFileRepository
+                .findNextByImagesCollection(imagesCollectionId, after, size);
+        List<Resource<MetadataFile>> content = files.stream()
+                .map(file -> new Resource<>(file))
+                .collect(Collectors.toList());
+        content.forEach(
+                resource -> processResource(imagesCollectionId, resource));
+
+        Resources<Resource<MetadataFile>> resources = new Resources<>(content);
+        if (files.size() == size) {
+            String next = UriComponentsBuilder.fromUriString(
+                    entityLinks.linkForSingleResource(
+                            ImagesCollection.class, imagesCollectionId)
+                            .slash("metadataFiles")
+                            .slash("cursor")
+                            .withRel(Link.REL_NEXT).getHref())
+                    .queryParam("after", "{after}")
+                    .queryParam("size", "{size}")
+                    .encode()
+                    .buildAndExpand(
+                            files.get(files.size() - 1).getFileName(), size)
+                    .toUriString();
+            resources.add(new Link(next, Link.REL_NEXT));
+        }
         return new ResponseEntity<>(resources, HttpStatus.OK);
     }
 
@@ -149,4 +201,20 @@ public class MetadataFileController {
                 .withSelfRel();
         resource.add(link);
     }
+
+    protected void processCollectionResource(String imagesCollectionId,
+            PagedResources<Resource<MetadataFile>> resources) {
+        Link cursorLink = entityLinks.linkForSingleResource(
+                ImagesCollection.class, imagesCollectionId)
+                .slash("metadataFiles")
+                .slash("cursor")
+                .withRel("cursor");
+        resources.add(new Link(new UriTemplate(cursorLink.getHref(),
+                new TemplateVariables(
+                        new TemplateVariable("after",
+                                TemplateVariable.VariableType.REQUEST_PARAM),
+                        new TemplateVariable("size",
+                                TemplateVariable.VariableType.REQUEST_PARAM_CONTINUED))),
+                "cursor"));
+    }
 }
@@ -11,6 +11,8 @@
  */
 package gov.nist.itl.ssd.wipp.backend.data.imagescollection.metadatafiles;
 
+import java.util.List;
+
 import org.springframework.data.repository.query.Param;
 
 /**
@@ -25,4 +27,16 @@ public interface MetadataFileRepositoryCustom {
     void deleteByImagesCollectionAndFileName(
             @Param("imagesCollection") String imagesCollection,
             @Param("fileName") String fileName);
+
+    /**
+     * Keyset pagination on the (imagesCollection, fileName) index.
+     *
+     * @param imagesCollection the images collection id
+     * @param afterFileName the last file name of the previous page, or null
+     * for the first page
+     * @param limit the maximum number of metadata files to return
+     * @return the metadata files sorted by file name
+     */
+    List<MetadataFile> findNextByImagesCollection(String imagesCollection,
+            String afterFileName, int limit);
 }
@@ -11,7 +11,10 @@
  */
 package gov.nist.itl.ssd.wipp.backend.data.imagescollection.metadatafiles;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -41,4 +44,17 @@ public class MetadataFileRepositoryImpl implements MetadataFileRepositoryCustom
                 MetadataFile.class);
     }
 
+    @Override
+    public List<MetadataFile> findNextByImagesCollection(String imagesCollection,
+            String afterFileName, int limit) {
+        Criteria criteria = Criteria.where("imagesCollection").is(imagesCollection);
+        if (afterFileName != null) {
+            criteria = criteria.and("fileName").gt(afterFileName);
+        }
+        return mongoTemplate.find(Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "fileName"))
+                .limit(limit),
+                MetadataFile.class);
+    }
+
 }
@@ -12,8 +12,6 @@
 package gov.nist.itl.ssd.wipp.backend.data.jupyternotebook;
 
 import java.io.File;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -40,26 +38,8 @@ public class NotebookDataHandler extends BaseDataHandler implements DataHandler{
 
 	@Override
 	public String exportDataAsParam(String value) {
-        String notebookId = value;
-        String notebookPath;
-
-        // check if the input of the job is the output of another job and if so return the associated path
-        String regex = "\\{\\{ (.*)\\.(.*) \\}\\}";
-        Pattern pattern = Pattern.compile(regex);
-        Matcher m = pattern.matcher(notebookId);
-        if (m.find()) {
-            String jobId = m.group(1);
-            String outputName = m.group(2);
-            notebookPath = getJobOutputTempFolder(jobId, outputName).getAbsolutePath();
-        }
-        // else return the path of the notebook
-        else {
-            File notebookFolder = new File(config.getNotebooksFolder(), notebookId);
-            notebookPath = notebookFolder.getAbsolutePath();
-
-        }
-        notebookPath = notebookPath.replaceFirst(config.getStorageRootFolder(),config.getContainerInputsMountPath());
-        return notebookPath;
+		return exportDataPath(value,
+				id -> new File(config.getNotebooksFolder(), id));
 	}
 
 }
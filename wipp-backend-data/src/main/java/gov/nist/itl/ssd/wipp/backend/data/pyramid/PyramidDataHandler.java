@@ -63,4 +63,10 @@ public class PyramidDataHandler extends BaseDataHandler implements DataHandler{
         return pyramidPath;
     }
 
+    @Override
+    public String getDataVersion(String value) {
+        // Pyramids are not modified once created
+        return pyramidRepository.existsById(value) ? value : null;
+    }
+
 }
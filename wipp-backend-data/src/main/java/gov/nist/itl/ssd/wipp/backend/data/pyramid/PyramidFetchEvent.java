@@ -0,0 +1,55 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.pyramid;
+
+import gov.nist.itl.ssd.wipp.backend.core.utils.FlightRecorderEvents;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Reading of a region of a pyramid, see FlightRecorderEvents. The whole
+ * request is recorded as a download.
+ */
+@Name("gov.nist.itl.ssd.wipp.PyramidFetch")
+@Label("Pyramid Fetch")
+@Category({FlightRecorderEvents.CATEGORY, "Downloads"})
+@Description("Reading of a region of the frames of a pyramid")
+class PyramidFetchEvent extends Event {
+
+    @Label("Pyramid Id")
+    String pyramidId;
+
+    @Label("X")
+    int x;
+
+    @Label("Y")
+    int y;
+
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Zoom")
+    double zoom;
+
+    @Label("Frames")
+    @Description("Number of requested frames, 0 for all the frames")
+    int frames;
+
+    @Label("From Tiles Collection")
+    boolean fromTilesCollection;
+}
@@ -40,6 +40,7 @@ import gov.nist.itl.ssd.wipp.backend.core.model.job.Job;
 import gov.nist.itl.ssd.wipp.backend.core.model.job.JobRepository;
 import gov.nist.itl.ssd.wipp.backend.core.rest.exception.ClientException;
 import gov.nist.itl.ssd.wipp.backend.core.utils.FilenameConverter;
+import gov.nist.itl.ssd.wipp.backend.core.utils.FlightRecorderEvents;
 import gov.nist.itl.ssd.wipp.backend.core.utils.IdentityFilenameConverter;
 import gov.nist.itl.ssd.wipp.backend.core.utils.PatternFilenameConverter;
 import gov.nist.itl.ssd.wipp.backend.data.imagescollection.ImagesCollection;
@@ -50,6 +51,7 @@ import gov.nist.itl.ssd.wipp.backend.data.stitching.StitchingVector;
 import gov.nist.itl.ssd.wipp.backend.data.stitching.StitchingVectorRepository;
 import gov.nist.itl.ssd.wipp.backend.data.stitching.timeslices.StitchingVectorTimeSlice;
 import gov.nist.itl.ssd.wipp.backend.data.stitching.timeslices.StitchingVectorTimeSliceRepository;
+import gov.nist.itl.ssd.wipp.backend.data.utils.download.DownloadMetrics;
 import io.swagger.annotations.Api;
 
 
@@ -87,6 +89,9 @@ public class PyramidFetchingController {
 	    @Autowired
 	    private ImageHandler tileRepository;
 
+	    @Autowired
+	    private DownloadMetrics downloadMetrics;
+
 	    @RequestMapping(
 	            value = "",
 	            method = RequestMethod.GET,
@@ -138,15 +143,36 @@ public class PyramidFetchingController {
 	        cookie.setPath("/");
 	        response.addCookie(cookie);
 
-	        ZipOutputStream zos = new ZipOutputStream(response.getOutputStream());
-	        if (pyramid.getJob() != null && zoom == 1) {
-	            fillStreamFromTilesCollection(pyramid, region, framesNumbers, zos);
-	        } else {
-	            fillStreamFromPyramid(pyramidId, region, zoom, framesNumbers, zos);
-	        }
-	        zos.putNextEntry(new ZipEntry("dataProvenance.txt"));
-	        try (PrintWriter printWriter = new PrintWriter(zos)) {
-	            printWriter.print(provenance);
+	        try (DownloadMetrics.Download download = downloadMetrics.start(
+	                "pyramidFetching", pyramidId, response.getOutputStream())) {
+	            ZipOutputStream zos = new ZipOutputStream(download.getOutputStream());
+	            boolean fromTilesCollection = pyramid.getJob() != null && zoom == 1;
+	            PyramidFetchEvent event = FlightRecorderEvents.ENABLED
+	                    ? new PyramidFetchEvent() : null;
+	            if (event != null) {
+	                event.begin();
+	            }
+	            if (fromTilesCollection) {
+	                fillStreamFromTilesCollection(pyramid, region, framesNumbers, zos);
+	            } else {
+	                fillStreamFromPyramid(pyramidId, region, zoom, framesNumbers, zos);
+	            }
+	            if (event != null && event.shouldCommit()) {
+	                event.pyramidId = pyramidId;
+	                event.x = x;
+	                event.y = y;
+	                event.width = width;
+	                event.height = height;
+	                event.zoom = zoom;
+	                event.frames = framesNumbers == null ? 0 : framesNumbers.size();
+	                event.fromTilesCollection = fromTilesCollection;
+	                event.commit();
+	            }
+	            zos.putNextEntry(new ZipEntry("dataProvenance.txt"));
+	            try (PrintWriter printWriter = new PrintWriter(zos)) {
+	                printWriter.print(provenance);
+	            }
+	            download.completed();
 	        }
 	    }
 
@@ -15,8 +15,6 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -82,27 +80,14 @@ public class StitchingVectorDataHandler extends BaseDataHandler implements DataH
     }
 
     public String exportDataAsParam(String value) {
-        String stitchingVectorId = value;
-        String stitchingVectorPath;
-
-        // check if the input of the job is the output of another job and if so return the associated path
-        String regex = "\\{\\{ (.*)\\.(.*) \\}\\}";
-        Pattern pattern = Pattern.compile(regex);
-        Matcher m = pattern.matcher(stitchingVectorId);
-        if (m.find()) {
-            String jobId = m.group(1);
-            String outputName = m.group(2);
-            stitchingVectorPath = getJobOutputTempFolder(jobId, outputName).getAbsolutePath();
-        }
-        // else return the path of the stitching vector
-        else {
-            File stitchingVectorFolder = new File(config.getStitchingFolder(), stitchingVectorId);
-            stitchingVectorPath = stitchingVectorFolder.getAbsolutePath();
-
-        }
-        stitchingVectorPath = stitchingVectorPath.replaceFirst(config.getStorageRootFolder(),config.getContainerInputsMountPath());
-        return stitchingVectorPath;
+        return exportDataPath(value,
+                id -> new File(config.getStitchingFolder(), id));
+    }
 
+    @Override
+    public String getDataVersion(String value) {
+        // Stitching vectors are not modified once created
+        return stitchingVectorRepository.existsById(value) ? value : null;
     }
 
     private StitchingVectorTimeSlice createTimeSlice(String filename) {
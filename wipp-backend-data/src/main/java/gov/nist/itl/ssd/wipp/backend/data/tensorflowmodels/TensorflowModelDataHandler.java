@@ -12,8 +12,6 @@
 package gov.nist.itl.ssd.wipp.backend.data.tensorflowmodels;
 
 import java.io.File;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import gov.nist.itl.ssd.wipp.backend.core.model.data.BaseDataHandler;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -57,27 +55,8 @@ public class TensorflowModelDataHandler extends BaseDataHandler implements DataH
 	}
 	
     public String exportDataAsParam(String value) {
-        String tensorflowModelId = value;
-        String tensorflowModelPath;
-
-        // check if the input of the job is the output of another job and if so return the associated path
-        String regex = "\\{\\{ (.*)\\.(.*) \\}\\}";
-        Pattern pattern = Pattern.compile(regex);
-        Matcher m = pattern.matcher(tensorflowModelId);
-        if (m.find()) {
-            String jobId = m.group(1);
-            String outputName = m.group(2);
-            tensorflowModelPath = getJobOutputTempFolder(jobId, outputName).getAbsolutePath();
-        }
-        // else return the path of the tensorflow model
-        else {
-            File tensorflowModelFolder = new File(config.getTensorflowModelsFolder(), tensorflowModelId);
-            tensorflowModelPath = tensorflowModelFolder.getAbsolutePath();
-
-        }
-        tensorflowModelPath = tensorflowModelPath.replaceFirst(config.getStorageRootFolder(),config.getContainerInputsMountPath());
-        return tensorflowModelPath;
-
+        return exportDataPath(value,
+                id -> new File(config.getTensorflowModelsFolder(), id));
     }
 
 }
@@ -12,6 +12,7 @@
 package gov.nist.itl.ssd.wipp.backend.data.tensorflowmodels;
 
 import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+import gov.nist.itl.ssd.wipp.backend.data.utils.download.DownloadMetrics;
 import io.swagger.annotations.Api;
 
 import java.io.File;
@@ -48,6 +49,9 @@ public class TensorflowModelDownloadController {
 	@Autowired
 	TensorflowModelRepository tensorflowModelRepository;
 
+	@Autowired
+	private DownloadMetrics downloadMetrics;
+
 	@RequestMapping(
 			value = "",
 			method = RequestMethod.GET,
@@ -76,9 +80,13 @@ public class TensorflowModelDownloadController {
 		response.setHeader("Content-disposition",
 				"attachment;filename=" + "TensorflowModel-" + tm.getName() + ".zip");
 
-		ZipOutputStream zos = new ZipOutputStream(response.getOutputStream());
-		addToZip("", zos, tensorflowModelStorageFolder);
-		zos.finish();
+		try (DownloadMetrics.Download download = downloadMetrics.start(
+				"tensorflowModel", tensorflowModelId, response.getOutputStream())) {
+			ZipOutputStream zos = new ZipOutputStream(download.getOutputStream());
+			addToZip("", zos, tensorflowModelStorageFolder);
+			zos.finish();
+			download.completed();
+		}
 	}
 
 	//Recursive method to handle sub-folders
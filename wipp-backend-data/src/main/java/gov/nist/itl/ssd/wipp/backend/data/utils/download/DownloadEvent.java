@@ -0,0 +1,43 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.utils.download;
+
+import gov.nist.itl.ssd.wipp.backend.core.utils.FlightRecorderEvents;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Download of a data, see FlightRecorderEvents.
+ */
+@Name("gov.nist.itl.ssd.wipp.Download")
+@Label("Download")
+@Category({FlightRecorderEvents.CATEGORY, "Downloads"})
+@Description("Download of a data, usually as a zip")
+class DownloadEvent extends Event {
+
+    @Label("Type")
+    String type;
+
+    @Label("Data Id")
+    String dataId;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+
+    @Label("Completed")
+    boolean completed;
+}
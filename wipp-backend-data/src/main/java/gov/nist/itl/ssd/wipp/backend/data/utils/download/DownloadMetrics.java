@@ -0,0 +1,138 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.utils.download;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import gov.nist.itl.ssd.wipp.backend.core.utils.FlightRecorderEvents;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records the duration and the size of the downloads, by type of download,
+ * as metrics and as Flight Recorder events.
+ *
+ * Usage:
+ * <pre>
+ * try (Download download = downloadMetrics.start("csvCollection", id, out)) {
+ *     write to download.getOutputStream()
+ *     download.completed();
+ * }
+ * </pre>
+ */
+@Component
+public class DownloadMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * @param type the type of download, e.g. "imagesCollection"
+     * @param dataId the id of the downloaded data
+     * @param out the stream the download is written to
+     * @return the download being recorded
+     */
+    public Download start(String type, String dataId, OutputStream out) {
+        return new Download(type, dataId, out);
+    }
+
+    public class Download implements AutoCloseable {
+
+        private final String type;
+        private final String dataId;
+        private final Timer.Sample sample;
+        private final DownloadEvent event;
+        private final CountingOutputStream out;
+        private boolean completed;
+
+        private Download(String type, String dataId, OutputStream out) {
+            this.type = type;
+            this.dataId = dataId;
+            this.sample = Timer.start(meterRegistry);
+            this.event = FlightRecorderEvents.ENABLED ? new DownloadEvent() : null;
+            if (event != null) {
+                event.begin();
+            }
+            this.out = new CountingOutputStream(out);
+        }
+
+        /**
+         * @return the stream to write the download to, closing it does not
+         * close the underlying stream
+         */
+        public OutputStream getOutputStream() {
+            return out;
+        }
+
+        /**
+         * Mark the download as successful, failed otherwise.
+         */
+        public void completed() {
+            completed = true;
+        }
+
+        @Override
+        public void close() {
+            String outcome = completed ? "success" : "error";
+            sample.stop(Timer.builder("wipp.downloads")
+                    .description("Duration of the downloads")
+                    .tags("type", type, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            DistributionSummary.builder("wipp.downloads.size")
+                    .description("Size of the downloads")
+                    .baseUnit("bytes")
+                    .tags("type", type, "outcome", outcome)
+                    .register(meterRegistry)
+                    .record(out.count);
+            if (event != null && event.shouldCommit()) {
+                event.type = type;
+                event.dataId = dataId;
+                event.bytes = out.count;
+                event.completed = completed;
+                event.commit();
+            }
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -16,12 +16,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import gov.nist.itl.ssd.wipp.backend.core.utils.FlightRecorderEvents;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 /**
  *
  * @author Antoine Vandecreme <antoine.vandecreme at nist.gov>
@@ -31,6 +37,9 @@ public abstract class FlowjsController {
     @Autowired
     private FlowFileStorage flowFileStorage;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private static final Logger logger = Logger.getLogger(FlowjsController.class.getName());
 
     protected interface Parameters {
@@ -87,13 +96,19 @@ public abstract class FlowjsController {
             File tempDir = getTempUploadDir(flowFile);
             tempDir.mkdirs();
             File file = new File(tempDir, flowFile.getFlowFilename());
+            long start = System.nanoTime();
+            UploadChunkEvent event = FlightRecorderEvents.ENABLED
+                    ? new UploadChunkEvent() : null;
+            if (event != null) {
+                event.begin();
+            }
+            long readed = 0;
             try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
                 //Seek to position
                 raf.seek((long) (flowChunkNumber - 1) * flowFile.getFlowChunkSize());
 
                 //Save to file
                 InputStream is = request.getInputStream();
-                long readed = 0;
                 long content_length = request.getContentLength();
                 byte[] bytes = new byte[1024 * 100];
                 while (readed < content_length) {
@@ -105,16 +120,37 @@ public abstract class FlowjsController {
                     readed += r;
                 }
             }
+            Timer.builder("wipp.uploads.chunks")
+                    .description("Duration of the reception of upload chunks")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("wipp.uploads.chunks.size")
+                    .description("Size of the upload chunks")
+                    .baseUnit("bytes")
+                    .register(meterRegistry)
+                    .record(readed);
 
             flowFileStorage.setChunckUploaded(flowFile, flowChunkNumber);
 
-            if (flowFileStorage.isUploadFinished(flowFile)) {
+            boolean uploadFinished = flowFileStorage.isUploadFinished(flowFile);
+            if (uploadFinished) {
+                meterRegistry.counter("wipp.uploads.files").increment();
                 onUploadFinished(flowFile, file.toPath());
                 flowFileStorage.removeFlowFile(flowFile);
                 response.getWriter().print("All finished.");
             } else {
                 response.getWriter().print("Upload");
             }
+            if (event != null && event.shouldCommit()) {
+                event.flowIdentifier = flowFile.getFlowIdentifier();
+                event.fileName = flowFile.getFlowFilename();
+                event.chunkNumber = flowChunkNumber;
+                event.totalChunks = flowFile.getNbChunks();
+                event.bytes = readed;
+                event.uploadFinished = uploadFinished;
+                event.commit();
+            }
         } catch (FlowjsException ex) {
             logger.log(Level.WARNING, "", ex);
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
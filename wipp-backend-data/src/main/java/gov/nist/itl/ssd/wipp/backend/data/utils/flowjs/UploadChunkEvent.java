@@ -0,0 +1,52 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.utils.flowjs;
+
+import gov.nist.itl.ssd.wipp.backend.core.utils.FlightRecorderEvents;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Reception of a flow.js upload chunk, see FlightRecorderEvents.
+ */
+@Name("gov.nist.itl.ssd.wipp.UploadChunk")
+@Label("Upload Chunk")
+@Category({FlightRecorderEvents.CATEGORY, "Uploads"})
+@Description("Reception of a flow.js chunk, including the upload completion "
+        + "for the last one")
+@StackTrace(false)
+class UploadChunkEvent extends Event {
+
+    @Label("Flow Identifier")
+    String flowIdentifier;
+
+    @Label("File Name")
+    String fileName;
+
+    @Label("Chunk Number")
+    int chunkNumber;
+
+    @Label("Total Chunks")
+    int totalChunks;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+
+    @Label("Upload Finished")
+    boolean uploadFinished;
+}
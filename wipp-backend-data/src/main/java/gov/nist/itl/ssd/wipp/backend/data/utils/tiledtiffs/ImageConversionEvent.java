@@ -0,0 +1,47 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.utils.tiledtiffs;
+
+import gov.nist.itl.ssd.wipp.backend.core.utils.FlightRecorderEvents;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Conversion of the tiles of an image to a tiled OME TIFF, see
+ * FlightRecorderEvents.
+ */
+@Name("gov.nist.itl.ssd.wipp.ImageConversion")
+@Label("Image Conversion")
+@Category({FlightRecorderEvents.CATEGORY, "Images"})
+@Description("Reading and writing of the tiles of an image, thumbnail excluded")
+class ImageConversionEvent extends Event {
+
+    @Label("Input File")
+    String inputFile;
+
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Tiles")
+    int tiles;
+
+    @Label("Bytes Read")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+}
@@ -0,0 +1,264 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.utils.tiledtiffs;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import loci.formats.FormatException;
+import loci.formats.FormatTools;
+import loci.formats.IFormatReader;
+import loci.formats.ImageReader;
+
+/**
+ * Builds a PNG thumbnail of a 2D image by sampling the tiles of the image
+ * as they are read. Each thumbnail pixel takes the value of the nearest
+ * image pixel, and each channel is stretched to its own min/max range.
+ * Images with 3 or more channels give RGB thumbnails using the first 3
+ * channels, other images give gray level thumbnails of the first channel.
+ */
+public class ThumbnailBuilder {
+
+	private final int width;
+	private final int height;
+	private final int thumbnailWidth;
+	private final int thumbnailHeight;
+	private final int pixelType;
+	private final int bpp;
+	private final int channels;
+	private final int thumbnailChannels;
+	private final boolean interleaved;
+	private final ByteOrder byteOrder;
+	private final double[][] values;
+
+	/**
+	 * @param reader the reader of the image, with its id already set
+	 * @param size the maximum width and height of the thumbnail
+	 */
+	public ThumbnailBuilder(IFormatReader reader, int size) {
+		this.width = reader.getSizeX();
+		this.height = reader.getSizeY();
+		double scale = Math.max(1d, (double) Math.max(width, height) / size);
+		this.thumbnailWidth = Math.max(1, (int) Math.round(width / scale));
+		this.thumbnailHeight = Math.max(1, (int) Math.round(height / scale));
+		this.pixelType = reader.getPixelType();
+		this.bpp = FormatTools.getBytesPerPixel(pixelType);
+		this.channels = reader.getRGBChannelCount();
+		this.thumbnailChannels = channels >= 3 ? 3 : 1;
+		this.interleaved = reader.isInterleaved();
+		this.byteOrder = reader.isLittleEndian()
+				? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+		this.values = new double[thumbnailChannels][thumbnailWidth * thumbnailHeight];
+		for (double[] channelValues : values) {
+			Arrays.fill(channelValues, Double.NaN);
+		}
+	}
+
+	/**
+	 * Sample the thumbnail pixels falling in the given tile.
+	 *
+	 * @param tile the tile bytes as returned by IFormatReader.openBytes
+	 * @param tileX the x position of the tile in the image
+	 * @param tileY the y position of the tile in the image
+	 * @param tileWidth the width of the tile
+	 * @param tileHeight the height of the tile
+	 */
+	public void addTile(byte[] tile, int tileX, int tileY, int tileWidth,
+			int tileHeight) {
+		ByteBuffer buffer = ByteBuffer.wrap(tile).order(byteOrder);
+		int firstX = firstThumbnailIndex(tileX, width, thumbnailWidth);
+		int lastX = firstThumbnailIndex(tileX + tileWidth, width, thumbnailWidth);
+		int firstY = firstThumbnailIndex(tileY, height, thumbnailHeight);
+		int lastY = firstThumbnailIndex(tileY + tileHeight, height, thumbnailHeight);
+		for (int ty = firstY; ty < lastY; ty++) {
+			int y = (int) ((long) ty * height / thumbnailHeight) - tileY;
+			for (int tx = firstX; tx < lastX; tx++) {
+				int x = (int) ((long) tx * width / thumbnailWidth) - tileX;
+				for (int c = 0; c < thumbnailChannels; c++) {
+					int index = interleaved
+							? (y * tileWidth + x) * channels + c
+							: (c * tileHeight + y) * tileWidth + x;
+					values[c][ty * thumbnailWidth + tx] = readValue(
+							buffer, index * bpp);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write the thumbnail as a PNG file. The file is written next to the
+	 * destination first and then moved, so that readers never see a
+	 * partially written thumbnail.
+	 *
+	 * @param thumbnailFile the destination file
+	 * @throws IOException
+	 */
+	public void write(File thumbnailFile) throws IOException {
+		BufferedImage image = new BufferedImage(thumbnailWidth, thumbnailHeight,
+				thumbnailChannels == 3
+						? BufferedImage.TYPE_INT_RGB
+						: BufferedImage.TYPE_BYTE_GRAY);
+		int[][] channelValues = new int[thumbnailChannels][];
+		for (int c = 0; c < thumbnailChannels; c++) {
+			channelValues[c] = stretch(values[c]);
+		}
+		for (int i = 0; i < thumbnailWidth * thumbnailHeight; i++) {
+			int rgb;
+			if (thumbnailChannels == 3) {
+				rgb = channelValues[0][i] << 16
+						| channelValues[1][i] << 8
+						| channelValues[2][i];
+			} else {
+				int gray = channelValues[0][i];
+				rgb = gray << 16 | gray << 8 | gray;
+			}
+			image.setRGB(i % thumbnailWidth, i / thumbnailWidth, rgb);
+		}
+
+		File folder = thumbnailFile.getParentFile();
+		folder.mkdirs();
+		File tempFile = File.createTempFile(".thumbnail", ".png", folder);
+		try {
+			if (!ImageIO.write(image, "png", tempFile)) {
+				throw new IOException("No PNG writer available.");
+			}
+			Files.move(tempFile.toPath(), thumbnailFile.toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			tempFile.delete();
+		}
+	}
+
+	/**
+	 * Generate the thumbnail of an existing image. If the image has
+	 * sub-resolutions, only the lowest resolution which is still larger than
+	 * the thumbnail is read.
+	 *
+	 * @param imageFile the image
+	 * @param thumbnailFile the thumbnail to write
+	 * @param size the maximum width and height of the thumbnail
+	 * @throws IOException
+	 * @throws FormatException
+	 */
+	public static void generate(File imageFile, File thumbnailFile, int size)
+			throws IOException, FormatException {
+		try (ImageReader reader = new ImageReader()) {
+			reader.setFlattenedResolutions(false);
+			reader.setOriginalMetadataPopulated(false);
+			reader.setId(imageFile.getPath());
+
+			for (int r = reader.getResolutionCount() - 1; r > 0; r--) {
+				reader.setResolution(r);
+				if (Math.max(reader.getSizeX(), reader.getSizeY()) >= size) {
+					break;
+				}
+			}
+			if (Math.max(reader.getSizeX(), reader.getSizeY()) < size) {
+				reader.setResolution(0);
+			}
+
+			ThumbnailBuilder builder = new ThumbnailBuilder(reader, size);
+			int tileSizeX = Math.max(1, reader.getOptimalTileWidth());
+			int tileSizeY = Math.max(1, reader.getOptimalTileHeight());
+			int width = reader.getSizeX();
+			int height = reader.getSizeY();
+			for (int tileY = 0; tileY < height; tileY += tileSizeY) {
+				int effTileSizeY = Math.min(tileSizeY, height - tileY);
+				for (int tileX = 0; tileX < width; tileX += tileSizeX) {
+					int effTileSizeX = Math.min(tileSizeX, width - tileX);
+					// Skip the tiles which do not contain any sampled pixel
+					if (!builder.samples(tileX, tileY, effTileSizeX, effTileSizeY)) {
+						continue;
+					}
+					byte[] tile = reader.openBytes(
+							0, tileX, tileY, effTileSizeX, effTileSizeY);
+					builder.addTile(tile, tileX, tileY, effTileSizeX, effTileSizeY);
+				}
+			}
+			builder.write(thumbnailFile);
+		}
+	}
+
+	private boolean samples(int tileX, int tileY, int tileWidth,
+			int tileHeight) {
+		return firstThumbnailIndex(tileX, width, thumbnailWidth)
+				< firstThumbnailIndex(tileX + tileWidth, width, thumbnailWidth)
+				&& firstThumbnailIndex(tileY, height, thumbnailHeight)
+				< firstThumbnailIndex(tileY + tileHeight, height, thumbnailHeight);
+	}
+
+	/**
+	 * @return the first thumbnail index whose sampled image position is
+	 * greater than or equal to the given position
+	 */
+	private static int firstThumbnailIndex(int position, int imageSize,
+			int thumbnailSize) {
+		return (int) Math.min(thumbnailSize,
+				((long) position * thumbnailSize + imageSize - 1) / imageSize);
+	}
+
+	private double readValue(ByteBuffer buffer, int offset) {
+		switch (pixelType) {
+			case FormatTools.INT8:
+				return buffer.get(offset);
+			case FormatTools.UINT8:
+				return buffer.get(offset) & 0xFF;
+			case FormatTools.INT16:
+				return buffer.getShort(offset);
+			case FormatTools.UINT16:
+				return buffer.getShort(offset) & 0xFFFF;
+			case FormatTools.INT32:
+				return buffer.getInt(offset);
+			case FormatTools.UINT32:
+				return buffer.getInt(offset) & 0xFFFFFFFFL;
+			case FormatTools.FLOAT:
+				return buffer.getFloat(offset);
+			case FormatTools.DOUBLE:
+				return buffer.getDouble(offset);
+			default:
+				return buffer.get(offset) & 0xFF;
+		}
+	}
+
+	private static int[] stretch(double[] channelValues) {
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (double value : channelValues) {
+			if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+			}
+		}
+		int[] result = new int[channelValues.length];
+		if (!(max > min)) {
+			return result;
+		}
+		double range = max - min;
+		for (int i = 0; i < channelValues.length; i++) {
+			double value = channelValues[i];
+			if (Double.isNaN(value)) {
+				continue;
+			}
+			result[i] = (int) Math.round(
+					Math.min(1d, Math.max(0d, (value - min) / range)) * 255);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.utils.tiledtiffs;
+
+import gov.nist.itl.ssd.wipp.backend.core.utils.FlightRecorderEvents;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Conversion of a row of tiles of an image, see FlightRecorderEvents.
+ */
+@Name("gov.nist.itl.ssd.wipp.TileBatchConversion")
+@Label("Tile Batch Conversion")
+@Category({FlightRecorderEvents.CATEGORY, "Images"})
+@Description("Reading and writing of a row of tiles of an image")
+@StackTrace(false)
+class TileBatchEvent extends Event {
+
+    @Label("Input File")
+    String inputFile;
+
+    @Label("Row")
+    int row;
+
+    @Label("Tiles")
+    int tiles;
+
+    @Label("Bytes Read")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+}
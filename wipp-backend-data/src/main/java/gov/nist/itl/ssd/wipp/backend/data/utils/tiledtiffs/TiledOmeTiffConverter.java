@@ -11,13 +11,20 @@
  */
 package gov.nist.itl.ssd.wipp.backend.data.utils.tiledtiffs;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import gov.nist.itl.ssd.wipp.backend.core.utils.FlightRecorderEvents;
+import gov.nist.itl.ssd.wipp.backend.data.imagescollection.images.ImageMetadata;
 import gov.nist.itl.ssd.wipp.backend.data.imagescollection.images.ImageUploadController;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import loci.common.services.DependencyException;
 import loci.common.services.ServiceException;
 import loci.common.services.ServiceFactory;
@@ -28,6 +35,7 @@ import loci.formats.meta.IMetadata;
 import loci.formats.out.OMETiffWriter;
 import loci.formats.services.OMEXMLService;
 import loci.formats.codec.CompressionType;
+import ome.units.quantity.Length;
 
 /**
  * Inspired from https://docs.openmicroscopy.org/bio-formats/5.9.1/_downloads/OverlappedTiledWriter.java
@@ -40,12 +48,34 @@ public class TiledOmeTiffConverter {
 
 	private static final Logger LOG = Logger.getLogger(TiledOmeTiffConverter.class.getName());
 
+	// Converters are not beans, meters are registered in the global registry
+	private static final Timer TILES_TIMER = Timer
+			.builder("wipp.images.conversion.tiles")
+			.description("Duration of the tiles reading and writing of an image")
+			.publishPercentileHistogram()
+			.register(Metrics.globalRegistry);
+
+	private static final Timer THUMBNAIL_TIMER = Timer
+			.builder("wipp.images.conversion.thumbnail")
+			.description("Duration of the thumbnail writing of an image")
+			.register(Metrics.globalRegistry);
+
+	private static final Counter PIXELS_COUNTER = Counter
+			.builder("wipp.images.conversion.pixels")
+			.description("Number of pixels converted")
+			.register(Metrics.globalRegistry);
+
 	private ImageReader reader;
 	private OMETiffWriter writer;
 	private String inputFile;
 	private String outputFile;
 	private int tileSizeX;
 	private int tileSizeY;
+	private File thumbnailFile;
+	private int thumbnailSize;
+	private ThumbnailBuilder thumbnailBuilder;
+	private OMEXMLService service;
+	private IMetadata omexml;
 
 	public TiledOmeTiffConverter(String inputFile, String outputFile, int tileSizeX, int tileSizeY) {
 		this.inputFile = inputFile;
@@ -54,11 +84,23 @@ public class TiledOmeTiffConverter {
 		this.tileSizeY = tileSizeY;
 	}
 
+	/**
+	 * Also build a thumbnail of the image from the tiles read during the
+	 * conversion. Must be called before init.
+	 *
+	 * @param thumbnailFile the PNG file to write
+	 * @param thumbnailSize the maximum width and height of the thumbnail
+	 */
+	public void setThumbnail(File thumbnailFile, int thumbnailSize) {
+		this.thumbnailFile = thumbnailFile;
+		this.thumbnailSize = thumbnailSize;
+	}
+
 	public void init() throws DependencyException, FormatException, IOException, ServiceException {
 		// construct the object that stores OME-XML metadata
 		ServiceFactory factory = new ServiceFactory();
-		OMEXMLService service = factory.getInstance(OMEXMLService.class);
-		IMetadata omexml = service.createOMEXMLMetadata();
+		service = factory.getInstance(OMEXMLService.class);
+		omexml = service.createOMEXMLMetadata();
 
 		// set up the reader and associate it with the input file
 		reader = new ImageReader();
@@ -83,13 +125,24 @@ public class TiledOmeTiffConverter {
 
 		// WIPP stores compressed images
 		writer.setCompression(CompressionType.LZW.getCompression());
+
+		if (thumbnailFile != null) {
+			thumbnailBuilder = new ThumbnailBuilder(reader, thumbnailSize);
+		}
 	}
 
 	// Read the input file as a plain image and write it into a tiled format
 	public void readWriteTiles() throws FormatException, DependencyException, ServiceException, IOException {
+		long start = System.nanoTime();
+		ImageConversionEvent conversionEvent = FlightRecorderEvents.ENABLED
+				? new ImageConversionEvent() : null;
+		if (conversionEvent != null) {
+			conversionEvent.begin();
+		}
+		long bytesRead = 0;
 		int bpp = FormatTools.getBytesPerPixel(reader.getPixelType());
-		int tilePlaneSize = tileSizeX * tileSizeY * reader.getRGBChannelCount() * bpp;
-		byte[] buf = new byte[tilePlaneSize];
+		int pixelBytes = reader.getRGBChannelCount() * bpp;
+		byte[] buf = new byte[tileSizeX * tileSizeY * pixelBytes];
 
 		// WIPP handles 2D images only, the image series are set to 0 in our case 
 		int width = reader.getSizeX();
@@ -102,6 +155,13 @@ public class TiledOmeTiffConverter {
 		if (nYTiles * tileSizeY != height) nYTiles++;
 
 		for (int y=0; y<nYTiles; y++) {
+			// One event per row of tiles
+			TileBatchEvent batchEvent = FlightRecorderEvents.ENABLED
+					? new TileBatchEvent() : null;
+			if (batchEvent != null) {
+				batchEvent.begin();
+			}
+			long rowBytesRead = 0;
 			for (int x=0; x<nXTiles; x++) {
 				
 				int tileX = x * tileSizeX;
@@ -112,8 +172,92 @@ public class TiledOmeTiffConverter {
 
 				buf = reader.openBytes(0, tileX, tileY, effTileSizeX, effTileSizeY);
 				writer.saveBytes(0, buf, tileX, tileY, effTileSizeX, effTileSizeY);
+				if (thumbnailBuilder != null) {
+					thumbnailBuilder.addTile(buf, tileX, tileY, effTileSizeX, effTileSizeY);
+				}
+				// Edge tiles are smaller than the tile size
+				rowBytesRead += (long) effTileSizeX * effTileSizeY * pixelBytes;
 			}
+			bytesRead += rowBytesRead;
+			if (batchEvent != null && batchEvent.shouldCommit()) {
+				batchEvent.inputFile = inputFile;
+				batchEvent.row = y;
+				batchEvent.tiles = nXTiles;
+				batchEvent.bytes = rowBytesRead;
+				batchEvent.commit();
+			}
+		}
+		TILES_TIMER.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		PIXELS_COUNTER.increment((double) width * height);
+		if (conversionEvent != null && conversionEvent.shouldCommit()) {
+			conversionEvent.inputFile = inputFile;
+			conversionEvent.width = width;
+			conversionEvent.height = height;
+			conversionEvent.tiles = nXTiles * nYTiles;
+			conversionEvent.bytes = bytesRead;
+			conversionEvent.commit();
 		}
+
+		if (thumbnailBuilder != null) {
+			// A missing thumbnail should not fail the conversion
+			long thumbnailStart = System.nanoTime();
+			try {
+				thumbnailBuilder.write(thumbnailFile);
+			} catch (IOException | RuntimeException e) {
+				LOG.log(Level.WARNING, "Failed to write thumbnail " + thumbnailFile, e);
+			}
+			THUMBNAIL_TIMER.record(System.nanoTime() - thumbnailStart,
+					TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Capture the core metadata of the image from the open reader.
+	 * Must be called after init.
+	 *
+	 * @return the image metadata
+	 */
+	public ImageMetadata extractMetadata() {
+		ImageMetadata metadata = new ImageMetadata();
+		metadata.setSizeX(reader.getSizeX());
+		metadata.setSizeY(reader.getSizeY());
+		metadata.setSizeZ(reader.getSizeZ());
+		metadata.setSizeC(reader.getSizeC());
+		metadata.setSizeT(reader.getSizeT());
+		metadata.setPixelType(FormatTools.getPixelTypeString(reader.getPixelType()));
+		metadata.setBitsPerPixel(reader.getBitsPerPixel());
+		metadata.setRgbChannelCount(reader.getRGBChannelCount());
+		if (omexml.getImageCount() > 0) {
+			Length physicalSizeX = omexml.getPixelsPhysicalSizeX(0);
+			Length physicalSizeY = omexml.getPixelsPhysicalSizeY(0);
+			Length physicalSizeZ = omexml.getPixelsPhysicalSizeZ(0);
+			metadata.setPhysicalSizeX(toDouble(physicalSizeX));
+			metadata.setPhysicalSizeY(toDouble(physicalSizeY));
+			metadata.setPhysicalSizeZ(toDouble(physicalSizeZ));
+			// The axes may have different units, e.g. µm in X/Y and nm in Z
+			metadata.setPhysicalSizeXUnit(toUnitSymbol(physicalSizeX));
+			metadata.setPhysicalSizeYUnit(toUnitSymbol(physicalSizeY));
+			metadata.setPhysicalSizeZUnit(toUnitSymbol(physicalSizeZ));
+		}
+		return metadata;
+	}
+
+	/**
+	 * @return the OME-XML written in the output file, without indentation
+	 * @throws ServiceException
+	 */
+	public String getOmeXml() throws ServiceException {
+		return service.getOMEXML(omexml);
+	}
+
+	private static Double toDouble(Length length) {
+		return length == null || length.value() == null
+				? null : length.value().doubleValue();
+	}
+
+	private static String toUnitSymbol(Length length) {
+		return length == null || length.unit() == null
+				? null : length.unit().getSymbol();
 	}
 
 	// Close the file reader and writer.
@@ -0,0 +1,59 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.utils.trash;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Reports the state of the background trash purge.
+ */
+@RestController
+@RequestMapping(CoreConfig.BASE_URI + "/trash")
+public class TrashController {
+
+    @Autowired
+    private TrashHandler trashHandler;
+
+    @RequestMapping(value = "", method = RequestMethod.GET)
+    public ResponseEntity<TrashStatus> getStatus() {
+        return new ResponseEntity<>(new TrashStatus(
+                trashHandler.getPendingFolders(),
+                trashHandler.getReclaimableBytes()), HttpStatus.OK);
+    }
+
+    public static class TrashStatus {
+
+        private final int pendingFolders;
+
+        private final long reclaimableBytes;
+
+        public TrashStatus(int pendingFolders, long reclaimableBytes) {
+            this.pendingFolders = pendingFolders;
+            this.reclaimableBytes = reclaimableBytes;
+        }
+
+        public int getPendingFolders() {
+            return pendingFolders;
+        }
+
+        public long getReclaimableBytes() {
+            return reclaimableBytes;
+        }
+    }
+}
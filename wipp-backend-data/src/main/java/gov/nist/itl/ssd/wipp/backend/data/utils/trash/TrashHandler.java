@@ -0,0 +1,265 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.data.utils.trash;
+
+import gov.nist.itl.ssd.wipp.backend.core.CoreConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes folders by renaming them into the trash folder and purging the
+ * trash in the background.
+ *
+ * The rename is atomic and does not depend on the number of files, so the
+ * caller returns immediately. The purge runs one trashed folder at a time,
+ * deletes its files with a bounded number of threads and is throttled to a
+ * maximum number of deletions per second. Folders still in the trash at
+ * startup are purged again.
+ */
+@Component
+public class TrashHandler {
+
+    private static final Logger LOG = Logger.getLogger(
+            TrashHandler.class.getName());
+
+    @Autowired
+    private CoreConfig config;
+
+    private ExecutorService purgeExecutor;
+
+    private ExecutorService deleteExecutor;
+
+    private long deleteIntervalNanos;
+
+    private final AtomicLong nextDeleteTime = new AtomicLong();
+
+    private final AtomicLong reclaimableBytes = new AtomicLong();
+
+    private final AtomicInteger pendingFolders = new AtomicInteger();
+
+    @PostConstruct
+    public void instantiatePurger() {
+        purgeExecutor = Executors.newSingleThreadExecutor();
+        deleteExecutor = Executors.newFixedThreadPool(
+                config.getTrashPurgerThreads());
+        int deletesPerSecond = config.getTrashPurgerDeletesPerSecond();
+        deleteIntervalNanos = deletesPerSecond > 0
+                ? TimeUnit.SECONDS.toNanos(1) / deletesPerSecond
+                : 0;
+
+        // Resume any interrupted purge
+        File trashFolder = getTrashFolder();
+        trashFolder.mkdirs();
+        File[] trashedFolders = trashFolder.listFiles();
+        if (trashedFolders != null) {
+            for (File trashedFolder : trashedFolders) {
+                submitPurge(trashedFolder);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdownPurger() {
+        purgeExecutor.shutdownNow();
+        deleteExecutor.shutdownNow();
+    }
+
+    /**
+     * Move the given folder to the trash and schedule its purge.
+     * Does nothing if the folder does not exist.
+     *
+     * @param folder the folder to delete
+     * @throws IOException if the folder can not be moved nor deleted
+     */
+    public void moveToTrash(File folder) throws IOException {
+        if (!folder.exists()) {
+            return;
+        }
+        File trashFolder = getTrashFolder();
+        trashFolder.mkdirs();
+        File trashedFolder = new File(trashFolder,
+                UUID.randomUUID() + "-" + folder.getName());
+        try {
+            Files.move(folder.toPath(), trashedFolder.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            LOG.log(Level.WARNING, "Trash folder " + trashFolder
+                    + " is not on the same file system as " + folder
+                    + ", deleting it in place.");
+            FileUtils.deleteDirectory(folder);
+            return;
+        }
+        submitPurge(trashedFolder);
+    }
+
+    /**
+     * @return the size of the trashed files scanned but not yet deleted
+     */
+    public long getReclaimableBytes() {
+        return reclaimableBytes.get();
+    }
+
+    /**
+     * @return the number of trashed folders not yet purged
+     */
+    public int getPendingFolders() {
+        return pendingFolders.get();
+    }
+
+    private File getTrashFolder() {
+        return new File(config.getTrashFolder());
+    }
+
+    private void submitPurge(File trashedFolder) {
+        pendingFolders.incrementAndGet();
+        purgeExecutor.submit(() -> doPurge(trashedFolder));
+    }
+
+    private void doPurge(File trashedFolder) {
+        List<TrashedFile> files = new ArrayList<>();
+        List<Path> folders = new ArrayList<>();
+        AtomicLong deletedBytes = new AtomicLong();
+        long scannedBytes = 0;
+        try {
+            scannedBytes = scan(trashedFolder.toPath(), files, folders);
+            reclaimableBytes.addAndGet(scannedBytes);
+            LOG.log(Level.INFO, "Purging {0} files ({1} bytes) from {2}",
+                    new Object[]{files.size(), scannedBytes, trashedFolder});
+
+            deleteAll(files, deletedBytes);
+            // Folders are listed children first
+            for (Path folder : folders) {
+                Files.deleteIfExists(folder);
+            }
+            LOG.log(Level.INFO, "Done purging {0}", trashedFolder);
+        } catch (IOException | ExecutionException ex) {
+            LOG.log(Level.WARNING, "Error purging " + trashedFolder
+                    + ", it will be purged again at next startup.", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            reclaimableBytes.addAndGet(deletedBytes.get() - scannedBytes);
+            pendingFolders.decrementAndGet();
+        }
+    }
+
+    private static long scan(Path root, List<TrashedFile> files,
+            List<Path> folders) throws IOException {
+        AtomicLong size = new AtomicLong();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file,
+                    BasicFileAttributes attrs) {
+                files.add(new TrashedFile(file, attrs.size()));
+                size.addAndGet(attrs.size());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir,
+                    IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                folders.add(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size.get();
+    }
+
+    /**
+     * Delete the files in parallel, each thread taking every n-th file.
+     */
+    private void deleteAll(List<TrashedFile> files, AtomicLong deletedBytes)
+            throws InterruptedException, ExecutionException {
+        int nbThreads = config.getTrashPurgerThreads();
+        List<Callable<Void>> tasks = new ArrayList<>(nbThreads);
+        for (int i = 0; i < nbThreads; i++) {
+            int first = i;
+            tasks.add(() -> {
+                for (int j = first; j < files.size(); j += nbThreads) {
+                    TrashedFile file = files.get(j);
+                    throttle();
+                    try {
+                        Files.deleteIfExists(file.path);
+                        reclaimableBytes.addAndGet(-file.size);
+                        deletedBytes.addAndGet(file.size);
+                    } catch (IOException ex) {
+                        LOG.log(Level.FINE, "Can not delete " + file.path, ex);
+                    }
+                }
+                return null;
+            });
+        }
+
+        for (Future<Void> result : deleteExecutor.invokeAll(tasks)) {
+            result.get();
+        }
+    }
+
+    /**
+     * Wait for the next deletion slot so that no more than the configured
+     * number of files are deleted per second across all threads.
+     */
+    private void throttle() throws InterruptedException {
+        if (deleteIntervalNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long previous = nextDeleteTime.getAndAccumulate(now,
+                (next, time) -> Math.max(next, time) + deleteIntervalNanos);
+        long wait = previous - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private static class TrashedFile {
+
+        private final Path path;
+        private final long size;
+
+        private TrashedFile(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+}
@@ -41,6 +41,7 @@ import gov.nist.itl.ssd.wipp.backend.data.pyramid.Pyramid;
 import gov.nist.itl.ssd.wipp.backend.data.pyramid.PyramidRepository;
 import gov.nist.itl.ssd.wipp.backend.data.pyramid.timeslices.PyramidTimeSlice;
 import gov.nist.itl.ssd.wipp.backend.data.pyramid.timeslices.PyramidTimeSliceRepository;
+import gov.nist.itl.ssd.wipp.backend.data.utils.download.DownloadMetrics;
 import gov.nist.itl.ssd.wipp.backend.data.visualization.manifest.Manifest;
 import io.swagger.annotations.Api;
 
@@ -66,6 +67,9 @@ public class VisualizationDownloadController {
 	
 	@Autowired
     private PyramidTimeSliceRepository pyramidTimeSliceRepository;
+
+	@Autowired
+    private DownloadMetrics downloadMetrics;
 	
 	@RequestMapping(
             value = "",
@@ -95,26 +99,31 @@ public class VisualizationDownloadController {
         response.setHeader("Content-disposition",
                 "attachment;filename=" + visualization.getName() + ".zip");
 
-        ZipOutputStream zos = new ZipOutputStream(response.getOutputStream());
+        try (DownloadMetrics.Download download = downloadMetrics.start(
+                "visualization", visualizationId,
+                response.getOutputStream())) {
+            ZipOutputStream zos = new ZipOutputStream(download.getOutputStream());
         
-        // add pyramids used for the visualization
-        List<String> pyramidIds = getListOfPyramidIdsAndCurateManifest(manifest);
-        for (int i=0; i < pyramidIds.size(); i++) {
-        	addPyramidToZipOutputStream(zos, pyramidIds.get(i));
-        }
+            // add pyramids used for the visualization
+            List<String> pyramidIds = getListOfPyramidIdsAndCurateManifest(manifest);
+            for (int i=0; i < pyramidIds.size(); i++) {
+            	addPyramidToZipOutputStream(zos, pyramidIds.get(i));
+            }
         
-        // add manifest and README file
-        try (PrintWriter printWriter = new PrintWriter(zos)) {
-        	// manifest (curated with generic paths for the pyramids URLs)
-            zos.putNextEntry(new ZipEntry("/visualization/manifest.json"));
-        	ObjectMapper mapper = new ObjectMapper();
-        	mapper.disable(MapperFeature.USE_ANNOTATIONS);
-			printWriter.write(mapper.writerWithDefaultPrettyPrinter()
-					.writeValueAsString(manifest));
-			printWriter.flush();
-			// README
-	        zos.putNextEntry(new ZipEntry("/visualization/README.txt"));
-	        printWriter.write(generateREADME());
+            // add manifest and README file
+            try (PrintWriter printWriter = new PrintWriter(zos)) {
+            	// manifest (curated with generic paths for the pyramids URLs)
+                zos.putNextEntry(new ZipEntry("/visualization/manifest.json"));
+            	ObjectMapper mapper = new ObjectMapper();
+            	mapper.disable(MapperFeature.USE_ANNOTATIONS);
+    			printWriter.write(mapper.writerWithDefaultPrettyPrinter()
+    					.writeValueAsString(manifest));
+    			printWriter.flush();
+    			// README
+    	        zos.putNextEntry(new ZipEntry("/visualization/README.txt"));
+    	        printWriter.write(generateREADME());
+            }
+            download.completed();
         }
         
     }
@@ -0,0 +1,176 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The backend, started from its executable war in a separate JVM, with its
+ * storage in the work folder and the fake Argo as workflow binary.
+ */
+public class BackendProcess implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            BackendProcess.class.getName());
+
+    private static final long STARTUP_TIMEOUT_SECONDS = 300;
+
+    // Storage properties of application.properties, all under storage.root
+    private static final List<String> STORAGE_FOLDERS = Arrays.asList(
+            "workflows=workflows",
+            "collections=images-upload",
+            "collections.upload.tmp=temp/collections",
+            "stitching=stitching",
+            "pyramids=pyramids",
+            "tensorflow=tensorflow-models",
+            "tensorboard=tensorboard-logs",
+            "csv.collections=csv-collections",
+            "notebooks=notebooks",
+            "notebooks.tmp=temp/notebooks",
+            "temp.jobs=temp/jobs",
+            "trash=trash");
+
+    private final Process process;
+
+    private final String baseUrl;
+
+    private BackendProcess(Process process, String baseUrl) {
+        this.process = process;
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Start the backend and wait until it is up.
+     *
+     * @param options the load tests options
+     * @param mongoHost the Mongo host
+     * @param mongoPort the Mongo port
+     * @param workFolder the work folder
+     * @param fakeArgo the fake Argo
+     * @return the started backend
+     * @throws IOException If the backend can not be started or does not
+     * come up in time.
+     */
+    public static BackendProcess start(LoadTestOptions options,
+            String mongoHost, int mongoPort, File workFolder,
+            FakeArgo fakeArgo) throws IOException, InterruptedException {
+        File war = options.getWar();
+        if (!war.isFile()) {
+            throw new FileNotFoundException("Backend war " + war
+                    + " not found, build it first or set --war.");
+        }
+        int port = getFreePort();
+        String baseUrl = "http://localhost:" + port;
+        File storageRoot = new File(workFolder, "storage");
+
+        List<String> command = new ArrayList<>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"),
+                "java").getPath());
+        command.addAll(options.getBackendJvmArgs());
+        command.add("-jar");
+        command.add(war.getAbsolutePath());
+        command.add("--server.port=" + port);
+        command.add("--spring.data.mongodb.host=" + mongoHost);
+        command.add("--spring.data.mongodb.port=" + mongoPort);
+        command.add("--spring.data.mongodb.database=wipp-load-tests");
+        command.add("--storage.root=" + storageRoot.getAbsolutePath());
+        for (String folder : STORAGE_FOLDERS) {
+            String[] property = folder.split("=");
+            command.add("--storage." + property[0] + "=" + new File(
+                    storageRoot, property[1]).getAbsolutePath());
+        }
+        command.add("--workflow.management.system=argo");
+        command.add("--workflow.binary=" + fakeArgo.getScript()
+                .getAbsolutePath());
+        command.add("--workflow.watch.interval.seconds=1");
+        command.add("--logging.path=" + new File(workFolder, "logs")
+                .getAbsolutePath());
+
+        File log = new File(workFolder, "backend.log");
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.environment().putAll(fakeArgo.getEnvironment(baseUrl));
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(log);
+        LOGGER.info("Starting backend on port " + port + ", log in " + log);
+        BackendProcess backend = new BackendProcess(builder.start(), baseUrl);
+        try {
+            backend.awaitUp(log);
+        } catch (IOException | InterruptedException ex) {
+            backend.close();
+            throw ex;
+        }
+        return backend;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    private void awaitUp(File log) throws IOException, InterruptedException {
+        long deadline = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(STARTUP_TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("Backend exited with code "
+                        + process.exitValue() + ", see " + log);
+            }
+            if (isUp()) {
+                return;
+            }
+            Thread.sleep(1000);
+        }
+        throw new IOException("Backend not up after " + STARTUP_TIMEOUT_SECONDS
+                + " seconds, see " + log);
+    }
+
+    private boolean isUp() {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(
+                    baseUrl + "/actuator/health").openConnection();
+            connection.setConnectTimeout(1000);
+            connection.setReadTimeout(5000);
+            try (InputStream in = connection.getInputStream()) {
+                while (in.read() >= 0) {
+                    // Drained so that the connection is reused
+                }
+            }
+            return connection.getResponseCode() == 200;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private static int getFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
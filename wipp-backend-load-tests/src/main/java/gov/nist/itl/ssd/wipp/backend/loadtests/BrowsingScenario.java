@@ -0,0 +1,81 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Users browsing the lists of collections, images, jobs and workflows, as
+ * the frontend does while the other scenarios create them.
+ */
+public class BrowsingScenario implements Scenario {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final List<String> collectionIds;
+
+    private final int clients;
+
+    /**
+     * @param collectionIds the collections whose images are listed
+     */
+    public BrowsingScenario(List<String> collectionIds,
+            LoadTestOptions options) {
+        this.collectionIds = collectionIds;
+        this.clients = options.getBrowsing();
+    }
+
+    @Override
+    public String getName() {
+        return "browsing";
+    }
+
+    @Override
+    public int getClients() {
+        return clients;
+    }
+
+    @Override
+    public void setUp(WippClient client) {
+    }
+
+    @Override
+    public void run(WippClient client, int clientIndex, long iteration)
+            throws IOException {
+        String page = "page=0&size=" + PAGE_SIZE;
+        switch ((int) (iteration % 4)) {
+            case 0:
+                client.get("collections list",
+                        "/api/imagesCollections?" + page + "&sort=creationDate,desc");
+                break;
+            case 1:
+                if (collectionIds.isEmpty()) {
+                    return;
+                }
+                String collectionId = collectionIds.get(ThreadLocalRandom
+                        .current().nextInt(collectionIds.size()));
+                client.get("images list", "/api/imagesCollections/"
+                        + collectionId + "/images?" + page);
+                break;
+            case 2:
+                client.get("jobs summary", "/api/jobs/summary?" + page
+                        + "&sort=creationDate,desc");
+                break;
+            default:
+                client.get("workflows list", "/api/workflows?" + page
+                        + "&sort=creationDate,desc");
+                break;
+        }
+    }
+}
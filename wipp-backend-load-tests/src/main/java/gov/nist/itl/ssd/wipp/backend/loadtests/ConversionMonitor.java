@@ -0,0 +1,142 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Follows the OME TIFF conversion backlog of the uploaded images, from the
+ * counters of their collections.
+ */
+public class ConversionMonitor implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            ConversionMonitor.class.getName());
+
+    private final WippClient client;
+
+    private final List<String> collectionIds;
+
+    private final ScheduledExecutorService poller
+            = Executors.newSingleThreadScheduledExecutor();
+
+    private volatile int maxBacklog;
+
+    private volatile int convertedAtReset;
+
+    private volatile Counts lastCounts = new Counts(0, 0, 0);
+
+    /**
+     * @param client a client whose requests are not part of the results
+     * @param collectionIds the collections of the uploaded images
+     */
+    public ConversionMonitor(WippClient client, List<String> collectionIds) {
+        this.client = client;
+        this.collectionIds = collectionIds;
+    }
+
+    public void start() {
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                lastCounts = count();
+                maxBacklog = Math.max(maxBacklog, lastCounts.importing);
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Can not read collections", ex);
+            }
+        }, 0, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Forget what was observed so far, at the end of the warmup.
+     */
+    public void reset() {
+        maxBacklog = lastCounts.importing;
+        convertedAtReset = lastCounts.converted();
+    }
+
+    /**
+     * Wait for the conversion of all the uploaded images, and print the
+     * backlog statistics.
+     *
+     * @param timeoutSeconds the maximum time to wait
+     */
+    public void drainAndPrint(PrintStream out, int timeoutSeconds)
+            throws IOException, InterruptedException {
+        // The last counts of the poller are the ones at the end of the run
+        poller.shutdownNow();
+        Counts runCounts = lastCounts;
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        Counts counts = count();
+        while (counts.importing > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1000);
+            counts = count();
+        }
+        double drainSeconds = (System.nanoTime() - start) / 1e9;
+        out.printf("Conversion backlog: max %d images, %d images converted "
+                + "during the run, %d conversion errors%n", maxBacklog,
+                runCounts.converted() - convertedAtReset, counts.errors);
+        if (counts.importing > 0) {
+            out.printf("Conversion backlog not drained after %d s, "
+                    + "%d images still converting%n", timeoutSeconds,
+                    counts.importing);
+        } else {
+            out.printf("Conversion backlog drained in %.1f s after the run%n",
+                    drainSeconds);
+        }
+    }
+
+    private Counts count() throws IOException {
+        int images = 0;
+        int importing = 0;
+        int errors = 0;
+        for (String collectionId : collectionIds) {
+            JsonNode collection = client.getJson("collection get",
+                    "/api/imagesCollections/" + collectionId);
+            images += collection.path("numberOfImages").asInt();
+            importing += collection.path("numberImportingImages").asInt();
+            errors += collection.path("numberOfImportErrors").asInt();
+        }
+        return new Counts(images, importing, errors);
+    }
+
+    @Override
+    public void close() {
+        poller.shutdownNow();
+    }
+
+    private static class Counts {
+
+        private final int images;
+        private final int importing;
+        private final int errors;
+
+        private Counts(int images, int importing, int errors) {
+            this.images = images;
+            this.importing = importing;
+            this.errors = errors;
+        }
+
+        private int converted() {
+            return images - importing - errors;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+import java.io.IOException;
+import java.util.logging.Logger;
+
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodProcess;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfigBuilder;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+
+/**
+ * Mongo server started for the duration of the load tests. The mongod
+ * binary is downloaded on first use and cached in ~/.embedmongo.
+ */
+public class EmbeddedMongo implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            EmbeddedMongo.class.getName());
+
+    private final int port;
+
+    private final MongodExecutable executable;
+
+    private final MongodProcess process;
+
+    private EmbeddedMongo(int port, MongodExecutable executable,
+            MongodProcess process) {
+        this.port = port;
+        this.executable = executable;
+        this.process = process;
+    }
+
+    public static EmbeddedMongo start() throws IOException {
+        int port = Network.getFreeServerPort();
+        MongodExecutable executable = MongodStarter.getDefaultInstance()
+                .prepare(new MongodConfigBuilder()
+                        .version(Version.Main.V3_6)
+                        .net(new Net("localhost", port,
+                                Network.localhostIsIPv6()))
+                        .build());
+        try {
+            MongodProcess process = executable.start();
+            LOGGER.info("Embedded Mongo started on port " + port);
+            return new EmbeddedMongo(port, executable, process);
+        } catch (IOException | RuntimeException ex) {
+            executable.stop();
+            throw ex;
+        }
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        process.stop();
+        executable.stop();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The fake-argo.sh script, used by the backend in place of the argo command
+ * line. Submitted workflows run for a fixed time, then succeed and call the
+ * exit callback of the backend. It requires sh and curl.
+ */
+public class FakeArgo {
+
+    private final File script;
+
+    private final File stateFolder;
+
+    private final int runSeconds;
+
+    private FakeArgo(File script, File stateFolder, int runSeconds) {
+        this.script = script;
+        this.stateFolder = stateFolder;
+        this.runSeconds = runSeconds;
+    }
+
+    /**
+     * Install the script in the work folder.
+     *
+     * @param workFolder the work folder
+     * @param runSeconds the time each workflow runs
+     * @return the installed fake Argo
+     */
+    public static FakeArgo install(File workFolder, int runSeconds)
+            throws IOException {
+        File folder = new File(workFolder, "argo");
+        File stateFolder = new File(folder, "workflows");
+        if (!stateFolder.isDirectory() && !stateFolder.mkdirs()) {
+            throw new IOException("Can not create folder " + stateFolder);
+        }
+        File script = new File(folder, "argo");
+        try (InputStream in = FakeArgo.class.getResourceAsStream(
+                "fake-argo.sh")) {
+            Files.copy(in, script.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (!script.setExecutable(true)) {
+            throw new IOException("Can not make " + script + " executable");
+        }
+        return new FakeArgo(script, stateFolder, runSeconds);
+    }
+
+    public File getScript() {
+        return script;
+    }
+
+    /**
+     * @param backendUrl the base URL of the backend, for the exit callback
+     * @return the environment of the backend, read by the script
+     */
+    public Map<String, String> getEnvironment(String backendUrl) {
+        Map<String, String> environment = new HashMap<>();
+        environment.put("FAKE_ARGO_STATE", stateFolder.getAbsolutePath());
+        environment.put("FAKE_ARGO_RUN_SECONDS", String.valueOf(runSeconds));
+        environment.put("FAKE_ARGO_CALLBACK", backendUrl);
+        return environment;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies and errors of the requests, by endpoint family.
+ */
+public class LatencyStats {
+
+    // Up to one hour, in microseconds
+    private static final long HIGHEST_TRACKABLE_VALUE
+            = TimeUnit.HOURS.toMicros(1);
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    private volatile long startNanos = System.nanoTime();
+
+    /**
+     * @param family the endpoint family
+     * @param nanos the duration of the request
+     * @param success false if the request failed
+     */
+    public void record(String family, long nanos, boolean success) {
+        Family stats = families.computeIfAbsent(family, f -> new Family());
+        if (success) {
+            stats.latencies.recordValue(Math.min(HIGHEST_TRACKABLE_VALUE,
+                    TimeUnit.NANOSECONDS.toMicros(nanos)));
+        } else {
+            stats.errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Forget what was recorded so far, at the end of the warmup.
+     */
+    public void reset() {
+        for (Family family : families.values()) {
+            family.latencies.reset();
+            family.errors.set(0);
+        }
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Print the count, errors, throughput and latency percentiles of each
+     * endpoint family since the last reset.
+     */
+    public void print(PrintStream out) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        out.printf("%-28s %8s %7s %9s %9s %9s %9s %9s%n", "Endpoint family",
+                "Count", "Errors", "Req/s", "p50 ms", "p90 ms", "p99 ms",
+                "Max ms");
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            Histogram latencies = entry.getValue().latencies.copy();
+            out.printf("%-28s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    entry.getKey(), latencies.getTotalCount(),
+                    entry.getValue().errors.get(),
+                    latencies.getTotalCount() / seconds,
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(90) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getMaxValue() / 1000.0);
+        }
+    }
+
+    private static class Family {
+
+        private final Histogram latencies = new ConcurrentHistogram(
+                HIGHEST_TRACKABLE_VALUE, 3);
+        private final AtomicLong errors = new AtomicLong();
+    }
+}
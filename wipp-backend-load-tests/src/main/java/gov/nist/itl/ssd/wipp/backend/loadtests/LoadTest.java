@@ -0,0 +1,182 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Load tests of the backend, started against an embedded Mongo and a fake
+ * Argo. The upload, tile, browsing and workflow scenarios run concurrently,
+ * each with its own number of clients, and the latency percentiles and
+ * throughput of each endpoint family are printed at the end, as well as the
+ * conversion backlog of the uploaded images.
+ *
+ * Usage: java -jar load-tests.jar [--name=value...], see LoadTestOptions.
+ */
+public class LoadTest {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            LoadTest.class.getName());
+
+    // Errors logged per scenario, the others are only counted
+    private static final int MAX_LOGGED_ERRORS = 10;
+
+    // Wait for the iterations in progress at the end of the run
+    private static final long STOP_TIMEOUT_SECONDS = 180;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(2);
+            return;
+        }
+        LOGGER.info("Load tests options: " + options);
+
+        File workFolder = options.getWorkFolder().isEmpty()
+                ? Files.createTempDirectory("wipp-load-tests").toFile()
+                : new File(options.getWorkFolder());
+        EmbeddedMongo mongo = null;
+        BackendProcess backend = null;
+        try {
+            String mongoHost = "localhost";
+            int mongoPort;
+            if (options.getMongo().isEmpty()) {
+                mongo = EmbeddedMongo.start();
+                mongoPort = mongo.getPort();
+            } else {
+                String[] hostPort = options.getMongo().split(":");
+                mongoHost = hostPort[0];
+                mongoPort = hostPort.length > 1
+                        ? Integer.parseInt(hostPort[1]) : 27017;
+            }
+            FakeArgo fakeArgo = FakeArgo.install(workFolder,
+                    options.getArgoRunSeconds());
+            backend = BackendProcess.start(options, mongoHost, mongoPort,
+                    workFolder, fakeArgo);
+            run(options, backend.getBaseUrl(),
+                    new File(new File(workFolder, "storage"), "pyramids"));
+        } finally {
+            if (backend != null) {
+                backend.close();
+            }
+            if (mongo != null) {
+                mongo.close();
+            }
+            if (options.isKeep()) {
+                LOGGER.info("Work folder kept in " + workFolder);
+            } else {
+                FileUtils.deleteDirectory(workFolder);
+            }
+        }
+    }
+
+    private static void run(LoadTestOptions options, String baseUrl,
+            File pyramidsFolder) throws Exception {
+        LatencyStats stats = new LatencyStats();
+        WippClient client = new WippClient(baseUrl, stats);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        UploadScenario uploads = new UploadScenario(stats, runId, options);
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(uploads);
+        scenarios.add(new TileScenario(pyramidsFolder, options));
+        scenarios.add(new BrowsingScenario(uploads.getCollectionIds(),
+                options));
+        scenarios.add(new WorkflowScenario(stats, runId, options));
+        scenarios.removeIf(scenario -> scenario.getClients() <= 0);
+        for (Scenario scenario : scenarios) {
+            scenario.setUp(client);
+        }
+
+        try (ConversionMonitor conversionMonitor = new ConversionMonitor(
+                new WippClient(baseUrl, new LatencyStats()),
+                uploads.getCollectionIds())) {
+            conversionMonitor.start();
+            List<Thread> threads = new ArrayList<>();
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(
+                    options.getWarmupSeconds() + options.getDurationSeconds());
+            for (Scenario scenario : scenarios) {
+                AtomicLong errors = new AtomicLong();
+                for (int i = 0; i < scenario.getClients(); i++) {
+                    int clientIndex = i;
+                    Thread thread = new Thread(() -> runClient(scenario,
+                            client, clientIndex, end, errors),
+                            scenario.getName() + "-" + i);
+                    thread.start();
+                    threads.add(thread);
+                }
+            }
+
+            LOGGER.info("Warming up for " + options.getWarmupSeconds() + " s");
+            Thread.sleep(TimeUnit.SECONDS.toMillis(options.getWarmupSeconds()));
+            stats.reset();
+            conversionMonitor.reset();
+            LOGGER.info("Measuring for " + options.getDurationSeconds() + " s");
+
+            long stopDeadline = end + TimeUnit.SECONDS.toNanos(
+                    STOP_TIMEOUT_SECONDS);
+            for (Thread thread : threads) {
+                thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(
+                        stopDeadline - System.nanoTime())));
+                thread.interrupt();
+            }
+
+            System.out.println();
+            System.out.printf("%d s run, clients: %d uploads, %d tiles, "
+                    + "%d browsing, %d workflows%n",
+                    options.getDurationSeconds(), options.getUploads(),
+                    options.getTiles(), options.getBrowsing(),
+                    options.getWorkflows());
+            stats.print(System.out);
+            if (options.getUploads() > 0) {
+                conversionMonitor.drainAndPrint(System.out,
+                        options.getDrainTimeoutSeconds());
+            }
+        }
+    }
+
+    private static void runClient(Scenario scenario, WippClient client,
+            int clientIndex, long end, AtomicLong errors) {
+        for (long iteration = 0; System.nanoTime() < end; iteration++) {
+            try {
+                scenario.run(client, clientIndex, iteration);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                if (errors.incrementAndGet() <= MAX_LOGGED_ERRORS) {
+                    LOGGER.log(Level.WARNING, "Error in scenario "
+                            + scenario.getName(), ex);
+                }
+                // Do not spin on a failing backend
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of the load tests, given on the command line as --name=value.
+ */
+public class LoadTestOptions {
+
+    private static final List<String> NAMES = Collections.unmodifiableList(
+            Arrays.asList("war", "mongo", "backendJvmArgs", "workFolder", "keep",
+                    "duration", "warmup", "uploads", "tiles", "browsing",
+                    "workflows", "imageSize", "chunkSize", "jobsPerWorkflow",
+                    "argoRunSeconds", "drainTimeout"));
+
+    private final Map<String, String> values = new HashMap<>();
+
+    public LoadTestOptions() {
+        values.put("war", "wipp-backend-application/target/"
+                + "wipp-backend-application-3.0.0-beta-exec.war");
+        values.put("mongo", "");
+        values.put("backendJvmArgs", "-Xmx2g");
+        values.put("workFolder", "");
+        values.put("keep", "false");
+        values.put("duration", "60");
+        values.put("warmup", "10");
+        values.put("uploads", "4");
+        values.put("tiles", "16");
+        values.put("browsing", "4");
+        values.put("workflows", "2");
+        values.put("imageSize", "1024");
+        values.put("chunkSize", String.valueOf(1024 * 1024));
+        values.put("jobsPerWorkflow", "3");
+        values.put("argoRunSeconds", "5");
+        values.put("drainTimeout", "300");
+    }
+
+    /**
+     * @param args the command line arguments
+     * @return the options
+     * @throws IllegalArgumentException If an argument is not a known option.
+     */
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Invalid argument " + arg
+                        + ", expected --name=value.");
+            }
+            String name = arg.substring(2, separator);
+            if (!NAMES.contains(name)) {
+                throw new IllegalArgumentException("Unknown option " + name
+                        + ", expected one of " + NAMES + ".");
+            }
+            options.values.put(name, arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    /**
+     * @return the executable war of the backend
+     */
+    public File getWar() {
+        return new File(values.get("war"));
+    }
+
+    /**
+     * @return host:port of an existing Mongo server, empty to start an
+     * embedded one
+     */
+    public String getMongo() {
+        return values.get("mongo");
+    }
+
+    public List<String> getBackendJvmArgs() {
+        String jvmArgs = values.get("backendJvmArgs").trim();
+        return jvmArgs.isEmpty() ? Collections.emptyList()
+                : Arrays.asList(jvmArgs.split("\\s+"));
+    }
+
+    /**
+     * @return the folder of the storage, logs and fake Argo state, empty for
+     * a temporary folder
+     */
+    public String getWorkFolder() {
+        return values.get("workFolder");
+    }
+
+    /**
+     * @return true to keep the work folder after the run
+     */
+    public boolean isKeep() {
+        return Boolean.parseBoolean(values.get("keep"));
+    }
+
+    public int getDurationSeconds() {
+        return getInt("duration");
+    }
+
+    public int getWarmupSeconds() {
+        return getInt("warmup");
+    }
+
+    /**
+     * @return the number of clients uploading images
+     */
+    public int getUploads() {
+        return getInt("uploads");
+    }
+
+    /**
+     * @return the number of clients browsing pyramid tiles
+     */
+    public int getTiles() {
+        return getInt("tiles");
+    }
+
+    /**
+     * @return the number of clients browsing collections and jobs
+     */
+    public int getBrowsing() {
+        return getInt("browsing");
+    }
+
+    /**
+     * @return the number of clients submitting workflows
+     */
+    public int getWorkflows() {
+        return getInt("workflows");
+    }
+
+    /**
+     * @return the width and height of the uploaded images
+     */
+    public int getImageSize() {
+        return getInt("imageSize");
+    }
+
+    /**
+     * @return the size of the flow.js chunks, in bytes
+     */
+    public int getChunkSize() {
+        return getInt("chunkSize");
+    }
+
+    public int getJobsPerWorkflow() {
+        return getInt("jobsPerWorkflow");
+    }
+
+    /**
+     * @return the time a workflow runs in the fake Argo
+     */
+    public int getArgoRunSeconds() {
+        return getInt("argoRunSeconds");
+    }
+
+    /**
+     * @return the maximum time to wait for the conversion backlog to drain
+     * after the run
+     */
+    public int getDrainTimeoutSeconds() {
+        return getInt("drainTimeout");
+    }
+
+    private int getInt(String name) {
+        try {
+            return Integer.parseInt(values.get(name));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Option " + name
+                    + " must be an integer.", ex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
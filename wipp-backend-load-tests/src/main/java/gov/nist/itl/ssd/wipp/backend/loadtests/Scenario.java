@@ -0,0 +1,41 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+/**
+ * A load pattern, run in a loop by each of its clients for the duration of
+ * the load tests.
+ */
+public interface Scenario {
+
+    String getName();
+
+    /**
+     * @return the number of concurrent clients
+     */
+    int getClients();
+
+    /**
+     * Create the data used by the scenario, before the run.
+     */
+    void setUp(WippClient client) throws Exception;
+
+    /**
+     * Run one iteration of the scenario.
+     *
+     * @param client the client
+     * @param clientIndex the index of the client, from 0 to getClients() - 1
+     * @param iteration the number of the iteration of this client
+     */
+    void run(WippClient client, int clientIndex, long iteration)
+            throws Exception;
+}
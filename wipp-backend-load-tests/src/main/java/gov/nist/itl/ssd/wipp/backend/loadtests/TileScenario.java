@@ -0,0 +1,98 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Tile browsing of a pyramid in the viewer: random tiles of a deep zoom
+ * pyramid, generated in the pyramids storage folder, are fetched from the
+ * static pyramid files.
+ */
+public class TileScenario implements Scenario {
+
+    private static final String PYRAMID_NAME = "load-tests";
+
+    private static final int TILE_SIZE = 256;
+
+    // Levels 0 to MAX_LEVEL, level n has 2^n x 2^n tiles
+    private static final int MAX_LEVEL = 5;
+
+    private final File pyramidsFolder;
+
+    private final int clients;
+
+    public TileScenario(File pyramidsFolder, LoadTestOptions options) {
+        this.pyramidsFolder = pyramidsFolder;
+        this.clients = options.getTiles();
+    }
+
+    @Override
+    public String getName() {
+        return "tiles";
+    }
+
+    @Override
+    public int getClients() {
+        return clients;
+    }
+
+    @Override
+    public void setUp(WippClient client) throws IOException {
+        Random random = new Random(42);
+        File tilesFolder = new File(new File(pyramidsFolder, PYRAMID_NAME),
+                "tiles_files");
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            File levelFolder = new File(tilesFolder, String.valueOf(level));
+            if (!levelFolder.isDirectory() && !levelFolder.mkdirs()) {
+                throw new IOException("Can not create folder " + levelFolder);
+            }
+            int tiles = 1 << level;
+            for (int x = 0; x < tiles; x++) {
+                for (int y = 0; y < tiles; y++) {
+                    ImageIO.write(createTile(random), "png",
+                            new File(levelFolder, x + "_" + y + ".png"));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void run(WippClient client, int clientIndex, long iteration)
+            throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int level = random.nextInt(MAX_LEVEL + 1);
+        int tiles = 1 << level;
+        client.get("pyramid tile", "/pyramid-files/" + PYRAMID_NAME
+                + "/tiles_files/" + level + "/" + random.nextInt(tiles) + "_"
+                + random.nextInt(tiles) + ".png");
+    }
+
+    private static BufferedImage createTile(Random random) {
+        BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE,
+                BufferedImage.TYPE_BYTE_GRAY);
+        WritableRaster raster = tile.getRaster();
+        for (int y = 0; y < TILE_SIZE; y++) {
+            for (int x = 0; x < TILE_SIZE; x++) {
+                raster.setSample(x, y, 0, random.nextInt(256));
+            }
+        }
+        return tile;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Many parallel flow.js uploads: each client uploads images, chunk by
+ * chunk, to its own collection. Every uploaded image is then queued for the
+ * OME TIFF conversion, so this scenario also builds the conversion backlog.
+ */
+public class UploadScenario implements Scenario {
+
+    private static final String CHUNK_FAMILY = "upload chunk";
+
+    private static final String FILE_FAMILY = "upload file (total)";
+
+    private final LatencyStats stats;
+
+    private final String runId;
+
+    private final int clients;
+
+    private final int imageSize;
+
+    private final int chunkSize;
+
+    private final List<String> collectionIds = Collections.synchronizedList(
+            new ArrayList<>());
+
+    private byte[] image;
+
+    public UploadScenario(LatencyStats stats, String runId,
+            LoadTestOptions options) {
+        this.stats = stats;
+        this.runId = runId;
+        this.clients = options.getUploads();
+        this.imageSize = options.getImageSize();
+        this.chunkSize = options.getChunkSize();
+    }
+
+    @Override
+    public String getName() {
+        return "uploads";
+    }
+
+    @Override
+    public int getClients() {
+        return clients;
+    }
+
+    /**
+     * @return the ids of the collections the images are uploaded to
+     */
+    public List<String> getCollectionIds() {
+        return collectionIds;
+    }
+
+    @Override
+    public void setUp(WippClient client) throws IOException {
+        image = createImage(imageSize);
+        for (int i = 0; i < clients; i++) {
+            collectionIds.add(WippClient.idOf(client.postJson(
+                    "collection create", "/api/imagesCollections",
+                    Collections.singletonMap("name",
+                            "load-tests-" + runId + "-uploads-" + i))));
+        }
+    }
+
+    @Override
+    public void run(WippClient client, int clientIndex, long iteration)
+            throws IOException {
+        String collectionId = collectionIds.get(clientIndex);
+        String fileName = "img_c" + clientIndex + "_i" + iteration + ".png";
+        // As flow.js, the last chunk also holds the remainder
+        int totalChunks = Math.max(1, image.length / chunkSize);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            for (int chunk = 1; chunk <= totalChunks; chunk++) {
+                int from = (chunk - 1) * chunkSize;
+                int to = chunk == totalChunks ? image.length : from + chunkSize;
+                String path = "/api/imagesCollections/" + collectionId
+                        + "/images?flowChunkNumber=" + chunk
+                        + "&flowTotalChunks=" + totalChunks
+                        + "&flowChunkSize=" + chunkSize
+                        + "&flowTotalSize=" + image.length
+                        + "&flowIdentifier=" + encode(image.length + "-"
+                                + runId + "-" + fileName)
+                        + "&flowFilename=" + encode(fileName)
+                        + "&flowRelativePath=" + encode(fileName);
+                client.post(CHUNK_FAMILY, path, "application/octet-stream",
+                        Arrays.copyOfRange(image, from, to));
+            }
+            success = true;
+        } finally {
+            stats.record(FILE_FAMILY, System.nanoTime() - start, success);
+        }
+    }
+
+    private static String encode(String value) throws IOException {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * 16 bits grayscale noise, which is not compressible, so the upload size
+     * is close to the raw image size.
+     */
+    private static byte[] createImage(int size) throws IOException {
+        BufferedImage image = new BufferedImage(size, size,
+                BufferedImage.TYPE_USHORT_GRAY);
+        WritableRaster raster = image.getRaster();
+        Random random = new Random(42);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                raster.setSample(x, y, 0, random.nextInt(0x10000));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Client of the backend REST API. The duration of each request, including
+ * the reading of the response, is recorded under its endpoint family.
+ */
+public class WippClient {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private static final int TIMEOUT_MILLIS = 120000;
+
+    private final String baseUrl;
+
+    private final LatencyStats stats;
+
+    public WippClient(String baseUrl, LatencyStats stats) {
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public JsonNode getJson(String family, String path) throws IOException {
+        return JSON_MAPPER.readTree(request(family, "GET", path, null, null));
+    }
+
+    public JsonNode postJson(String family, String path, Object body)
+            throws IOException {
+        return JSON_MAPPER.readTree(request(family, "POST", path,
+                "application/json", JSON_MAPPER.writeValueAsBytes(body)));
+    }
+
+    public byte[] get(String family, String path) throws IOException {
+        return request(family, "GET", path, null, null);
+    }
+
+    public byte[] post(String family, String path, String contentType,
+            byte[] body) throws IOException {
+        return request(family, "POST", path, contentType, body);
+    }
+
+    /**
+     * @param entity an entity returned by the API
+     * @return the id of the entity
+     */
+    public static String idOf(JsonNode entity) {
+        if (entity.hasNonNull("id")) {
+            return entity.get("id").asText();
+        }
+        String self = entity.path("_links").path("self").path("href").asText();
+        return self.substring(self.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * @throws IOException If the request fails or the response status is
+     * not 2xx, the request is then recorded as an error.
+     */
+    private byte[] request(String family, String method, String path,
+            String contentType, byte[] body) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(
+                    baseUrl + path).openConnection();
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            connection.setRequestProperty("Accept", "*/*");
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", contentType);
+                connection.setFixedLengthStreamingMode(body.length);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body);
+                }
+            }
+            int status = connection.getResponseCode();
+            // Read the whole response, so that the connection is reused
+            byte[] response;
+            try (InputStream in = status < 400 ? connection.getInputStream()
+                    : connection.getErrorStream()) {
+                response = in == null ? new byte[0] : readFully(in);
+            }
+            if (status < 200 || status >= 300) {
+                throw new IOException(method + " " + path + " returned "
+                        + status + ": " + new String(response,
+                                StandardCharsets.UTF_8));
+            }
+            success = true;
+            return response;
+        } finally {
+            stats.record(family, System.nanoTime() - start, success);
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * This software was developed at the National Institute of Standards and
+ * Technology by employees of the Federal Government in the course of
+ * their official duties. Pursuant to title 17 Section 105 of the United
+ * States Code this software is not subject to copyright protection and is
+ * in the public domain. This software is an experimental system. NIST assumes
+ * no responsibility whatsoever for its use by other parties, and makes no
+ * guarantees, expressed or implied, about its quality, reliability, or
+ * any other characteristic. We would appreciate acknowledgement if the
+ * software is used.
+ */
+package gov.nist.itl.ssd.wipp.backend.loadtests;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Workflow submissions: each client creates a workflow made of a chain of
+ * jobs, submits it to the fake Argo and waits for its completion. The
+ * duration of each stage of the workflows is read from their timeline.
+ */
+public class WorkflowScenario implements Scenario {
+
+    private static final String COMPLETION_FAMILY = "workflow completion";
+
+    private static final String STAGE_FAMILY_PREFIX = "workflow stage ";
+
+    private static final List<String> FINAL_STATUSES = Collections
+            .unmodifiableList(Arrays.asList(
+                    "SUCCEEDED", "FAILED", "ERROR", "CANCELLED"));
+
+    private static final long POLL_INTERVAL_MILLIS = 500;
+
+    // Beyond the run time in the fake Argo
+    private static final long COMPLETION_TIMEOUT_SECONDS = 120;
+
+    private final LatencyStats stats;
+
+    private final String runId;
+
+    private final int clients;
+
+    private final int jobsPerWorkflow;
+
+    private final int argoRunSeconds;
+
+    private String pluginId;
+
+    public WorkflowScenario(LatencyStats stats, String runId,
+            LoadTestOptions options) {
+        this.stats = stats;
+        this.runId = runId;
+        this.clients = options.getWorkflows();
+        this.jobsPerWorkflow = options.getJobsPerWorkflow();
+        this.argoRunSeconds = options.getArgoRunSeconds();
+    }
+
+    @Override
+    public String getName() {
+        return "workflows";
+    }
+
+    @Override
+    public int getClients() {
+        return clients;
+    }
+
+    @Override
+    public void setUp(WippClient client) throws IOException {
+        Map<String, Object> input = new HashMap<>();
+        input.put("name", "message");
+        input.put("type", "string");
+        input.put("description", "Message");
+        input.put("required", true);
+        Map<String, Object> plugin = new HashMap<>();
+        plugin.put("name", "load-tests-" + runId);
+        plugin.put("version", "1.0.0");
+        plugin.put("title", "Load tests plugin");
+        plugin.put("description", "Plugin run by the fake Argo");
+        plugin.put("containerId", "wipp/load-tests:1.0.0");
+        plugin.put("inputs", Collections.singletonList(input));
+        plugin.put("outputs", Collections.emptyList());
+        plugin.put("ui", Collections.emptyList());
+        pluginId = WippClient.idOf(client.postJson("plugin create",
+                "/api/plugins", plugin));
+    }
+
+    @Override
+    public void run(WippClient client, int clientIndex, long iteration)
+            throws IOException, InterruptedException {
+        String name = "load-tests-" + runId + "-c" + clientIndex
+                + "-i" + iteration;
+        String workflowId = WippClient.idOf(client.postJson("workflow create",
+                "/api/workflows", Collections.singletonMap("name", name)));
+
+        String previousJobId = null;
+        for (int i = 0; i < jobsPerWorkflow; i++) {
+            Map<String, Object> job = new HashMap<>();
+            job.put("name", name + "-job" + i);
+            job.put("wippExecutable", pluginId);
+            job.put("wippWorkflow", workflowId);
+            // Unique parameters, so that no result is reused
+            job.put("parameters", Collections.singletonMap("message",
+                    name + "-job" + i));
+            if (previousJobId != null) {
+                job.put("dependencies", Collections.singletonList(
+                        previousJobId));
+            }
+            previousJobId = WippClient.idOf(client.postJson("job create",
+                    "/api/jobs", job));
+        }
+
+        long start = System.nanoTime();
+        client.post("workflow submit", "/api/workflows/" + workflowId
+                + "/submit", "application/json", new byte[0]);
+        String status = awaitCompletion(client, workflowId);
+        stats.record(COMPLETION_FAMILY, System.nanoTime() - start,
+                "SUCCEEDED".equals(status));
+        if (status != null) {
+            recordStages(client, workflowId);
+        }
+    }
+
+    private void recordStages(WippClient client, String workflowId)
+            throws IOException {
+        JsonNode timeline = client.getJson("workflow timeline",
+                "/api/workflows/" + workflowId + "/timeline");
+        for (JsonNode span : timeline.path("spans")) {
+            // Spans still running, e.g. the root span ended after the status
+            if (span.path("durationMillis").isNumber()) {
+                stats.record(STAGE_FAMILY_PREFIX + span.path("name").asText(),
+                        TimeUnit.MILLISECONDS.toNanos(
+                                span.path("durationMillis").asLong()),
+                        !span.path("error").asBoolean());
+            }
+        }
+    }
+
+    /**
+     * @return the final status of the workflow, or null on timeout
+     */
+    private String awaitCompletion(WippClient client, String workflowId)
+            throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(
+                argoRunSeconds + COMPLETION_TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+            JsonNode workflow = client.getJson("workflow get",
+                    "/api/workflows/" + workflowId);
+            String status = workflow.path("status").asText();
+            if (FINAL_STATUSES.contains(status)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+#!/bin/sh
+# Stand-in for the argo command line, used by the load tests.
+#
+# "argo submit --output name FILE" registers the workflow and prints its
+# generated name. The workflow then runs for FAKE_ARGO_RUN_SECONDS, after
+# which the exit callback of the backend is called with curl, as done by the
+# exit handler of the real workflows, with the trace context of the spec.
+# "argo get NAME -o json" prints the phase of the workflow.
+
+state_folder="${FAKE_ARGO_STATE:?}"
+run_seconds="${FAKE_ARGO_RUN_SECONDS:-5}"
+
+case "$1" in
+    submit)
+        for arg in "$@"; do
+            workflow_file="$arg"
+        done
+        workflow_id=$(basename "$workflow_file" .yaml)
+        workflow_id=${workflow_id#workflow-}
+        name="wipp-$workflow_id-$$"
+        traceparent=$(grep -o '00-[0-9a-f]\{32\}-[0-9a-f]\{16\}-[0-9a-f]\{2\}' \
+            "$workflow_file" | head -n 1)
+        date +%s > "$state_folder/$name"
+        nohup sh -c "sleep $run_seconds; curl -s -X POST \
+            -H 'Content-Type: text/plain' -H 'traceparent: $traceparent' \
+            --data Succeeded \
+            '$FAKE_ARGO_CALLBACK/api/workflows/$workflow_id/exit'" \
+            > /dev/null 2>&1 &
+        echo "$name"
+        ;;
+    get)
+        name="$2"
+        if [ ! -f "$state_folder/$name" ]; then
+            echo "Workflow $name not found" >&2
+            exit 1
+        fi
+        started=$(cat "$state_folder/$name")
+        if [ $(( $(date +%s) - started )) -ge "$run_seconds" ]; then
+            phase=Succeeded
+        else
+            phase=Running
+        fi
+        printf '{"metadata":{"name":"%s"},"status":{"phase":"%s","nodes":{}}}\n' \
+            "$name" "$phase"
+        ;;
+    *)
+        echo "Unsupported command $1" >&2
+        exit 1
+        ;;
+esac